@@ -99,7 +99,41 @@ public class ByFactory {
      * https://wiki.jenkins-ci.org/display/JENKINS/Form+Element+Path+Plugin
      */
     public By path(String path, Object... args) {
-        return css("[path='%s']", String.format(path, args));
+        return new ByPath(String.format(path, args));
+    }
+
+    /**
+     * Selector of element with given form element path.
+     *
+     * Keeps the path so the lookups can be batched, see {@link org.jenkinsci.test.acceptance.po.ControlResolver}.
+     */
+    public static final class ByPath extends By {
+        private final String path;
+        private final By css;
+
+        private ByPath(String path) {
+            this.path = path;
+            this.css = By.cssSelector("[path='" + path + "']");
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        @Override
+        public List<WebElement> findElements(SearchContext context) {
+            return css.findElements(context);
+        }
+
+        @Override
+        public WebElement findElement(SearchContext context) {
+            return css.findElement(context);
+        }
+
+        @Override
+        public String toString() {
+            return css.toString();
+        }
     }
 
     public By url(String path, Object... args) {
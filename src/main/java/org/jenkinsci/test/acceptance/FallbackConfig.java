@@ -22,8 +22,11 @@ import org.jenkinsci.test.acceptance.guice.TestCleaner;
 import org.jenkinsci.test.acceptance.guice.TestName;
 import org.jenkinsci.test.acceptance.guice.TestScope;
 import org.jenkinsci.test.acceptance.po.Jenkins;
+import org.jenkinsci.test.acceptance.recorder.ScreenshotTimeline;
+import org.jenkinsci.test.acceptance.recorder.TestRecorderRule;
 import org.jenkinsci.test.acceptance.selenium.SanityChecker;
 import org.jenkinsci.test.acceptance.selenium.Scroller;
+import org.jenkinsci.test.acceptance.selenium.WebDriverPool;
 import org.jenkinsci.test.acceptance.server.JenkinsControllerPoolProcess;
 import org.jenkinsci.test.acceptance.server.PooledJenkinsController;
 import org.jenkinsci.test.acceptance.slave.LocalSlaveProvider;
@@ -88,10 +91,28 @@ public class FallbackConfig extends AbstractModule {
         bind(MailService.class).to(Mailtrap.class);
     }
 
-    private WebDriver createWebDriver(TestName testName) throws IOException {
+    private static String getBrowser() {
         String browser = System.getenv("BROWSER");
         if (browser==null) browser = "firefox";
-        browser = browser.toLowerCase(Locale.ENGLISH);
+        return browser.toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Identify the browser type and capabilities, so tests get only the sessions they would have created themselves.
+     *
+     * @return null if the sessions are not to be reused.
+     */
+    private static @CheckForNull String getBrowserKey() {
+        if (!WebDriverPool.ENABLED) return null;
+
+        String browser = getBrowser();
+        if (browser.startsWith("saucelabs")) return null; // Sessions are named after the test
+
+        return browser + "|" + getBrowserDisplay() + "|" + System.getenv("REMOTE_WEBDRIVER_URL");
+    }
+
+    private WebDriver createWebDriver(TestName testName) throws IOException {
+        String browser = getBrowser();
 
         switch (browser) {
         case "firefox":
@@ -172,10 +193,14 @@ public class FallbackConfig extends AbstractModule {
 
     /**
      * Creates a {@link WebDriver} for each test, then make sure to clean it up at the end.
+     *
+     * With BROWSER_REUSE=true, the browser is taken from {@link WebDriverPool} and handed back at the end instead.
      */
     @Provides @TestScope
-    public WebDriver createWebDriver(TestCleaner cleaner, TestName testName, ElasticTime time) throws IOException {
-        WebDriver base = createWebDriver(testName);
+    public WebDriver createWebDriver(TestCleaner cleaner, TestName testName, ElasticTime time, ScreenshotTimeline timeline, final WebDriverPool pool) throws IOException {
+        final String key = getBrowserKey();
+        WebDriver pooled = key == null ? null : pool.take(key);
+        final WebDriver base = pooled != null ? pooled : createWebDriver(testName);
 
         // Make sue the window have minimal resolution set, even when out of the visible screen.
         // Note - not maximizing here any more because that doesn't do anything.
@@ -187,6 +212,9 @@ public class FallbackConfig extends AbstractModule {
         final EventFiringWebDriver d = new EventFiringWebDriver(base);
         d.register(new SanityChecker());
         d.register(new Scroller());
+        if (TestRecorderRule.isTimelineEnabled()) {
+            d.register(timeline);
+        }
 
         try {
             d.manage().timeouts().pageLoadTimeout(time.seconds(30), TimeUnit.MILLISECONDS);
@@ -198,6 +226,10 @@ public class FallbackConfig extends AbstractModule {
         cleaner.addTask(new Statement() {
             @Override
             public void evaluate() throws Throwable {
+                if (key != null) {
+                    pool.release(key, base);
+                    return;
+                }
                 try {
                     d.quit();
                 } catch (UnreachableBrowserException ex) {
@@ -207,7 +239,7 @@ public class FallbackConfig extends AbstractModule {
             }
 
             @Override public String toString() {
-                return "Close WebDriver after test";
+                return key != null ? "Hand WebDriver back to the pool after test" : "Close WebDriver after test";
             }
         });
         return d;
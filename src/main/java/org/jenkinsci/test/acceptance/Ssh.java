@@ -1,11 +1,16 @@
 package org.jenkinsci.test.acceptance;
 
 import com.trilead.ssh2.Connection;
-import com.trilead.ssh2.SCPClient;
 import com.trilead.ssh2.Session;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 
 /**
  * @author Vivek Pandey
@@ -13,11 +18,27 @@ import java.io.OutputStream;
 public class Ssh implements AutoCloseable {
     private final Connection connection;
 
+    /**
+     * Pool the connection is borrowed from, null if owned.
+     */
+    private final SshPool pool;
+    private boolean closed;
+
     public Ssh(String hostname) throws IOException {
-        this.connection = new Connection(hostname);
+        this(hostname, 22);
+    }
+
+    public Ssh(String hostname, int port) throws IOException {
+        this.connection = new Connection(hostname, port);
+        this.pool = null;
         connection.connect();
     }
 
+    /*package*/ Ssh(Connection connection, SshPool pool) {
+        this.connection = connection;
+        this.pool = pool;
+    }
+
     /**
      * Escapes a path to a form suitable for use on a command-line.
      * @param path the path.
@@ -61,9 +82,7 @@ public class Ssh implements AutoCloseable {
 
 
     public int executeRemoteCommand(String cmd, OutputStream os) {
-        Session session = null;
         try {
-            session = connection.openSession();
             int status = connection.exec(cmd, os);
             if (status != 0) {
                 throw new RuntimeException("Failed to execute command: " + cmd + ", exit code = " + status);
@@ -71,10 +90,6 @@ public class Ssh implements AutoCloseable {
             return status;
         } catch (InterruptedException | IOException e) {
             throw new AssertionError(e);
-        } finally {
-            if (session != null) {
-                session.close();
-            }
         }
     }
 
@@ -85,9 +100,70 @@ public class Ssh implements AutoCloseable {
         return executeRemoteCommand(cmd, System.out);
     }
 
+    /**
+     * Execute commands one after another in a single session, stopping at the first one to fail.
+     */
+    public int executeRemoteCommands(String... cmds) {
+        StringBuilder script = new StringBuilder();
+        for (String cmd : cmds) {
+            if (script.length() > 0) script.append(" && ");
+            script.append('(').append(cmd).append(')');
+        }
+        return executeRemoteCommand(script.toString());
+    }
+
     public void copyTo(String localFile, String remoteFile, String targetDir) throws IOException {
-        SCPClient scpClient = new SCPClient(connection);
-        scpClient.put(localFile, remoteFile, targetDir, "0755");
+        File file = new File(localFile);
+        try (InputStream in = new FileInputStream(file)) {
+            copyTo(in, file.length(), remoteFile, targetDir, "0755");
+        }
+    }
+
+    /**
+     * Stream data to remote file using SCP, without staging it in a local file.
+     *
+     * @param length Exact number of bytes to be read from the stream.
+     * @param mode File permissions, like "0644".
+     */
+    public void copyTo(InputStream data, long length, String remoteFile, String targetDir, String mode) throws IOException {
+        Session session = connection.openSession();
+        try {
+            session.execCommand("scp -t -d " + escape(targetDir));
+            OutputStream out = new BufferedOutputStream(session.getStdin(), 64 * 1024);
+            InputStream ack = session.getStdout();
+
+            readAck(ack);
+            out.write(String.format("C%s %d %s\n", mode, length, remoteFile).getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            readAck(ack);
+
+            byte[] buf = new byte[64 * 1024];
+            long remaining = length;
+            while (remaining > 0) {
+                int read = data.read(buf, 0, (int) Math.min(buf.length, remaining));
+                if (read == -1) throw new IOException("Premature end of data for " + remoteFile + ", " + remaining + " bytes missing");
+                out.write(buf, 0, read);
+                remaining -= read;
+            }
+            out.write(0);
+            out.flush();
+            readAck(ack);
+            out.close();
+        } finally {
+            session.close();
+        }
+    }
+
+    private static void readAck(InputStream in) throws IOException {
+        int c = in.read();
+        if (c == 0) return;
+        if (c == -1) throw new IOException("Remote scp terminated unexpectedly");
+
+        ByteArrayOutputStream message = new ByteArrayOutputStream();
+        for (int b = in.read(); b != -1 && b != '\n'; b = in.read()) {
+            message.write(b);
+        }
+        throw new IOException("Remote scp failed: " + message.toString("UTF-8"));
     }
 
     /**
@@ -95,11 +171,19 @@ public class Ssh implements AutoCloseable {
      */
     @Deprecated
     public void destroy() {
-        connection.close();
+        close();
     }
 
+    /**
+     * Close the connection, or return it to the pool it was borrowed from.
+     */
     @Override
     public void close() {
-        connection.close();
+        if (pool == null) {
+            connection.close();
+        } else if (!closed) {
+            closed = true;
+            pool.release(connection);
+        }
     }
 }
\ No newline at end of file
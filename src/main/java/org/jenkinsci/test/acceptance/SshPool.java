@@ -0,0 +1,161 @@
+package org.jenkinsci.test.acceptance;
+
+import com.trilead.ssh2.Connection;
+import com.trilead.ssh2.ConnectionMonitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authenticated SSH connections to a single host, shared by {@link Ssh} instances.
+ *
+ * <p>
+ * Setting up a connection takes a key exchange and authentication, that is several round trips, while a session is
+ * just a channel inside of the connection. So instead of connecting over and over, {@link #connect()} hands out
+ * connections that are already authenticated. Every connection serves up to {@link #MAX_SESSIONS} {@link Ssh}s at
+ * the same time as they open their own sessions. Closing the {@link Ssh} returns the connection to the pool.
+ *
+ * <p>
+ * Connections that break are dropped, idle connections are closed after {@link #IDLE_TIMEOUT}.
+ *
+ * @see org.jenkinsci.test.acceptance.machine.Machine#connect()
+ */
+public class SshPool {
+    /**
+     * Keep below the default of MaxSessions of OpenSSH.
+     */
+    private static final int MAX_SESSIONS = 8;
+    private static final int MAX_IDLE = 2;
+    private static final long IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(5);
+
+    private final String host;
+    private final int port;
+    private final Authenticator authenticator;
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    private int opened;
+    private int reused;
+
+    public SshPool(String host, Authenticator authenticator) {
+        this(host, 22, authenticator);
+    }
+
+    public SshPool(String host, int port, Authenticator authenticator) {
+        this.host = host;
+        this.port = port;
+        this.authenticator = authenticator;
+    }
+
+    /**
+     * Get connected and authenticated {@link Ssh}. It needs to be closed once done.
+     */
+    public Ssh connect() throws IOException {
+        synchronized (this) {
+            evictIdle();
+            Entry best = null;
+            for (Entry e : entries) {
+                if (e.dead || e.leases >= MAX_SESSIONS) continue;
+                // Prefer busy connections so idle ones can time out
+                if (best == null || e.leases > best.leases) {
+                    best = e;
+                }
+            }
+            if (best != null) {
+                best.leases++;
+                reused++;
+                return new Ssh(best.connection, this);
+            }
+        }
+
+        // Connect outside of the lock, it takes a while
+        Ssh ssh = new Ssh(host, port);
+        try {
+            authenticator.authenticate(ssh.getConnection());
+        } catch (IOException | RuntimeException e) {
+            ssh.close();
+            throw e;
+        }
+
+        final Entry entry = new Entry(ssh.getConnection());
+        entry.connection.addConnectionMonitor(new ConnectionMonitor() {
+            @Override
+            public void connectionLost(Throwable reason) {
+                entry.dead = true;
+            }
+        });
+        synchronized (this) {
+            entry.leases++;
+            entries.add(entry);
+            opened++;
+        }
+        return new Ssh(entry.connection, this);
+    }
+
+    /*package*/ synchronized void release(Connection connection) {
+        for (Iterator<Entry> it = entries.iterator(); it.hasNext(); ) {
+            Entry e = it.next();
+            if (e.connection != connection) continue;
+
+            e.leases--;
+            e.lastUsed = System.currentTimeMillis();
+            if (e.dead && e.leases == 0) {
+                it.remove();
+                e.connection.close();
+            }
+            break;
+        }
+        evictIdle();
+    }
+
+    /**
+     * Close all connections. Those in use are closed once released.
+     *
+     * The pool can still be used afterwards, to open new connections.
+     */
+    public synchronized void evict() {
+        for (Iterator<Entry> it = entries.iterator(); it.hasNext(); ) {
+            Entry e = it.next();
+            e.dead = true;
+            if (e.leases == 0) {
+                it.remove();
+                e.connection.close();
+            }
+        }
+        if (opened > 0) {
+            logger.info("{} ssh connections to {} opened, reused {} times", opened, host, reused);
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        int idle = 0;
+        for (Iterator<Entry> it = entries.iterator(); it.hasNext(); ) {
+            Entry e = it.next();
+            if (e.leases > 0) continue;
+
+            if (e.dead || now - e.lastUsed > IDLE_TIMEOUT || ++idle > MAX_IDLE) {
+                it.remove();
+                e.connection.close();
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final Connection connection;
+        private int leases;
+        private long lastUsed = System.currentTimeMillis();
+        private volatile boolean dead;
+
+        private Entry(Connection connection) {
+            this.connection = connection;
+        }
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(SshPool.class);
+}
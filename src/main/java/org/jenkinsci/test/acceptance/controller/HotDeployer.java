@@ -0,0 +1,188 @@
+package org.jenkinsci.test.acceptance.controller;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.FileUtils;
+import org.codehaus.plexus.util.Expand;
+import org.jenkinsci.utils.process.CommandBuilder;
+import org.jenkinsci.utils.process.ProcessInputStream;
+
+/**
+ * Servlet container kept running across tests, Jenkins context being deployed to it for every test.
+ *
+ * <p>
+ * Booting the container itself is paid only once, then every test only waits for Jenkins context to deploy. The
+ * war is exploded once and JENKINS_HOME is passed to the context by the container specific deployment descriptor.
+ * Jenkins leaks memory on undeploy, so the container is restarted after {@link #MAX_DEPLOYMENTS}.
+ *
+ * <p>
+ * Opt-in via HOT_REDEPLOY=true.
+ */
+/*package*/ abstract class HotDeployer {
+    /*package*/ static final boolean ENABLED = Boolean.parseBoolean(System.getenv("HOT_REDEPLOY"));
+
+    private static final int MAX_DEPLOYMENTS = 20;
+
+    protected final File home;
+
+    private boolean running;
+    private boolean shutdownHookRegistered;
+    private int deployments;
+
+    protected HotDeployer(File home) {
+        this.home = home;
+    }
+
+    /**
+     * Deploy Jenkins context, starting the container if needed.
+     *
+     * @return Output of the container since the deployment started. Caller is expected to wait for Jenkins to be up
+     * and close it once done.
+     */
+    public synchronized ProcessInputStream deploy(File war, File jenkinsHome, Map<String, String> env) throws IOException, InterruptedException {
+        if (running && deployments >= MAX_DEPLOYMENTS) {
+            LOGGER.info("Restarting " + this + " after " + deployments + " deployments");
+            shutdown();
+        }
+        if (!running) {
+            long start = System.currentTimeMillis();
+            startContainer(env);
+            running = true;
+            deployments = 0;
+            LOGGER.info("Started " + this + " in " + (System.currentTimeMillis() - start) + " ms");
+
+            if (!shutdownHookRegistered) {
+                shutdownHookRegistered = true;
+                Runtime.getRuntime().addShutdownHook(new Thread("Stop " + this) {
+                    @Override public void run() {
+                        shutdown();
+                    }
+                });
+            }
+        }
+
+        ProcessInputStream log = new CommandBuilder("tail").add("-n", "0", "-F", getLogFile()).popen();
+        deployContext(war, jenkinsHome);
+        deployments++;
+        return log;
+    }
+
+    /**
+     * Undeploy Jenkins context and wait for it to go away, leaving the container running.
+     */
+    public synchronized void undeploy(URL url) throws IOException {
+        if (!running) return;
+
+        undeployContext();
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(JenkinsController.STARTUP_TIMEOUT);
+        while (isServing(url)) {
+            if (System.currentTimeMillis() > deadline) {
+                LOGGER.warning(url + " still served after undeploy, restarting " + this);
+                shutdown();
+                return;
+            }
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    public synchronized void shutdown() {
+        if (!running) return;
+        running = false;
+        try {
+            stopContainer();
+        } catch (IOException | InterruptedException e) {
+            LOGGER.log(Level.WARNING, "Failed to stop " + this, e);
+        }
+    }
+
+    /*package*/ synchronized boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Log file of the container Jenkins logs into.
+     */
+    protected abstract File getLogFile();
+
+    protected abstract void startContainer(Map<String, String> env) throws IOException, InterruptedException;
+
+    protected abstract void stopContainer() throws IOException, InterruptedException;
+
+    protected abstract void deployContext(File war, File jenkinsHome) throws IOException;
+
+    protected abstract void undeployContext() throws IOException;
+
+    /**
+     * Explode the war into the directory, unless it was exploded there already.
+     */
+    protected static void explode(File war, File dir) throws IOException {
+        File stamp = new File(dir.getParentFile(), dir.getName() + ".stamp");
+        String expected = war.getCanonicalPath() + ":" + war.length() + ":" + war.lastModified();
+        if (dir.isDirectory() && stamp.isFile() && expected.equals(FileUtils.readFileToString(stamp))) {
+            return;
+        }
+
+        FileUtils.deleteQuietly(stamp);
+        FileUtils.deleteDirectory(dir);
+        Expand expand = new Expand();
+        expand.setSrc(war);
+        expand.setDest(dir);
+        try {
+            expand.execute();
+        } catch (Exception e) {
+            throw new IOException("Failed to explode " + war, e);
+        }
+        FileUtils.writeStringToFile(stamp, expected);
+    }
+
+    /**
+     * Delete file or directory, if it exists.
+     */
+    protected static void delete(File file) throws IOException {
+        if (file.exists()) {
+            FileUtils.forceDelete(file);
+        }
+    }
+
+    /**
+     * Escape text to be used in XML attribute.
+     */
+    protected static String xmlAttr(String value) {
+        return value.replace("&", "&amp;").replace("\"", "&quot;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    private static boolean isServing(URL url) {
+        try {
+            HttpURLConnection con = (HttpURLConnection) url.openConnection();
+            con.setConnectTimeout(1000);
+            con.setReadTimeout(5000);
+            try {
+                return con.getResponseCode() != HttpURLConnection.HTTP_NOT_FOUND;
+            } finally {
+                con.disconnect();
+            }
+        } catch (IOException e) {
+            return false; // Not listening at all
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " " + home;
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(HotDeployer.class.getName());
+}
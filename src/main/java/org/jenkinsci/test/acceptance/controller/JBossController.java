@@ -14,6 +14,11 @@ import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -21,9 +26,14 @@ import javax.inject.Named;
 /**
  * Launches Jenkins in JBoss.
  *
+ * With HOT_REDEPLOY=true, JBoss is kept running across tests and only Jenkins deployment is redeployed.
+ *
  * @author Vivek Pandey
+ * @see HotDeployer
  */
 public class JBossController extends LocalController {
+    private static final Map<File, Deployer> DEPLOYERS = new HashMap<>();
+
     private final File jbossHome;
 
     @Inject
@@ -38,6 +48,14 @@ public class JBossController extends LocalController {
 
     @Override
     public ProcessInputStream startProcess() throws IOException {
+        if (HotDeployer.ENABLED) {
+            try {
+                return deployer(jbossHome).deploy(war, getJenkinsHome(), commonLaunchEnv());
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+        }
+
         File jenkinsDeploymentDir = new File(jbossHome,"standalone/deployments/jenkins.war.deployed");
         if(jenkinsDeploymentDir.exists()){
             FileUtils.forceDelete(jenkinsDeploymentDir);
@@ -67,6 +85,16 @@ public class JBossController extends LocalController {
 
     @Override
     public void stopNow() throws IOException {
+        if (HotDeployer.ENABLED) {
+            System.out.println("    Undeploying a temporary Jenkins from JBoss\n");
+            try {
+                deployer(jbossHome).undeploy(getUrl());
+            } finally {
+                super.stopNow(); // Stop following the log
+            }
+            return;
+        }
+
         System.out.println("    Stopping a temporary Jenkins/JBoss instance\n");
         CommandBuilder cb = new CommandBuilder(jbossHome+"/bin/jboss-cli.sh"," --connect", "--command=:shutdown");
         try {
@@ -88,6 +116,99 @@ public class JBossController extends LocalController {
         }
     }
 
+    /*package*/ static Deployer deployer(File jbossHome) {
+        synchronized (DEPLOYERS) {
+            Deployer d = DEPLOYERS.get(jbossHome);
+            if (d == null) {
+                d = new Deployer(jbossHome);
+                DEPLOYERS.put(jbossHome, d);
+            }
+            return d;
+        }
+    }
+
+    /**
+     * Deploys exploded war through the deployment scanner marker files. JENKINS_HOME is passed as environment entry
+     * in <tt>web.xml</tt> of the deployment, that takes precedence over environment variable.
+     */
+    /*package*/ static final class Deployer extends HotDeployer {
+        private static final String[] MARKERS = {".dodeploy", ".deployed", ".failed", ".undeployed", ".pending", ".isdeploying"};
+
+        private Process process;
+
+        private Deployer(File jbossHome) {
+            super(jbossHome);
+        }
+
+        private File deployment() {
+            return new File(home, "standalone/deployments/jenkins.war");
+        }
+
+        private File marker(String suffix) {
+            return new File(home, "standalone/deployments/jenkins.war" + suffix);
+        }
+
+        @Override
+        protected File getLogFile() {
+            return new File(home, "standalone/log/server.log");
+        }
+
+        @Override
+        protected void startContainer(Map<String, String> env) throws IOException {
+            for (String m : MARKERS) {
+                delete(marker(m));
+            }
+            delete(getLogFile());
+
+            CommandBuilder cb = new CommandBuilder(home + "/bin/standalone.sh");
+            cb.env.putAll(env);
+            cb.env.remove("JENKINS_HOME"); // Differs for every deployment
+            File console = new File(home, "standalone/log/console.log");
+            console.getParentFile().mkdirs();
+            process = cb.build().redirectErrorStream(true).redirectOutput(console).start();
+        }
+
+        @Override
+        protected void stopContainer() throws IOException, InterruptedException {
+            CommandBuilder cb = new CommandBuilder(home + "/bin/jboss-cli.sh", "--connect", "--command=:shutdown");
+            if (cb.system() != 0) {
+                System.out.println("Cannot stop JBoss: " + cb.toString());
+            }
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroy();
+            }
+        }
+
+        @Override
+        protected void deployContext(File war, File jenkinsHome) throws IOException {
+            File deployment = deployment();
+            explode(war, deployment);
+
+            File webXml = new File(deployment, "WEB-INF/web.xml");
+            File original = new File(deployment, "WEB-INF/web.xml.orig");
+            if (!original.exists()) {
+                Files.copy(webXml.toPath(), original.toPath());
+            }
+            String xml = new String(Files.readAllBytes(original.toPath()), StandardCharsets.UTF_8);
+            int end = xml.lastIndexOf("</web-app>");
+            if (end == -1) throw new IOException("Unexpected content of " + original);
+            String entry = "<env-entry><env-entry-name>JENKINS_HOME</env-entry-name><env-entry-type>java.lang.String</env-entry-type>"
+                    + "<env-entry-value>" + xmlAttr(jenkinsHome.getAbsolutePath()) + "</env-entry-value></env-entry>\n";
+            Files.write(webXml.toPath(), (xml.substring(0, end) + entry + xml.substring(end)).getBytes(StandardCharsets.UTF_8));
+
+            for (String m : MARKERS) {
+                delete(marker(m));
+            }
+            Files.createFile(marker(".dodeploy").toPath());
+        }
+
+        @Override
+        protected void undeployContext() throws IOException {
+            delete(marker(".dodeploy"));
+            delete(marker(".deployed"));
+        }
+    }
+
     @Extension
     public static class FactoryImpl extends LocalFactoryImpl {
         @Inject Injector i;
@@ -0,0 +1,153 @@
+package org.jenkinsci.test.acceptance.controller;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Baseline of JENKINS_HOME captured after the first boot of a {@link LocalController}.
+ *
+ * <p>
+ * Archives (plugins, jars, tool installers) are hard-linked between the home and the baseline as Jenkins never
+ * rewrites them in place. Everything else is copied so the running instance can not modify the baseline. When the
+ * file system does not support hard links, files are copied instead.
+ *
+ * <p>
+ * The exploded <tt>war</tt> and the <tt>plugins</tt> directory are in use by the running JVM so they are neither
+ * captured nor restored. Instead, the set of installed plugins is recorded so the controller can tell whether the
+ * running instance still matches the baseline and can be {@linkplain #restore() restored} and reloaded.
+ */
+public class JenkinsHomeSnapshot {
+    /**
+     * Top level entries of JENKINS_HOME that belong to the running JVM.
+     */
+    private static final List<String> EXCLUDED = Arrays.asList("war", "plugins");
+
+    private static final List<String> LINKED_EXTENSIONS = Arrays.asList(".jpi", ".hpi", ".jar", ".war", ".zip", ".gz");
+
+    private final File home;
+    private final File baseline;
+    private final Set<String> plugins;
+
+    private JenkinsHomeSnapshot(File home, File baseline, Set<String> plugins) {
+        this.home = home;
+        this.baseline = baseline;
+        this.plugins = plugins;
+    }
+
+    /**
+     * Capture current state of JENKINS_HOME.
+     *
+     * @param home JENKINS_HOME to snapshot.
+     * @param baseline Directory to keep the baseline in. Will be wiped.
+     */
+    public static JenkinsHomeSnapshot capture(File home, File baseline) throws IOException {
+        if (baseline.exists()) {
+            FileUtils.forceDelete(baseline);
+        }
+        FileUtils.forceMkdir(baseline);
+
+        for (File f : list(home)) {
+            if (!EXCLUDED.contains(f.getName())) {
+                cloneTree(f, new File(baseline, f.getName()));
+            }
+        }
+        return new JenkinsHomeSnapshot(home, baseline, pluginSet(home));
+    }
+
+    /**
+     * Revert JENKINS_HOME to the captured baseline.
+     */
+    public void restore() throws IOException {
+        for (File f : list(home)) {
+            if (!EXCLUDED.contains(f.getName())) {
+                FileUtils.forceDelete(f);
+            }
+        }
+
+        for (File f : list(baseline)) {
+            cloneTree(f, new File(home, f.getName()));
+        }
+    }
+
+    /**
+     * Whether plugins in JENKINS_HOME are the same as when the baseline was captured.
+     *
+     * Plugins installed or updated by the test are loaded in the running JVM and can not be dropped by reload,
+     * so such instance needs to be restarted.
+     */
+    public boolean isPluginSetUnchanged() {
+        return plugins.equals(pluginSet(home));
+    }
+
+    public File getBaseline() {
+        return baseline;
+    }
+
+    /**
+     * Remove the baseline.
+     */
+    public void delete() {
+        try {
+            FileUtils.forceDelete(baseline);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to delete snapshot baseline " + baseline, e);
+        }
+    }
+
+    /**
+     * Name and size of all plugin archives and their markers (.disabled, .pinned).
+     */
+    /*package*/ static Set<String> pluginSet(File home) {
+        Set<String> set = new TreeSet<>();
+        for (File f : list(new File(home, "plugins"))) {
+            if (f.isFile()) {
+                set.add(f.getName() + ":" + f.length());
+            }
+        }
+        return set;
+    }
+
+    private static void cloneTree(File src, File dst) throws IOException {
+        if (Files.isSymbolicLink(src.toPath())) {
+            Files.createSymbolicLink(dst.toPath(), Files.readSymbolicLink(src.toPath()));
+        } else if (src.isDirectory()) {
+            FileUtils.forceMkdir(dst);
+            for (File f : list(src)) {
+                cloneTree(f, new File(dst, f.getName()));
+            }
+        } else if (isLinkable(src)) {
+            try {
+                Files.createLink(dst.toPath(), src.toPath());
+            } catch (IOException | UnsupportedOperationException e) {
+                FileUtils.copyFile(src, dst);
+            }
+        } else {
+            FileUtils.copyFile(src, dst);
+        }
+    }
+
+    private static boolean isLinkable(File f) {
+        String name = f.getName();
+        for (String ext : LINKED_EXTENSIONS) {
+            if (name.endsWith(ext)) return true;
+        }
+        return false;
+    }
+
+    private static List<File> list(File dir) {
+        File[] files = dir.listFiles();
+        return files == null ? Collections.<File>emptyList() : Arrays.asList(files);
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(JenkinsHomeSnapshot.class.getName());
+}
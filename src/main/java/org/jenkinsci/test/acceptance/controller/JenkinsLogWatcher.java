@@ -2,8 +2,6 @@ package org.jenkinsci.test.acceptance.controller;
 
 import java.io.Closeable;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Date;
@@ -14,7 +12,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.input.TeeInputStream;
+import org.jenkinsci.test.acceptance.log.AsyncLogSink;
 import org.jenkinsci.test.acceptance.log.LogListenable;
 import org.jenkinsci.test.acceptance.log.LogListener;
 import org.jenkinsci.test.acceptance.log.LogReader;
@@ -55,18 +53,25 @@ public class JenkinsLogWatcher implements LogListenable, Closeable {
 
     private final LogWatcher watcher = new LogWatcher();
 
+    /**
+     * Writes the log file and prints the log off the reader thread, so slow disk or console does not delay
+     * detecting that Jenkins is up.
+     */
+    private final AsyncLogSink sink;
+
     /**
      * @param id
      *      Short ID that indicates the log that we are watching.
      * @param printer
      *      The printer to use to write the Jenkins logging statements to
      */
-    public JenkinsLogWatcher(String id, InputStream pipe, File logFile, final LogListener printer) throws FileNotFoundException {
+    public JenkinsLogWatcher(String id, InputStream pipe, File logFile, final LogListener printer) throws IOException {
         this.logFile = logFile;
-        this.pipe = new TeeInputStream(pipe,new FileOutputStream(logFile));
+        this.pipe = pipe;
 
-        splitter.addLogListener(printer);
+        sink = new AsyncLogSink(id, logFile, MAX_LOG_SIZE, BUFFERED_LINES, printer);
         splitter.addLogListener(watcher);
+        splitter.addLogListener(sink);
         reader = new Thread(new LogReader(pipe,splitter),"Log reader: "+id);
 
         ready = watcher.watch(Pattern.compile("Jenkins is fully up and running"));
@@ -109,8 +114,9 @@ public class JenkinsLogWatcher implements LogListenable, Closeable {
         msg += "\nprocess is " + (reader.isAlive() ? "alive" : "dead");
         msg += "\nnow = " + new Date();
         try {
+            sink.flush(10, SECONDS);
             msg += "\n" + FileUtils.readFileToString(logFile);
-        } catch (IOException _) {
+        } catch (IOException | InterruptedException _) {
             // ignore
         }
         return msg;
@@ -125,4 +131,14 @@ public class JenkinsLogWatcher implements LogListenable, Closeable {
     public void removeLogListener(LogListener l) {
         splitter.removeLogListener(l);
     }
+
+    /**
+     * Rotate the log file once it is larger than this.
+     */
+    private static final long MAX_LOG_SIZE = Long.getLong(JenkinsLogWatcher.class.getName() + ".maxLogSize", 100 * 1024 * 1024);
+
+    /**
+     * Lines to keep in memory when the log is produced faster than it can be written.
+     */
+    private static final int BUFFERED_LINES = 16 * 1024;
 }
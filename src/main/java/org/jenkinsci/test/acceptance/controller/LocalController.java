@@ -6,13 +6,21 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.PrintWriter;
 import java.lang.reflect.Field;
 import java.net.ServerSocket;
+import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.github.olivergondza.dumpling.factory.PidRuntimeFactory;
@@ -21,15 +29,23 @@ import com.github.olivergondza.dumpling.model.dump.ThreadDumpRuntime;
 import org.apache.commons.io.FileUtils;
 import org.codehaus.plexus.util.Expand;
 import org.codehaus.plexus.util.StringUtils;
+import org.jenkinsci.test.acceptance.guice.TestName;
+import org.jenkinsci.test.acceptance.guice.WorldCleaner;
 import org.jenkinsci.test.acceptance.junit.FailureDiagnostics;
+import org.jenkinsci.test.acceptance.junit.RequiredPlugins;
 import org.jenkinsci.test.acceptance.log.LogListenable;
 import org.jenkinsci.test.acceptance.log.LogListener;
+import org.jenkinsci.test.acceptance.po.JsonApiClient;
+import org.jenkinsci.test.acceptance.update_center.PluginClosureCache;
+import org.jenkinsci.test.acceptance.update_center.PluginSpec;
 import org.jenkinsci.utils.process.CommandBuilder;
 import org.jenkinsci.utils.process.ProcessInputStream;
 import org.junit.runners.model.MultipleFailureException;
 import org.openqa.selenium.TimeoutException;
 
 import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.name.Names;
 
 import static java.lang.System.*;
 
@@ -75,10 +91,78 @@ public abstract class LocalController extends JenkinsController implements LogLi
      */
     private boolean runInstallWizard = false;
 
+    /**
+     * Reset JENKINS_HOME to the state after the first boot and reload Jenkins between tests instead of launching
+     * a new JVM for every test. Opt-in via JENKINS_HOME_SNAPSHOT=true.
+     *
+     * @see JenkinsHomeSnapshot
+     */
+    public static final boolean SNAPSHOT_MODE = Boolean.parseBoolean(getenv("JENKINS_HOME_SNAPSHOT"));
+
+    /**
+     * Running controllers kept in between tests in {@link #SNAPSHOT_MODE}, at most one per controller type.
+     */
+    private static final Map<Class<? extends LocalController>, LocalController> PARKED = new HashMap<>();
+
+    /**
+     * Baseline captured after the cold boot, null when not running in {@link #SNAPSHOT_MODE}.
+     */
+    private JenkinsHomeSnapshot snapshot;
+
+    /**
+     * Duration of the last cold boot, used to report the time saved by reload.
+     */
+    private long coldBootMillis;
+
+    private static long totalSavedMillis;
+
+    private boolean cleanupRegistered;
+
+    /**
+     * Plugins required by the test the instance was created for, the instance is only reused for tests requiring
+     * the same ones.
+     */
+    private List<PluginSpec> requiredPlugins = Collections.emptyList();
+
+    /**
+     * {@link #fingerprint(File)} of the war running.
+     */
+    private String bootedWar;
+
+    /**
+     * Plugin directory was populated by {@link #postConstruct(Injector)}.
+     */
+    private boolean pluginsPrepared;
+
+    /**
+     * Set by {@link #restart()}, JENKINS_HOME of such instance is no longer a baseline to snapshot.
+     */
+    private boolean restarted;
+
     /**
      * Partial implementation of {@link JenkinsControllerFactory} for subtypes.
      */
     public static abstract class LocalFactoryImpl implements JenkinsControllerFactory {
+        /**
+         * Hand out the controller kept running from the previous test in {@link #SNAPSHOT_MODE}, or create a new one.
+         */
+        protected <T extends LocalController> T reuseOrCreate(Injector i, Class<T> type) {
+            synchronized (PARKED) {
+                LocalController c = PARKED.remove(type);
+                if (c != null) {
+                    File war = i.getInstance(Key.get(File.class, Names.named("jenkins.war")));
+                    List<PluginSpec> plugins = i.getInstance(RequiredPlugins.class).get();
+                    if (fingerprint(war).equals(c.bootedWar) && String.valueOf(plugins).equals(String.valueOf(c.requiredPlugins))) {
+                        LOGGER.info("Reusing running Jenkins from previous test: " + c);
+                        c.injector = i;
+                        return type.cast(c);
+                    }
+                    LOGGER.info("Not reusing " + c + " as the test needs different war or plugins");
+                    c.shutdownParked();
+                }
+            }
+            return i.getInstance(type);
+        }
     }
 
     protected LocalController(Injector i) {
@@ -97,9 +181,42 @@ public abstract class LocalController extends JenkinsController implements LogLi
     @Override
     public void postConstruct(Injector injector) {
         super.postConstruct(injector);
+        this.injector = injector;
+
+        if (snapshot != null) {
+            return; // Reused instance, plugins are already in place
+        }
+
+        preparePlugins();
+    }
 
+    /**
+     * Populate the plugin directory for {@link #war}, from scratch.
+     */
+    private void preparePlugins() {
         File pluginDir = new File(tempDir,"plugins");
+        try {
+            if (pluginDir.isDirectory()) {
+                FileUtils.cleanDirectory(pluginDir);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to clean plugin dir " + pluginDir, e);
+        }
         pluginDir.mkdirs();
+        pluginsPrepared = true;
+
+        // Start with the plugins the test needs so they do not have to be installed and Jenkins restarted later
+        List<PluginSpec> required = injector.getInstance(RequiredPlugins.class).get();
+        requiredPlugins = new ArrayList<>(required);
+        File cachedPluginDir = injector.getInstance(PluginClosureCache.class).get(war, required);
+        if (cachedPluginDir != null) {
+            try {
+                FileUtils.copyDirectory(cachedPluginDir, pluginDir);
+            } catch (IOException e) {
+                String msg = String.format("Failed to copy plugins from %s to %s", cachedPluginDir, pluginDir);
+                throw new RuntimeException(msg, e);
+            }
+        }
 
         File givenPluginDir = null;
         for (String d : Arrays.asList(
@@ -167,6 +284,19 @@ public abstract class LocalController extends JenkinsController implements LogLi
         return tempDir;
     }
 
+    /**
+     * Use different jenkins.war than the one configured for the harness. Needs to be called before {@link #start()}.
+     *
+     * Plugins prepared for the former war are replaced by the ones resolved for this one.
+     */
+    public void setWar(File war) {
+        boolean changed = !war.equals(this.war);
+        this.war = war;
+        if (changed && pluginsPrepared) {
+            preparePlugins();
+        }
+    }
+
     @Override
     public void populateJenkinsHome(byte[] _template, boolean clean) throws IOException {
         try {
@@ -214,8 +344,44 @@ public abstract class LocalController extends JenkinsController implements LogLi
 
     public abstract ProcessInputStream startProcess() throws IOException;
 
+    /**
+     * Whether the controller can keep Jenkins running across tests in {@link #SNAPSHOT_MODE}.
+     *
+     * Only possible when {@link #process} is the Jenkins JVM itself and {@link #stopNow()} is not overridden.
+     */
+    protected boolean isSnapshotSupported() {
+        return false;
+    }
+
     @Override
     public void startNow() throws IOException {
+        if (snapshot != null) {
+            long start = System.currentTimeMillis();
+            if (!fingerprint(war).equals(bootedWar)) {
+                LOGGER.info("War of " + this + " has changed, performing cold start");
+            } else if (isProcessAlive() && reload()) {
+                reportBootTime(true, System.currentTimeMillis() - start);
+                return;
+            } else {
+                LOGGER.warning("Failed to reload " + this + ", performing cold start");
+            }
+            discardSnapshot();
+            stopProcess();
+        }
+
+        long start = System.currentTimeMillis();
+        coldStart();
+        coldBootMillis = System.currentTimeMillis() - start;
+
+        if (SNAPSHOT_MODE && isSnapshotSupported() && !restarted) {
+            File baseline = new File(tempDir.getParentFile(), tempDir.getName() + ".baseline");
+            snapshot = JenkinsHomeSnapshot.capture(tempDir, baseline);
+        }
+        reportBootTime(false, coldBootMillis);
+    }
+
+    private void coldStart() throws IOException {
+        bootedWar = fingerprint(war);
         this.process = startProcess();
         Runtime.getRuntime().addShutdownHook(shutdownHook);
 
@@ -232,8 +398,151 @@ public abstract class LocalController extends JenkinsController implements LogLi
 
     @Override
     public void stopNow() throws IOException{
+        if (snapshot != null) {
+            if (isProcessAlive() && snapshot.isPluginSetUnchanged()) {
+                return; // Keep running, the instance will be reset on teardown and reloaded by next test
+            }
+            LOGGER.info("Plugins of " + this + " has changed since the snapshot, it will not be reused");
+            discardSnapshot();
+        }
+        stopProcess();
+    }
+
+    /**
+     * Restart the JVM even in {@link #SNAPSHOT_MODE}. The instance is not reused by other tests afterwards as its
+     * JENKINS_HOME is no longer the one of a fresh Jenkins.
+     */
+    @Override
+    public void restart() throws IOException {
+        discardSnapshot();
+        restarted = true;
+        super.restart();
+    }
+
+    /**
+     * Identifies the war by path, size and timestamp, so a war rebuilt in place is told apart.
+     */
+    private static String fingerprint(File war) {
+        return war.getAbsolutePath() + ":" + war.length() + ":" + war.lastModified();
+    }
+
+    private void stopProcess() {
         process.getProcess().destroy();
-        Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException _) {
+            // Parked instances are stopped by WorldCleaner while the JVM is shutting down
+        }
+    }
+
+    private boolean isProcessAlive() {
+        if (process == null) return false;
+        try {
+            process.getProcess().exitValue();
+            return false;
+        } catch (IllegalThreadStateException _) {
+            return true;
+        }
+    }
+
+    /**
+     * Ask running Jenkins to reload its configuration from restored JENKINS_HOME and wait until it is done.
+     *
+     * @return false if Jenkins refused to reload (most likely due to security configured by the previous test).
+     */
+    private boolean reload() {
+        URL url = getUrl();
+        JsonApiClient client = injector.getInstance(JsonApiClient.class);
+        try {
+            client.post(url, new URL(url, "reload"), Collections.<String, String>emptyMap());
+
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(STARTUP_TIMEOUT);
+            while (System.currentTimeMillis() < deadline) {
+                try {
+                    client.get(new URL(url, "api/json"));
+                    return true;
+                } catch (IOException e) {
+                    // Jenkins serves 503 until the reload completes
+                }
+                Thread.sleep(100);
+            }
+            LOGGER.warning("Reload of " + url + " did not complete in time");
+            return false;
+        } catch (IOException e) {
+            LOGGER.info("Reload refused: " + e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void discardSnapshot() {
+        if (snapshot != null) {
+            snapshot.delete();
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Restore JENKINS_HOME and keep the instance running for the next test.
+     *
+     * The files are replaced under the running JVM, anything it writes after the restore (like a late build record)
+     * survives until the next test reloads it.
+     */
+    private void park() throws IOException {
+        snapshot.restore();
+
+        synchronized (PARKED) {
+            LocalController previous = PARKED.put(getClass(), this);
+            if (previous != null && previous != this) {
+                previous.shutdownParked();
+            }
+        }
+
+        if (!cleanupRegistered) {
+            cleanupRegistered = true;
+            injector.getInstance(WorldCleaner.class).addTask(new Runnable() {
+                @Override public void run() {
+                    synchronized (PARKED) {
+                        if (PARKED.get(LocalController.this.getClass()) != LocalController.this) {
+                            return; // In use by a test, or shut down already
+                        }
+                        PARKED.remove(LocalController.this.getClass());
+                        shutdownParked();
+                    }
+                }
+            });
+        }
+    }
+
+    private void shutdownParked() {
+        discardSnapshot();
+        stopProcess();
+        tearDown();
+    }
+
+    /**
+     * Log the boot time and append it to the report in WORKSPACE to track the time saved by {@link #SNAPSHOT_MODE}.
+     */
+    private void reportBootTime(boolean warm, long millis) {
+        if (!SNAPSHOT_MODE) return;
+
+        String test = injector.getInstance(TestName.class).get();
+        long saved = warm ? Math.max(0, coldBootMillis - millis) : 0;
+        synchronized (PARKED) {
+            totalSavedMillis += saved;
+        }
+
+        if (warm) {
+            LOGGER.info(String.format("Jenkins reset in %d ms instead of %d ms cold boot, saved %d ms (%d ms in total)",
+                    millis, coldBootMillis, saved, totalSavedMillis));
+        }
+        try (PrintWriter w = new PrintWriter(new FileWriter(new File(WORKSPACE, "jenkins-home-snapshot.tsv"), true))) {
+            w.printf("%s\t%s\t%d\t%d%n", test, warm ? "reload" : "cold", millis, saved);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to write boot time report", e);
+        }
     }
 
     @Override
@@ -280,6 +589,17 @@ public abstract class LocalController extends JenkinsController implements LogLi
 
     @Override
     public void tearDown(){
+        if (snapshot != null && isProcessAlive()) {
+            try {
+                park();
+                return;
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to restore JENKINS_HOME snapshot of " + this, e);
+                discardSnapshot();
+                stopProcess();
+            }
+        }
+
         try {
             if (logger != null) {
                 logger.close();
@@ -1,5 +1,6 @@
 package org.jenkinsci.test.acceptance.controller;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InterruptedIOException;
@@ -121,18 +122,13 @@ public class RemoteJenkinsController extends JenkinsController {
             if (clean) {
                 connection.executeRemoteCommand("rm -rf "+ Ssh.escape(jenkinsHome) + "; mkdir -p " + Ssh.escape(jenkinsHome));
             }
-            File template = File.createTempFile("template", ".dat");
-            try {
-                org.apache.commons.io.FileUtils.writeByteArrayToFile(template, _template);
-                connection.copyTo(template.getAbsolutePath(), ".home-template.zip", jenkinsHome);
-            } finally {
-                template.delete();
-            }
-                String templateArchive =
-                        Ssh.escape(jenkinsHome + (jenkinsHome.endsWith("/") ? "" : "/") + ".home-template.zip");
-                connection.executeRemoteCommand(
-                        "unzip -o " + templateArchive + " -d " + Ssh.escape(jenkinsHome) + " && rm -f "
-                                + templateArchive);
+            connection.copyTo(new ByteArrayInputStream(_template), _template.length, ".home-template.zip", jenkinsHome, "0644");
+            String templateArchive =
+                    Ssh.escape(jenkinsHome + (jenkinsHome.endsWith("/") ? "" : "/") + ".home-template.zip");
+            connection.executeRemoteCommands(
+                    "unzip -o " + templateArchive + " -d " + Ssh.escape(jenkinsHome),
+                    "rm -f " + templateArchive
+            );
         } catch (Exception e) {
             throw new IOException(e.getMessage(), e);
         } finally {
@@ -4,6 +4,11 @@ import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -19,10 +24,17 @@ import com.google.inject.Injector;
 import com.google.inject.Provides;
 
 /**
+ * Launches Jenkins in Tomcat.
+ *
+ * With HOT_REDEPLOY=true, Tomcat is kept running across tests and only Jenkins context is redeployed.
+ *
  * @author: Vivek Pandey
+ * @see HotDeployer
  */
 public class TomcatController extends LocalController {
 
+    private static final Map<File, Deployer> DEPLOYERS = new HashMap<>();
+
     protected final File catalinaHome;
 
     @Inject
@@ -37,6 +49,10 @@ public class TomcatController extends LocalController {
     @Override
     public ProcessInputStream startProcess() throws IOException{
         try {
+            if (HotDeployer.ENABLED) {
+                return deployer(catalinaHome).deploy(war, getJenkinsHome(), commonLaunchEnv());
+            }
+
             File jenkinsDeploymentDir = new File(catalinaHome,"webapps/jenkins");
             if(jenkinsDeploymentDir.exists()){
                 FileUtils.forceDelete(jenkinsDeploymentDir);
@@ -69,6 +85,16 @@ public class TomcatController extends LocalController {
 
     @Override
     public void stopNow() throws IOException{
+        if (HotDeployer.ENABLED) {
+            System.out.println("    Undeploying a temporary Jenkins from Tomcat\n");
+            try {
+                deployer(catalinaHome).undeploy(getUrl());
+            } finally {
+                super.stopNow(); // Stop following the log
+            }
+            return;
+        }
+
         System.out.println("    Stopping a temporary Jenkins/Tomcat instance\n");
         CommandBuilder cb = new CommandBuilder(catalinaHome+"/bin/shutdown.sh");
         try {
@@ -90,6 +116,86 @@ public class TomcatController extends LocalController {
         }
     }
 
+    /*package*/ static Deployer deployer(File catalinaHome) {
+        synchronized (DEPLOYERS) {
+            Deployer d = DEPLOYERS.get(catalinaHome);
+            if (d == null) {
+                d = new Deployer(catalinaHome);
+                DEPLOYERS.put(catalinaHome, d);
+            }
+            return d;
+        }
+    }
+
+    /**
+     * Deploys Jenkins through context descriptor in <tt>conf/Catalina/localhost</tt>, so Tomcat deploys the
+     * exploded war without copying it to <tt>webapps</tt>. JENKINS_HOME is passed as JNDI environment entry of the
+     * context, that takes precedence over environment variable.
+     */
+    /*package*/ static final class Deployer extends HotDeployer {
+        private Deployer(File catalinaHome) {
+            super(catalinaHome);
+        }
+
+        private File descriptor() {
+            return new File(home, "conf/Catalina/localhost/jenkins.xml");
+        }
+
+        @Override
+        protected File getLogFile() {
+            return new File(home, "logs/catalina.out");
+        }
+
+        @Override
+        protected void startContainer(Map<String, String> env) throws IOException, InterruptedException {
+            delete(new File(home, "webapps/jenkins"));
+            delete(new File(home, "webapps/jenkins.war"));
+            delete(descriptor());
+            delete(getLogFile());
+
+            CommandBuilder cb = new CommandBuilder(home + "/bin/startup.sh");
+            cb.env.putAll(env);
+            cb.env.remove("JENKINS_HOME"); // Differs for every deployment
+            cb.env.put("CATALINA_PID", new File(home, "temp/ath-catalina.pid").getAbsolutePath());
+            if (cb.system() != 0) {
+                throw new IOException("Failed during Tomcat startup: " + cb);
+            }
+        }
+
+        @Override
+        protected void stopContainer() throws IOException, InterruptedException {
+            delete(descriptor());
+            CommandBuilder cb = new CommandBuilder(home + "/bin/shutdown.sh").add("10", "-force");
+            cb.env.put("CATALINA_PID", new File(home, "temp/ath-catalina.pid").getAbsolutePath());
+            if (cb.system() != 0) {
+                throw new IOException("Cannot stop Tomcat: " + cb);
+            }
+        }
+
+        @Override
+        protected void deployContext(File war, File jenkinsHome) throws IOException {
+            File docBase = new File(home, "ath-webapps/jenkins");
+            explode(war, docBase);
+
+            String xml = "<?xml version='1.0' encoding='UTF-8'?>\n"
+                    + "<Context docBase=\"" + xmlAttr(docBase.getAbsolutePath()) + "\" reloadable=\"false\">\n"
+                    + "  <Environment name=\"JENKINS_HOME\" value=\"" + xmlAttr(jenkinsHome.getAbsolutePath()) + "\" type=\"java.lang.String\" override=\"false\"/>\n"
+                    + "</Context>\n";
+
+            // Tomcat scans the directory in background, never let it see partial file
+            File descriptor = descriptor();
+            File tmp = new File(descriptor.getParentFile(), "jenkins.xml.tmp");
+            descriptor.getParentFile().mkdirs();
+            Files.write(tmp.toPath(), xml.getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp.toPath(), descriptor.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        @Override
+        protected void undeployContext() throws IOException {
+            delete(descriptor());
+        }
+    }
+
     @Extension
     public static class FactoryImpl extends LocalFactoryImpl {
         @Inject Injector i;
@@ -41,6 +41,8 @@ public class WinstoneController extends LocalController {
     private final int httpPort;
     private final int controlPort;
 
+    private List<String> javaOpts = JAVA_OPTS;
+
     @Inject
     public WinstoneController(Injector i) {
         super(i);
@@ -53,8 +55,8 @@ public class WinstoneController extends LocalController {
         File javaHome = getJavaHome();
         String java = javaHome == null ? "java" : String.format("%s/bin/java",javaHome.getAbsolutePath());
         CommandBuilder cb = new CommandBuilder(java);
-        if(JAVA_OPTS != null && !JAVA_OPTS.isEmpty()) {
-            cb.addAll(JAVA_OPTS);
+        if(javaOpts != null && !javaOpts.isEmpty()) {
+            cb.addAll(javaOpts);
         }
         cb.add(
                 "-Duser.language=en",
@@ -66,6 +68,25 @@ public class WinstoneController extends LocalController {
         return cb.popen();
     }
 
+    /**
+     * Options configured through JENKINS_JAVA_OPTS.
+     */
+    public static List<String> getDefaultJavaOpts() {
+        return JAVA_OPTS == null ? Collections.<String>emptyList() : JAVA_OPTS;
+    }
+
+    /**
+     * Override options configured through JENKINS_JAVA_OPTS. Needs to be called before {@link #start()}.
+     */
+    public void setJavaOpts(List<String> javaOpts) {
+        this.javaOpts = javaOpts;
+    }
+
+    @Override
+    protected boolean isSnapshotSupported() {
+        return true;
+    }
+
     @Override
     public URL getUrl() {
         try {
@@ -91,7 +112,7 @@ public class WinstoneController extends LocalController {
 
         @Override
         public JenkinsController create() {
-            return i.getInstance(WinstoneController.class);
+            return reuseOrCreate(i, WinstoneController.class);
         }
     }
 
@@ -5,8 +5,8 @@ import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.net.URL;
 
-import org.jenkinsci.test.acceptance.docker.Docker;
 import org.jenkinsci.test.acceptance.docker.DockerImage;
+import org.jenkinsci.test.acceptance.docker.DockerImageCache;
 import org.jenkinsci.test.acceptance.docker.fixtures.JavaContainer;
 import org.jenkinsci.utils.process.CommandBuilder;
 import org.jenkinsci.utils.process.ProcessInputStream;
@@ -25,7 +25,7 @@ import com.google.inject.Injector;
  */
 public class WinstoneDockerController extends LocalController {
     @Inject
-    Docker docker;
+    DockerImageCache images;
 
     private Class<? extends JavaContainer> fixtureType = JavaContainer.class;
     private String dockerImage;
@@ -60,7 +60,7 @@ public class WinstoneDockerController extends LocalController {
             if (dockerImage!=null)
                 img = new DockerImage(dockerImage);
             else
-                img = docker.build(fixtureType);
+                img = images.build(fixtureType);
 
             container = img.start(fixtureType).withOptions(opts).start();
 
@@ -24,7 +24,10 @@ public class DockerContainerHolder<T extends DockerContainer> implements Provide
     TypeLiteral<T> type;
 
     @Inject
-    Docker docker;
+    DockerImageCache images;
+
+    @Inject
+    DockerContainerPool pool;
 
     @Inject
     private FailureDiagnostics diag;
@@ -41,12 +44,21 @@ public class DockerContainerHolder<T extends DockerContainer> implements Provide
 
     /**
      * Lazily starts a container and returns the instance.
+     *
+     * The container is taken from {@link DockerContainerPool} if there is one started already.
      */
     @Override
     public synchronized T get() {
         if (container==null) {
             try {
-                container = starter().start();
+                if (portOffset == null) {
+                    @SuppressWarnings("unchecked")
+                    Class<T> fixture = (Class<T>) type.getRawType();
+                    container = pool.take(fixture);
+                }
+                if (container == null) {
+                    container = starter().start();
+                }
             } catch (InterruptedException | IOException e) {
                 throw new Error("Failed to start container - " + type, e);
             }
@@ -62,7 +74,7 @@ public class DockerContainerHolder<T extends DockerContainer> implements Provide
         Class<T> fixture = (Class<T>) type.getRawType();
         File buildlog = diag.touch("docker-" + fixture.getSimpleName() + ".build.log");
         File runlog = diag.touch("docker-" + fixture.getSimpleName() + ".run.log");
-        Starter<T> containerStarter = docker.build(fixture, buildlog).start(fixture).withLog(runlog);
+        Starter<T> containerStarter = images.build(fixture, buildlog).start(fixture).withLog(runlog);
         if (portOffset != null) {
             containerStarter.withPortOffset(portOffset);
         }
@@ -0,0 +1,156 @@
+package org.jenkinsci.test.acceptance.docker;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.annotation.CheckForNull;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jenkinsci.test.acceptance.guice.WorldCleaner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+
+/**
+ * Containers started ahead of time, so tests do not wait for them.
+ *
+ * <p>
+ * Set <tt>dockerWarmContainers</tt> to the number of containers to keep started per fixture type. The pool is
+ * filled once the fixture is first asked for. Containers handed out are not returned, tests are free to modify them
+ * so they are closed by {@link DockerContainerHolder} as usual. The ones still waiting in the pool are closed at the
+ * end of the run.
+ */
+@Singleton
+public class DockerContainerPool implements Closeable {
+
+    @Inject(optional = true) @Named("dockerWarmContainers")
+    private int size = 0;
+
+    private final DockerImageCache images;
+
+    private final Map<Class<?>, Deque<DockerContainer>> idle = new HashMap<>();
+    private final Map<Class<?>, Integer> starting = new HashMap<>();
+    private boolean closed;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("docker-container-pool-%d").build()
+    );
+
+    @Inject
+    public DockerContainerPool(DockerImageCache images, WorldCleaner cleaner) {
+        this.images = images;
+        cleaner.addTask(this);
+    }
+
+    /**
+     * Take a started container out of the pool, and start replacing it.
+     *
+     * @return null when the pool is disabled or there is no container ready.
+     */
+    public @CheckForNull <T extends DockerContainer> T take(Class<T> fixture) {
+        if (size <= 0) return null;
+
+        DockerContainer container;
+        synchronized (this) {
+            if (closed) return null;
+
+            Deque<DockerContainer> containers = idle.get(fixture);
+            container = containers == null ? null : containers.poll();
+            replenish(fixture);
+        }
+        if (container != null) {
+            logger.info("Using {} {} started ahead", fixture.getSimpleName(), container.getCid());
+        }
+        return fixture.cast(container);
+    }
+
+    private synchronized <T extends DockerContainer> void replenish(final Class<T> fixture) {
+        Deque<DockerContainer> containers = idle.get(fixture);
+        Integer inProgress = starting.get(fixture);
+        int missing = size - (containers == null ? 0 : containers.size()) - (inProgress == null ? 0 : inProgress);
+        if (missing <= 0) return;
+
+        starting.put(fixture, (inProgress == null ? 0 : inProgress) + missing);
+        for (int i = 0; i < missing; i++) {
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    DockerContainer container = null;
+                    try {
+                        container = start(fixture);
+                    } catch (IOException | InterruptedException | RuntimeException e) {
+                        logger.warn("Failed to start {} ahead", fixture.getSimpleName(), e);
+                    } finally {
+                        added(fixture, container);
+                    }
+                }
+            });
+        }
+    }
+
+    private void added(Class<?> fixture, @CheckForNull DockerContainer container) {
+        synchronized (this) {
+            starting.put(fixture, starting.get(fixture) - 1);
+            if (container != null && !closed) {
+                Deque<DockerContainer> containers = idle.get(fixture);
+                if (containers == null) {
+                    containers = new ArrayDeque<>();
+                    idle.put(fixture, containers);
+                }
+                containers.add(container);
+                return;
+            }
+        }
+        if (container != null) {
+            stop(container);
+        }
+    }
+
+    /**
+     * Start container of the fixture with its logs in temp directory.
+     */
+    protected <T extends DockerContainer> T start(Class<T> fixture) throws IOException, InterruptedException {
+        File buildlog = File.createTempFile("docker-" + fixture.getSimpleName(), ".build.log");
+        File runlog = File.createTempFile("docker-" + fixture.getSimpleName(), ".run.log");
+        return images.build(fixture, buildlog).start(fixture).withLog(runlog).start();
+    }
+
+    @Override
+    public void close() {
+        List<DockerContainer> containers = new ArrayList<>();
+        synchronized (this) {
+            closed = true;
+            for (Deque<DockerContainer> c : idle.values()) {
+                containers.addAll(c);
+            }
+            idle.clear();
+        }
+        executor.shutdownNow();
+
+        for (DockerContainer c : containers) {
+            stop(c);
+        }
+    }
+
+    private static void stop(DockerContainer container) {
+        try {
+            container.close();
+        } catch (Exception e) {
+            logger.warn("Failed to stop {}", container.getCid(), e);
+        }
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(DockerContainerPool.class);
+}
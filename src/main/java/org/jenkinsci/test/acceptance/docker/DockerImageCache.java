@@ -0,0 +1,173 @@
+package org.jenkinsci.test.acceptance.docker;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import javax.annotation.CheckForNull;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.xml.bind.DatatypeConverter;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.jenkinsci.utils.process.CommandBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Builds fixture images only when their Dockerfile directory changes.
+ *
+ * <p>
+ * Even when all the layers are cached, <tt>docker build</tt> uploads the whole context and checks every layer, that
+ * takes seconds for every test. Here, images are tagged with hash of the fixture resources instead, so the build can
+ * be skipped in case the image with the tag exists already. The hash covers resources of the base fixtures as well.
+ *
+ * <p>
+ * Images of {@link DynamicDockerContainer}s depend on the host they are built on, so they are always built.
+ */
+@Singleton
+public class DockerImageCache {
+
+    @Inject
+    Docker docker;
+
+    private final Map<Class<?>, DockerImage> images = new HashMap<>();
+
+    /**
+     * Get the image of the fixture, building it only if needed.
+     */
+    public DockerImage build(Class<? extends DockerContainer> fixture) throws IOException, InterruptedException {
+        return build(fixture, null);
+    }
+
+    /**
+     * Get the image of the fixture, building it only if needed.
+     *
+     * @param log File to write build output to.
+     */
+    public synchronized DockerImage build(Class<? extends DockerContainer> fixture, @CheckForNull File log) throws IOException, InterruptedException {
+        if (DynamicDockerContainer.class.isAssignableFrom(fixture)) {
+            return buildImage(fixture, log);
+        }
+
+        DockerImage image = images.get(fixture);
+        if (image != null) return image;
+
+        DockerFixture f = fixture.getAnnotation(DockerFixture.class);
+        if (f == null) throw new AssertionError(fixture + " is missing @DockerFixture");
+
+        String tag = "jenkins/" + f.id() + ":ath-" + hash(fixture).substring(0, 12);
+        String id = cmd("images", "-q", tag).popen().verifyOrDieWith("Unable to list images");
+        if (id.trim().isEmpty()) {
+            long start = System.currentTimeMillis();
+            DockerImage built = buildImage(fixture, log);
+            cmd("tag", built.tag, tag).popen().verifyOrDieWith("Unable to tag " + built.tag);
+            logger.info("Built {} in {} ms", tag, System.currentTimeMillis() - start);
+        } else {
+            logger.info("{} is up to date, skipping build", tag);
+            if (log != null) {
+                FileUtils.writeStringToFile(log, tag + " is up to date, skipping build\n", StandardCharsets.UTF_8);
+            }
+        }
+
+        image = new DockerImage(tag);
+        images.put(fixture, image);
+        return image;
+    }
+
+    /**
+     * Run docker command.
+     */
+    protected CommandBuilder cmd(String... args) {
+        return Docker.cmd(args);
+    }
+
+    /**
+     * Build image with <tt>docker build</tt>.
+     */
+    protected DockerImage buildImage(Class<? extends DockerContainer> fixture, @CheckForNull File log) throws IOException, InterruptedException {
+        return log == null ? docker.build(fixture) : docker.build(fixture, log);
+    }
+
+    /**
+     * SHA-1 of the names and content of the resources of the fixture and its base fixtures.
+     */
+    /*package*/ static String hash(Class<?> fixture) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+
+        for (Class<?> c = fixture; c != null && c.getDeclaredAnnotation(DockerFixture.class) != null; c = c.getSuperclass()) {
+            digest.update(c.getName().getBytes(StandardCharsets.UTF_8));
+            for (Map.Entry<String, byte[]> e : resources(c).entrySet()) {
+                digest.update(e.getKey().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(e.getValue());
+            }
+        }
+        return DatatypeConverter.printHexBinary(digest.digest()).toLowerCase();
+    }
+
+    /**
+     * Content of the fixture resource directory, by path relative to it.
+     */
+    private static SortedMap<String, byte[]> resources(Class<?> fixture) throws IOException {
+        String path = fixture.getAnnotation(DockerFixture.class).dockerfileFolder();
+        if (path.isEmpty()) {
+            path = fixture.getName().replace('.', '/').replace('$', '/');
+        }
+        URL url = fixture.getClassLoader().getResource(path);
+        if (url == null) throw new IOException("No resources found for " + fixture);
+
+        SortedMap<String, byte[]> resources = new TreeMap<>();
+        if ("file".equals(url.getProtocol())) {
+            File dir;
+            try {
+                dir = new File(url.toURI());
+            } catch (URISyntaxException e) {
+                throw new IOException(e);
+            }
+            for (File file : FileUtils.listFiles(dir, null, true)) {
+                String name = dir.toURI().relativize(file.toURI()).getPath();
+                resources.put(name, FileUtils.readFileToByteArray(file));
+            }
+        } else if ("jar".equals(url.getProtocol())) {
+            JarURLConnection connection = (JarURLConnection) url.openConnection();
+            connection.setUseCaches(false);
+            try (JarFile jar = connection.getJarFile()) {
+                String prefix = path + "/";
+                Enumeration<JarEntry> entries = jar.entries();
+                while (entries.hasMoreElements()) {
+                    JarEntry entry = entries.nextElement();
+                    if (entry.isDirectory() || !entry.getName().startsWith(prefix)) continue;
+
+                    try (InputStream in = jar.getInputStream(entry)) {
+                        resources.put(entry.getName().substring(prefix.length()), IOUtils.toByteArray(in));
+                    }
+                }
+            }
+        } else {
+            throw new IOException("Unsupported location of " + fixture + " resources: " + url);
+        }
+        return resources;
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(DockerImageCache.class);
+}
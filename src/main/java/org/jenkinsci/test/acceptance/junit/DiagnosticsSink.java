@@ -0,0 +1,258 @@
+package org.jenkinsci.test.acceptance.junit;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.FileUtils;
+import org.jenkinsci.test.acceptance.utils.FastGZIPOutputStream;
+import org.jenkinsci.test.acceptance.utils.SystemEnvironmentVariables;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Writes {@link FailureDiagnostics} attachments off the test thread.
+ *
+ * <p>
+ * Attachments are written one at a time by a single background thread, the larger ones gzipped. The bytes stored
+ * are limited per test and per run, see {@link #TEST_BUDGET} and {@link #RUN_BUDGET}. Attachments over the budget
+ * are dropped. Files created by the tools the harness only hands {@link FailureDiagnostics#touch(String)} result to
+ * are not written here, but they are counted against the run budget once the test is finished.
+ *
+ * <p>
+ * At the end of the run, <tt>index.txt</tt> listing all attachments of all tests is written to the diagnostics
+ * directory.
+ */
+/*package*/ final class DiagnosticsSink {
+    /**
+     * Attachments of this size and bigger are compressed.
+     */
+    /*package*/ static final int COMPRESSION_THRESHOLD = 16 * 1024;
+
+    /**
+     * Bytes to store per test, in megabytes.
+     */
+    private static final long TEST_BUDGET = megabytes("DIAGNOSTICS_TEST_BUDGET", 64);
+
+    /**
+     * Bytes to store per run, in megabytes.
+     */
+    private static final long RUN_BUDGET = megabytes("DIAGNOSTICS_RUN_BUDGET", 1024);
+
+    private static DiagnosticsSink INSTANCE;
+
+    private final File root;
+    private final long testBudget;
+    private final long runBudget;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("Diagnostics writer %d").build()
+    );
+
+    // Accessed from the writer thread only
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<String, Long> testTotals = new HashMap<>();
+    private final Set<File> known = new HashSet<>();
+    private long runTotal;
+    private boolean runBudgetReported;
+
+    /*package*/ DiagnosticsSink(File root, long testBudget, long runBudget) {
+        this.root = root;
+        this.testBudget = testBudget;
+        this.runBudget = runBudget;
+    }
+
+    /**
+     * Sink shared by all tests of the run. Index is written when JVM terminates.
+     */
+    /*package*/ static synchronized DiagnosticsSink get() {
+        if (INSTANCE == null) {
+            INSTANCE = new DiagnosticsSink(new File("target/diagnostics"), TEST_BUDGET, RUN_BUDGET);
+            Runtime.getRuntime().addShutdownHook(new Thread("Diagnostics index writer") {
+                @Override
+                public void run() {
+                    INSTANCE.close();
+                }
+            });
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Write attachment in the background.
+     *
+     * @param test Name of the test the attachment belongs to.
+     * @param file File to write, suffixed with <tt>.gz</tt> in case the content is compressed.
+     * @return Future completing once the attachment is stored or dropped.
+     */
+    /*package*/ Future<?> write(final String test, final File file, final byte[] content) {
+        return writer.submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+                store(test, file, content);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Account the files in the directory of finished test that were not written by the sink.
+     */
+    /*package*/ Future<?> account(final String test, final File dir) {
+        return writer.submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+                for (File file : FileUtils.listFiles(dir, null, true)) {
+                    if (!known.add(file)) continue;
+
+                    long size = file.length();
+                    charge(test, size);
+                    entries.add(new Entry(test, file, size, size, "external"));
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Wait for all pending attachments and write the index.
+     */
+    /*package*/ void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOGGER.warning("Diagnostics are still being written, index will be incomplete");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            writeIndex();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to write diagnostics index", e);
+        }
+    }
+
+    private void store(String test, File file, byte[] content) {
+        try {
+            byte[] data = content;
+            if (content.length >= COMPRESSION_THRESHOLD && !isCompressed(file)) {
+                ByteArrayOutputStream buf = new ByteArrayOutputStream(content.length / 4);
+                try (OutputStream out = new FastGZIPOutputStream(buf)) {
+                    out.write(content);
+                }
+                data = buf.toByteArray();
+                file = new File(file.getPath() + ".gz");
+            }
+            known.add(file);
+
+            Long testTotal = testTotals.get(test);
+            if ((testTotal == null ? 0 : testTotal) + data.length > testBudget) {
+                LOGGER.warning(String.format("Dropping %s of %s, test diagnostics budget of %d bytes exceeded", file.getName(), test, testBudget));
+                entries.add(new Entry(test, file, content.length, 0, "dropped"));
+                return;
+            }
+            if (runTotal + data.length > runBudget) {
+                if (!runBudgetReported) {
+                    LOGGER.warning(String.format("Run diagnostics budget of %d bytes exceeded, dropping further attachments", runBudget));
+                    runBudgetReported = true;
+                }
+                entries.add(new Entry(test, file, content.length, 0, "dropped"));
+                return;
+            }
+
+            try (OutputStream out = new FileOutputStream(file)) {
+                out.write(data);
+            }
+            charge(test, data.length);
+            entries.add(new Entry(test, file, content.length, data.length, data == content ? "written" : "compressed"));
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to write " + file, e);
+            entries.add(new Entry(test, file, content.length, 0, "failed"));
+        }
+    }
+
+    /**
+     * Images, archives and videos do not compress any further.
+     */
+    private static boolean isCompressed(File file) {
+        return file.getName().matches(".*\\.(png|jpe?g|gz|zip|mov)$");
+    }
+
+    private void charge(String test, long size) {
+        Long testTotal = testTotals.get(test);
+        testTotals.put(test, (testTotal == null ? 0 : testTotal) + size);
+        runTotal += size;
+    }
+
+    /**
+     * Tab separated lines of test, file relative to diagnostics directory, its original and stored size and status.
+     */
+    /*package*/ void writeIndex() throws IOException {
+        if (entries.isEmpty()) return;
+
+        File index = new File(root, "index.txt");
+        File tmp = new File(root, "index.txt.tmp" + System.nanoTime());
+        try {
+            try (Writer w = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8))) {
+                String prefix = root.getAbsolutePath() + File.separator;
+                for (Entry e : entries) {
+                    String path = e.file.getAbsolutePath();
+                    if (path.startsWith(prefix)) {
+                        path = path.substring(prefix.length());
+                    }
+                    w.write(String.format("%s\t%s\t%d\t%d\t%s%n", e.test, path, e.size, e.stored, e.status));
+                }
+                w.write(String.format("# %d attachments, %d bytes stored%n", entries.size(), runTotal));
+            }
+            Files.move(tmp.toPath(), index.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            FileUtils.deleteQuietly(tmp);
+        }
+    }
+
+    private static long megabytes(String property, long def) {
+        String value = SystemEnvironmentVariables.getPropertyVariableOrEnvironment(property, String.valueOf(def));
+        return Long.parseLong(value.trim()) * 1024 * 1024;
+    }
+
+    private static final class Entry {
+        private final String test;
+        private final File file;
+        private final long size;
+        private final long stored;
+        private final String status;
+
+        private Entry(String test, File file, long size, long stored, String status) {
+            this.test = test;
+            this.file = file;
+            this.size = size;
+            this.stored = stored;
+            this.status = status;
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(DiagnosticsSink.class.getName());
+}
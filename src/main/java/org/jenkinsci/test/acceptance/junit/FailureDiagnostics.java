@@ -1,9 +1,15 @@
 package org.jenkinsci.test.acceptance.junit;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.codehaus.plexus.util.FileUtils;
 import org.jenkinsci.test.acceptance.guice.TestName;
@@ -18,6 +24,9 @@ import com.google.inject.Inject;
  * The harness can attach any number of diagnostic files to be stored in /target/diagnostics/$TEST_NAME/.
  * The same 'kind' of diagnostic information is expected to use the same file/subdir name.
  *
+ * Content passed to {@link #write(String, byte[])} is stored in the background by {@link DiagnosticsSink}, so it
+ * can be compressed and its name suffixed with <tt>.gz</tt>. Call {@link #flush()} before reading it back.
+ *
  * @author ogondza
  */
 @GlobalRule(priority = Integer.MIN_VALUE) // Make sure diagnostics are available for all other rules
@@ -26,11 +35,21 @@ public class FailureDiagnostics extends TestWatcher {
 
     private static String JUNIT_ATTACHMENT = "[[ATTACHMENT|%s]]";
 
+    private final String test;
     private final File dir;
+    private final DiagnosticsSink sink;
+
+    private final List<Future<?>> pending = new ArrayList<>();
 
     @Inject
     public FailureDiagnostics(TestName test) {
-        this.dir = new File("target/diagnostics/" + test.get());
+        this(test, DiagnosticsSink.get());
+    }
+
+    /*package*/ FailureDiagnostics(TestName test, DiagnosticsSink sink) {
+        this.test = test.get();
+        this.dir = new File("target/diagnostics/" + this.test);
+        this.sink = sink;
     }
 
     /**
@@ -63,16 +82,19 @@ public class FailureDiagnostics extends TestWatcher {
      * @param content Content to write.
      */
     public void write(String filename, String content) {
-        FileWriter writer = null;
-        try {
-            try {
-                writer = new FileWriter(touch(filename));
-                writer.write(content);
-            } finally {
-                if (writer != null) writer.close();
-            }
-        } catch (IOException e) {
-            new Error(e);
+        write(filename, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Write binary content in diagnostic file.
+     *
+     * @param filename Name of the file
+     * @param content Content to write.
+     */
+    public void write(String filename, byte[] content) {
+        Future<?> f = sink.write(test, touch(filename), content);
+        synchronized (pending) {
+            pending.add(f);
         }
     }
 
@@ -81,13 +103,50 @@ public class FailureDiagnostics extends TestWatcher {
         try {
             Files.createDirectories(subdir.toPath());
         } catch (IOException e) {
-            new Error(e);
+            throw new Error(e);
         }
         return subdir;
     }
 
+    /**
+     * Wait for the content written so far to be stored.
+     */
+    public void flush() {
+        List<Future<?>> futures;
+        synchronized (pending) {
+            futures = new ArrayList<>(pending);
+            pending.clear();
+        }
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                LOGGER.log(Level.WARNING, "Unable to write diagnostics of " + test, e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Store pending content and account the files the test created.
+     */
+    private void finish() {
+        flush();
+        if (dir.isDirectory()) {
+            Future<?> f = sink.account(test, dir);
+            synchronized (pending) {
+                pending.add(f);
+            }
+            flush();
+        }
+    }
+
     @Override
     protected void succeeded(Description description) {
+        finish();
+
         // Delete the directory if no diagnostics information written
         if (dir.exists()) {
             String[] files = dir.list();
@@ -105,6 +164,8 @@ public class FailureDiagnostics extends TestWatcher {
 
     @Override
     public void failed(Throwable e, Description description) {
+        finish();
+
         if (dir.exists()) {
             File[] files = dir.listFiles();
             if (files != null) {
@@ -115,4 +176,6 @@ public class FailureDiagnostics extends TestWatcher {
             }
         }
     }
+
+    private static final Logger LOGGER = Logger.getLogger(FailureDiagnostics.class.getName());
 }
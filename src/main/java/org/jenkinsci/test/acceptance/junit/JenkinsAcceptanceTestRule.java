@@ -54,6 +54,9 @@ public class JenkinsAcceptanceTestRule implements MethodRule { // TODO should us
 
                 world.startTestScope(description.getDisplayName());
 
+                // Before the controller gets created
+                injector.getInstance(RequiredPlugins.class).set(WithPlugins.RuleImpl.requiredPlugins(description));
+
                 injector.injectMembers(this);
 
                 try {
@@ -0,0 +1,30 @@
+package org.jenkinsci.test.acceptance.junit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import org.jenkinsci.test.acceptance.controller.JenkinsController;
+import org.jenkinsci.test.acceptance.guice.TestScope;
+import org.jenkinsci.test.acceptance.update_center.PluginSpec;
+
+/**
+ * Plugins the current test declares through {@link WithPlugins}.
+ *
+ * Populated as soon as the test scope starts so that {@link JenkinsController}s can take them into account
+ * before Jenkins is created and booted, while {@link WithPlugins.RuleImpl} only runs once Jenkins is up.
+ */
+@TestScope
+public class RequiredPlugins {
+    private List<PluginSpec> plugins = Collections.emptyList();
+
+    public @Nonnull List<PluginSpec> get() {
+        return plugins;
+    }
+
+    public void set(@Nonnull List<PluginSpec> plugins) {
+        this.plugins = Collections.unmodifiableList(new ArrayList<>(plugins));
+    }
+}
@@ -28,7 +28,11 @@ import java.util.concurrent.TimeUnit;
 
 import org.hamcrest.Matcher;
 import org.hamcrest.StringDescription;
+import org.jenkinsci.test.acceptance.recorder.ScreenshotTimeline;
 import org.jenkinsci.test.acceptance.utils.ElasticTime;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.support.ui.Clock;
+import org.openqa.selenium.support.ui.Duration;
 import org.openqa.selenium.support.ui.FluentWait;
 import org.openqa.selenium.support.ui.Sleeper;
 import org.openqa.selenium.support.ui.SystemClock;
@@ -38,6 +42,9 @@ import com.google.common.base.Function;
 /**
  * ATH specific wait object.
  *
+ * Polls in fixed intervals unless {@linkplain #withBackoff(long, long, TimeUnit) backoff} is configured. Number of
+ * polls and time spent by every wait is reported to {@link WaitStatistics} of the current test.
+ *
  * @author ogondza
  *
  * @param <Subject> Argument type passed to callback.
@@ -55,18 +62,60 @@ public class Wait<Subject> extends FluentWait<Subject> {
         }
     }
 
+    /**
+     * Sleeps for the polling interval, or for exponentially growing time when backoff is configured.
+     */
+    private static final class BackoffSleeper implements Sleeper {
+        private final ElasticTime time;
+        private long initial;
+        private long max;
+
+        private long next;
+        private long sleptNanos;
+
+        private BackoffSleeper(ElasticTime time) {
+            this.time = time;
+        }
+
+        @Override public void sleep(Duration duration) throws InterruptedException {
+            long millis = duration.in(TimeUnit.MILLISECONDS);
+            if (initial > 0) {
+                millis = next;
+                next = Math.min(next * 2, max);
+            }
+
+            long start = System.nanoTime();
+            try {
+                Thread.sleep(millis);
+            } finally {
+                sleptNanos += System.nanoTime() - start;
+            }
+        }
+
+        private void reset() {
+            next = initial;
+            sleptNanos = 0;
+        }
+
+        private long scale(long millis) {
+            return time == null ? millis : Math.max(1, time.milliseconds(millis));
+        }
+    }
+
     /** Predicate and input reference stored when {@link Predicate} is used so we can diagnose. */
     private Predicate<?> predicate;
     private Subject input;
 
+    private final BackoffSleeper sleeper;
+    private String message;
+
     /**
      * Create wait with configurable timer.
      *
      * This is useful for timeout waiting for tasks to complete that might be dependent on test environment.
      */
     public Wait(Subject input, ElasticTime time) {
-        super(input, new ElasticClock(time), Sleeper.SYSTEM_SLEEPER);
-        this.input = input;
+        this(input, new ElasticClock(time), new BackoffSleeper(time));
     }
 
     /**
@@ -76,8 +125,28 @@ public class Wait<Subject> extends FluentWait<Subject> {
      * @see {@link Wait<Subject>(Subject, ElasticTime)}
      */
     public Wait(Subject input) {
-        super(input);
+        this(input, new SystemClock(), new BackoffSleeper(null));
+    }
+
+    private Wait(Subject input, Clock clock, BackoffSleeper sleeper) {
+        super(input, clock, sleeper);
         this.input = input;
+        this.sleeper = sleeper;
+    }
+
+    /**
+     * Poll often at first and less and less frequently later.
+     *
+     * Conditions that are met quickly are noticed almost immediately, while the long waits do not keep bothering
+     * the browser or Jenkins. Both delays are scaled by {@link ElasticTime} when waiting with one.
+     *
+     * @param initial Delay before the second poll.
+     * @param max Maximal delay the backoff can grow to.
+     */
+    public Wait<Subject> withBackoff(long initial, long max, TimeUnit unit) {
+        sleeper.initial = sleeper.scale(unit.toMillis(initial));
+        sleeper.max = Math.max(sleeper.initial, sleeper.scale(unit.toMillis(max)));
+        return this;
     }
 
     public Wait<Subject> withMessage(String pattern, Object... args) {
@@ -85,9 +154,51 @@ public class Wait<Subject> extends FluentWait<Subject> {
         return this;
     }
 
+    @Override
+    public <Return> Return until(final Function<? super Subject, Return> isTrue) {
+        final int[] polls = new int[1];
+        Function<Subject, Return> counting = new Function<Subject, Return>() {
+            @Override
+            public Return apply(Subject input) {
+                polls[0]++;
+                return isTrue.apply(input);
+            }
+
+            @Override
+            public String toString() {
+              return isTrue.toString();
+            }
+        };
+
+        sleeper.reset();
+        boolean timedOut = false;
+        long start = System.nanoTime();
+        try {
+            return super.until(counting);
+        } catch (TimeoutException ex) {
+            timedOut = true;
+            ScreenshotTimeline timeline = ScreenshotTimeline.current();
+            if (timeline != null) {
+                timeline.capture("timeout");
+            }
+            throw ex;
+        } finally {
+            WaitStatistics stats = WaitStatistics.current();
+            if (stats != null) {
+                stats.record(
+                        message != null ? message : isTrue.toString(),
+                        polls[0],
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                        TimeUnit.NANOSECONDS.toMillis(sleeper.sleptNanos),
+                        timedOut
+                );
+            }
+        }
+    }
+
     // For convenience as we have quite a lot of Callables historically
     public <Return> Return until(final Callable<Return> isTrue) {
-        return super.until(new Function<Subject, Return>() {
+        return until(new Function<Subject, Return>() {
             @Override
             public Return apply(Subject input) {
                 try {
@@ -141,7 +252,7 @@ public class Wait<Subject> extends FluentWait<Subject> {
 
         predicate = isTrue;
         try {
-            return super.until(fun);
+            return until(fun);
         } finally {
             predicate = null;
         }
@@ -180,11 +291,16 @@ public class Wait<Subject> extends FluentWait<Subject> {
 
     @Override
     public Wait<Subject> withMessage(String message) {
+        this.message = message;
         return (Wait<Subject>) super.withMessage(message);
     }
 
+    /**
+     * Poll in fixed intervals, turning off the {@linkplain #withBackoff(long, long, TimeUnit) backoff}.
+     */
     @Override
     public Wait<Subject> pollingEvery(long duration, TimeUnit unit) {
+        sleeper.initial = 0;
         return (Wait<Subject>) super.pollingEvery(duration, unit);
     }
 
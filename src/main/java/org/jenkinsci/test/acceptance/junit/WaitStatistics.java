@@ -0,0 +1,176 @@
+package org.jenkinsci.test.acceptance.junit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Logger;
+
+import javax.annotation.CheckForNull;
+import javax.inject.Inject;
+
+import org.jenkinsci.test.acceptance.guice.TestScope;
+import org.jenkinsci.test.acceptance.utils.SystemEnvironmentVariables;
+import org.junit.rules.TestWatcher;
+import org.junit.runner.Description;
+
+/**
+ * Collects how many polls every {@link Wait} of the test needed and how long it blocked.
+ *
+ * The histogram is attached to the test diagnostics as <tt>waits.txt</tt>. Set <tt>WAIT_HISTOGRAM</tt> to
+ * <tt>always</tt> to have it for passing tests as well or to <tt>off</tt> to disable it.
+ */
+@GlobalRule(priority = Integer.MIN_VALUE + 1) // Collect waits of all other rules
+@TestScope
+public class WaitStatistics extends TestWatcher {
+
+    static final String OFF = "off";
+    static final String FAILURES = "failuresOnly";
+    static final String ALWAYS = "always";
+
+    static String MODE = SystemEnvironmentVariables.getPropertyVariableOrEnvironment("WAIT_HISTOGRAM", FAILURES).trim();
+
+    /**
+     * Upper bounds of wait duration buckets, in milliseconds.
+     */
+    private static final long[] BUCKETS = {10, 100, 500, 1000, 5000, 10000, 30000, 60000, Long.MAX_VALUE};
+
+    private static final int SLOWEST = 10;
+
+    /**
+     * Statistics of the test running in current thread, inherited by the threads the test spawns.
+     */
+    private static final InheritableThreadLocal<WaitStatistics> CURRENT = new InheritableThreadLocal<>();
+
+    private final FailureDiagnostics diagnostics;
+
+    private final int[] waits = new int[BUCKETS.length];
+    private final long[] polls = new long[BUCKETS.length];
+    private final long[] blocked = new long[BUCKETS.length];
+    private final long[] elapsed = new long[BUCKETS.length];
+    private int timeouts;
+    private final List<Record> slowest = new ArrayList<>();
+
+    @Inject
+    public WaitStatistics(FailureDiagnostics diagnostics) {
+        this.diagnostics = diagnostics;
+    }
+
+    /**
+     * Statistics of the current test, if any.
+     */
+    public static @CheckForNull WaitStatistics current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @param description What was waited for.
+     * @param polls Number of times the condition was evaluated.
+     * @param elapsed Milliseconds the wait took.
+     * @param blocked Milliseconds spent sleeping between polls.
+     * @param timedOut The condition was not met in time.
+     */
+    public synchronized void record(String description, int polls, long elapsed, long blocked, boolean timedOut) {
+        int bucket = 0;
+        while (elapsed > BUCKETS[bucket]) bucket++;
+
+        this.waits[bucket]++;
+        this.polls[bucket] += polls;
+        this.blocked[bucket] += blocked;
+        this.elapsed[bucket] += elapsed;
+        if (timedOut) timeouts++;
+
+        slowest.add(new Record(description, polls, elapsed, timedOut));
+        Collections.sort(slowest, SLOWER_FIRST);
+        if (slowest.size() > SLOWEST) {
+            slowest.remove(SLOWEST);
+        }
+    }
+
+    @Override
+    protected void starting(Description description) {
+        CURRENT.set(this);
+    }
+
+    @Override
+    protected void failed(Throwable e, Description description) {
+        if (!OFF.equals(MODE)) {
+            diagnostics.write("waits.txt", histogram());
+        }
+    }
+
+    @Override
+    protected void succeeded(Description description) {
+        if (ALWAYS.equals(MODE)) {
+            diagnostics.write("waits.txt", histogram());
+        }
+    }
+
+    @Override
+    protected synchronized void finished(Description description) {
+        CURRENT.remove();
+
+        int count = 0;
+        long total = 0;
+        for (int i = 0; i < BUCKETS.length; i++) {
+            count += waits[i];
+            total += blocked[i];
+        }
+        if (count > 0) {
+            LOGGER.info(String.format("%s waited %d times, %d ms blocked in total", description.getDisplayName(), count, total));
+        }
+    }
+
+    /*package*/ synchronized String histogram() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-12s %8s %10s %12s %12s%n", "Duration", "Waits", "Polls", "Elapsed ms", "Blocked ms"));
+        int count = 0;
+        long totalPolls = 0, totalElapsed = 0, totalBlocked = 0;
+        for (int i = 0; i < BUCKETS.length; i++) {
+            String label = BUCKETS[i] == Long.MAX_VALUE
+                    ? "> " + BUCKETS[i - 1] + " ms"
+                    : "<= " + BUCKETS[i] + " ms"
+            ;
+            sb.append(String.format("%-12s %8d %10d %12d %12d%n", label, waits[i], polls[i], elapsed[i], blocked[i]));
+            count += waits[i];
+            totalPolls += polls[i];
+            totalElapsed += elapsed[i];
+            totalBlocked += blocked[i];
+        }
+        sb.append(String.format("%-12s %8d %10d %12d %12d%n", "Total", count, totalPolls, totalElapsed, totalBlocked));
+        sb.append(String.format("%nTimed out: %d%n", timeouts));
+
+        if (!slowest.isEmpty()) {
+            sb.append(String.format("%nSlowest waits:%n"));
+            for (Record r : slowest) {
+                sb.append(String.format(
+                        "%8d ms %6d polls%s %s%n", r.elapsed, r.polls, r.timedOut ? " (timed out)" : "", r.description
+                ));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static final class Record {
+        private final String description;
+        private final int polls;
+        private final long elapsed;
+        private final boolean timedOut;
+
+        private Record(String description, int polls, long elapsed, boolean timedOut) {
+            this.description = description;
+            this.polls = polls;
+            this.elapsed = elapsed;
+            this.timedOut = timedOut;
+        }
+    }
+
+    private static final Comparator<Record> SLOWER_FIRST = new Comparator<Record>() {
+        @Override
+        public int compare(Record o1, Record o2) {
+            return Long.compare(o2.elapsed, o1.elapsed);
+        }
+    };
+
+    private static final Logger LOGGER = Logger.getLogger(WaitStatistics.class.getName());
+}
@@ -11,7 +11,7 @@ import java.util.List;
 import java.util.logging.Logger;
 
 import org.jenkinsci.test.acceptance.po.Jenkins;
-import org.jenkinsci.test.acceptance.po.Plugin;
+import org.jenkinsci.test.acceptance.po.PluginInventory;
 import org.jenkinsci.test.acceptance.po.PluginManager;
 import org.jenkinsci.test.acceptance.update_center.PluginSpec;
 import org.jenkinsci.test.acceptance.update_center.UpdateCenterMetadata.UnableToResolveDependencies;
@@ -88,21 +88,15 @@ public @interface WithPlugins {
                 public void evaluate() throws Throwable {
                     jenkins = injector.getInstance(Jenkins.class);
 
-                    List<WithPlugins> wp = new LinkedList<>();
-                    wp.add(d.getAnnotation(WithPlugins.class));
-
-                    Class<?> testClass = d.getTestClass();
-                    while (testClass != null) {
-                        wp.add(testClass.getAnnotation(WithPlugins.class));
-                        testClass = testClass.getSuperclass();
-                    }
-
-                    List<PluginSpec> plugins = combinePlugins(wp);
+                    List<PluginSpec> plugins = requiredPlugins(d);
                     installPlugins(plugins);
 
+                    PluginInventory installed = jenkins.getPluginInventory();
                     for (PluginSpec plugin : plugins) {
-                        Plugin installedPlugin = jenkins.getPlugin(plugin.getName());
-                        VersionNumber installedVersion = installedPlugin.getVersion();
+                        VersionNumber installedVersion = installed.getVersion(plugin.getName());
+                        if (installedVersion == null) {
+                            throw new IllegalArgumentException(plugin.getName() + " plugin not installed");
+                        }
                         String version = installedVersion.toString();
                         pluginReporter.log(
                                 d.getClassName() + "." + d.getMethodName(),
@@ -113,20 +107,6 @@ public @interface WithPlugins {
                     base.evaluate();
                 }
 
-                private List<PluginSpec> combinePlugins(List<WithPlugins> wp) {
-                    ArrayList<PluginSpec> plugins = new ArrayList<>();
-                    for (WithPlugins withPlugins : wp) {
-                        if (withPlugins != null) {
-                            for (String spec: withPlugins.value()) {
-                                // TODO eliminate duplicates and prefer newer versions
-                                plugins.add(new PluginSpec(spec));
-                            }
-                        }
-                    }
-
-                    return plugins;
-                }
-
                 private void installPlugins(List<PluginSpec> install) {
                     PluginManager pm = jenkins.getPluginManager();
 
@@ -167,5 +147,31 @@ public @interface WithPlugins {
                 }
             };
         }
+
+        /**
+         * Plugins declared by the test method, its class and superclasses.
+         */
+        public static List<PluginSpec> requiredPlugins(Description d) {
+            List<WithPlugins> wp = new LinkedList<>();
+            wp.add(d.getAnnotation(WithPlugins.class));
+
+            Class<?> testClass = d.getTestClass();
+            while (testClass != null) {
+                wp.add(testClass.getAnnotation(WithPlugins.class));
+                testClass = testClass.getSuperclass();
+            }
+
+            ArrayList<PluginSpec> plugins = new ArrayList<>();
+            for (WithPlugins withPlugins : wp) {
+                if (withPlugins != null) {
+                    for (String spec: withPlugins.value()) {
+                        // TODO eliminate duplicates and prefer newer versions
+                        plugins.add(new PluginSpec(spec));
+                    }
+                }
+            }
+
+            return plugins;
+        }
     }
 }
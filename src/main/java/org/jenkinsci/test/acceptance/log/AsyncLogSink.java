@@ -0,0 +1,250 @@
+package org.jenkinsci.test.acceptance.log;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes the log to a file and passes it to slow {@link LogListener}s from a dedicated thread.
+ *
+ * <p>
+ * Lines are queued in a bounded ring buffer so the thread reading the log is never held back by the disk or the
+ * console unless the buffer is full. The writer thread takes all queued lines at once and writes them to the file
+ * in a single {@link FileChannel} write. Once the file grows over the given size, it is rotated to <tt>*.1</tt>.
+ *
+ * <p>
+ * When the buffer is full, the reading thread waits for the writer. Number and duration of such stalls is counted
+ * and reported when the log ends.
+ */
+public class AsyncLogSink implements LogListener, Closeable {
+    private final File file;
+    private final long maxFileSize;
+    private final LogListener downstream;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition drained = lock.newCondition();
+
+    private final String[] ring;
+    private int head;
+    private int size;
+    /**
+     * Lines taken from the ring that are still being processed.
+     */
+    private int inFlight;
+    private boolean closed;
+    private Exception closeCause;
+
+    private int stalls;
+    private long stalledNanos;
+    private int maxDepth;
+
+    private FileChannel channel;
+    private long fileSize;
+
+    private final Thread writer;
+
+    /**
+     * @param id Short ID of the log, to name the writer thread.
+     * @param file Log file to write. Truncated.
+     * @param maxFileSize Rotate the file once it is larger than this many bytes.
+     * @param capacity Number of lines to buffer.
+     * @param downstream Listener to notify from the writer thread.
+     */
+    public AsyncLogSink(String id, File file, long maxFileSize, int capacity, LogListener downstream) throws IOException {
+        this.file = file;
+        this.maxFileSize = maxFileSize;
+        this.downstream = downstream;
+        this.ring = new String[capacity];
+        this.channel = open(file);
+
+        writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        }, "Log writer: " + id);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void processLine(String line) throws IOException {
+        lock.lock();
+        try {
+            if (size == ring.length && !closed) {
+                stalls++;
+                long start = System.nanoTime();
+                while (size == ring.length && !closed) {
+                    notFull.awaitUninterruptibly();
+                }
+                stalledNanos += System.nanoTime() - start;
+            }
+            if (closed) return;
+
+            ring[(head + size) % ring.length] = line;
+            size++;
+            maxDepth = Math.max(maxDepth, size);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void processClose(Exception t) {
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            closeCause = t;
+            notEmpty.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        processClose(null);
+    }
+
+    /**
+     * Wait until all the lines received so far are written.
+     */
+    public boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (size > 0 || inFlight > 0) {
+                if (nanos <= 0) return false;
+                nanos = drained.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drain() {
+        List<String> batch = new ArrayList<>();
+        Exception cause;
+        while (true) {
+            lock.lock();
+            try {
+                while (size == 0 && !closed) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (size == 0) {
+                    cause = closeCause;
+                    break;
+                }
+
+                while (size > 0) {
+                    batch.add(ring[head]);
+                    ring[head] = null;
+                    head = (head + 1) % ring.length;
+                    size--;
+                }
+                inFlight = batch.size();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            write(batch);
+            for (String line : batch) {
+                try {
+                    downstream.processLine(line);
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Failed to pass log line to " + downstream, e);
+                }
+            }
+            batch.clear();
+
+            lock.lock();
+            try {
+                inFlight = 0;
+                drained.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        downstream.processClose(cause);
+        closeChannel();
+
+        if (stalls > 0) {
+            LOGGER.info(String.format(
+                    "Reading %s was stalled %d times for %d ms in total by slow log processing. Max queue depth %d",
+                    file, stalls, TimeUnit.NANOSECONDS.toMillis(stalledNanos), maxDepth
+            ));
+        }
+    }
+
+    private void write(List<String> batch) {
+        if (channel == null) return;
+
+        StringBuilder sb = new StringBuilder();
+        for (String line : batch) {
+            sb.append(line).append('\n');
+        }
+        ByteBuffer buf = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+
+        try {
+            if (fileSize > 0 && fileSize + buf.remaining() > maxFileSize) {
+                rotate();
+            }
+            while (buf.hasRemaining()) {
+                fileSize += channel.write(buf);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to write log to " + file + ", giving up", e);
+            closeChannel();
+        }
+    }
+
+    private void rotate() throws IOException {
+        channel.close();
+        File backup = new File(file.getPath() + ".1");
+        if (backup.exists() && !backup.delete()) {
+            throw new IOException("Unable to delete " + backup);
+        }
+        if (!file.renameTo(backup)) {
+            throw new IOException("Unable to rotate " + file + " to " + backup);
+        }
+        channel = open(file);
+        fileSize = 0;
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to close " + file, e);
+        }
+        channel = null;
+    }
+
+    private static FileChannel open(File file) throws IOException {
+        return FileChannel.open(
+                file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING
+        );
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(AsyncLogSink.class.getName());
+}
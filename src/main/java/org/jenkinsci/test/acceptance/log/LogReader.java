@@ -3,6 +3,8 @@ package org.jenkinsci.test.acceptance.log;
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
@@ -26,9 +28,19 @@ public class LogReader implements Runnable {
 
     private final LogListener listener;
 
+    /**
+     * Encoding of the log. Fixed so the output is decoded the same way no matter where the tests run.
+     */
+    private final Charset charset;
+
     public LogReader(InputStream source, LogListener listener) {
+        this(source, listener, StandardCharsets.UTF_8);
+    }
+
+    public LogReader(InputStream source, LogListener listener, Charset charset) {
         this.source = source;
         this.listener = listener;
+        this.charset = charset;
         this.done = new BasicFuture<>(null);
     }
 
@@ -43,7 +55,7 @@ public class LogReader implements Runnable {
     public void run() {
         String line;
         try {
-            BufferedReader reader = new BufferedReader(new InputStreamReader(source));
+            BufferedReader reader = new BufferedReader(new InputStreamReader(source, charset), BUFFER_SIZE);
             while ((line = reader.readLine()) != null) {
                 listener.processLine(line);
             }
@@ -57,5 +69,10 @@ public class LogReader implements Runnable {
         }
     }
 
+    /**
+     * Large enough not to have the reader thread fall behind when Jenkins logs heavily.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     private static final Logger LOGGER = Logger.getLogger(LogReader.class.getName());
 }
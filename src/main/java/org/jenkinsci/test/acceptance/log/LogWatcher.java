@@ -3,6 +3,10 @@ package org.jenkinsci.test.acceptance.log;
 import org.apache.http.concurrent.BasicFuture;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -10,23 +14,38 @@ import java.util.regex.Pattern;
 /**
  * Receives log as {@link LogListener}, and  provides a regular expression pattern matching.
  *
+ * All the watched expressions are evaluated together by {@link MultiPatternMatcher} so the cost per line does not
+ * grow much with the number of watchers.
+ *
  * @author Vivek Pandey
  * @author Kohsuke Kawaguchi
  */
 public class LogWatcher implements LogListener {
     /**
-     * All the listeners in here is {@link Watcher}s.
+     * Watchers waiting for their expression, replaced as a whole when the set changes.
      */
-    protected final LogSplitter splitter = new LogSplitter();
+    private volatile Watchers watchers = new Watchers(Collections.<Watcher>emptyList());
 
     @Override
     public void processLine(String line) throws IOException {
-        splitter.processLine(line);
+        Watchers w = watchers;
+        if (w.list.isEmpty()) return;
+
+        for (Map.Entry<Integer, Matcher> match : w.matcher.match(line).entrySet()) {
+            Watcher watcher = w.list.get(match.getKey());
+            watcher.completed(match.getValue());
+            remove(watcher);
+        }
     }
 
     @Override
     public void processClose(Exception t) {
-        splitter.processClose(t);
+        if (t==null)
+            t = new IOException("Regular termination");
+
+        for (Watcher w : watchers.list) {
+            w.failed(t);
+        }
     }
 
     /**
@@ -36,32 +55,44 @@ public class LogWatcher implements LogListener {
      */
     public Future<Matcher> watch(Pattern regexp) {
         Watcher w = new Watcher(regexp);
-        splitter.addLogListener(w);
+        synchronized (this) {
+            List<Watcher> list = new ArrayList<>(watchers.list);
+            list.add(w);
+            watchers = new Watchers(list);
+        }
         return w;
     }
 
-    class Watcher extends BasicFuture<Matcher> implements LogListener {
+    private synchronized void remove(Watcher w) {
+        List<Watcher> list = new ArrayList<>(watchers.list);
+        if (list.remove(w)) {
+            watchers = new Watchers(list);
+        }
+    }
+
+    class Watcher extends BasicFuture<Matcher> {
         private final Pattern pattern;
 
         public Watcher(Pattern pattern) {
             super(null);
             this.pattern = pattern;
         }
+    }
 
-        @Override
-        public void processLine(String line) throws IOException {
-            Matcher m = pattern.matcher(line);
-            if (m.find()) {
-                completed(m);
-                splitter.removeLogListener(this);
-            }
-        }
+    /**
+     * Immutable snapshot of watchers with their compiled matcher.
+     */
+    private static final class Watchers {
+        private final List<Watcher> list;
+        private final MultiPatternMatcher matcher;
 
-        @Override
-        public void processClose(Exception t) {
-            if (t==null)
-                t = new IOException("Regular termination");
-            failed(t);
+        private Watchers(List<Watcher> list) {
+            this.list = Collections.unmodifiableList(list);
+            List<Pattern> patterns = new ArrayList<>(list.size());
+            for (Watcher w : list) {
+                patterns.add(w.pattern);
+            }
+            this.matcher = new MultiPatternMatcher(patterns);
         }
     }
 }
@@ -0,0 +1,340 @@
+package org.jenkinsci.test.acceptance.log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.CheckForNull;
+
+/**
+ * Matches lines against several regular expressions at once.
+ *
+ * <p>
+ * Every pattern is reduced to the longest literal that each of its matches has to contain. All the literals are
+ * then looked up in a single pass over the line using Aho-Corasick automaton, and only the patterns whose literal
+ * was found are evaluated. Patterns without usable literal are evaluated for every line.
+ *
+ * <p>
+ * Instances are immutable and thus safe to be used from several threads.
+ *
+ * @see LogWatcher
+ */
+public final class MultiPatternMatcher {
+    /**
+     * Shorter literals are not worth the prefiltering.
+     */
+    private static final int MIN_LITERAL = 3;
+
+    private final Pattern[] patterns;
+
+    /**
+     * Indexes of patterns without literal.
+     */
+    private final int[] unfiltered;
+
+    /**
+     * Character class of ASCII characters. 0 for characters not used in any literal.
+     */
+    private final int[] asciiClasses = new int[128];
+    private final Map<Character, Integer> otherClasses = new HashMap<>();
+    private final int classes;
+
+    /**
+     * State transitions, indexed by <tt>state * classes + class</tt>. State 0 is the initial one.
+     */
+    private final int[] transitions;
+
+    /**
+     * Patterns whose literal ends in the given state, or null.
+     */
+    private final int[][] outputs;
+
+    public MultiPatternMatcher(Pattern... patterns) {
+        this(Arrays.asList(patterns));
+    }
+
+    public MultiPatternMatcher(List<Pattern> patterns) {
+        this.patterns = patterns.toArray(new Pattern[patterns.size()]);
+
+        List<Integer> unfiltered = new ArrayList<>();
+        String[] literals = new String[this.patterns.length];
+        int nextClass = 1;
+        for (int i = 0; i < literals.length; i++) {
+            literals[i] = requiredLiteral(this.patterns[i]);
+            if (literals[i] == null) {
+                unfiltered.add(i);
+                continue;
+            }
+
+            for (char c : literals[i].toCharArray()) {
+                if (classOf(c) == 0) {
+                    if (c < 128) {
+                        asciiClasses[c] = nextClass++;
+                    } else {
+                        otherClasses.put(c, nextClass++);
+                    }
+                }
+            }
+        }
+        this.unfiltered = new int[unfiltered.size()];
+        for (int i = 0; i < this.unfiltered.length; i++) {
+            this.unfiltered[i] = unfiltered.get(i);
+        }
+        this.classes = nextClass;
+
+        // Trie
+        List<int[]> trie = new ArrayList<>();
+        List<List<Integer>> out = new ArrayList<>();
+        trie.add(new int[classes]);
+        out.add(new ArrayList<Integer>());
+        for (int i = 0; i < literals.length; i++) {
+            if (literals[i] == null) continue;
+
+            int state = 0;
+            for (char c : literals[i].toCharArray()) {
+                int cls = classOf(c);
+                if (trie.get(state)[cls] == 0) {
+                    trie.get(state)[cls] = trie.size();
+                    trie.add(new int[classes]);
+                    out.add(new ArrayList<Integer>());
+                }
+                state = trie.get(state)[cls];
+            }
+            out.get(state).add(i);
+        }
+
+        // Fold failure links into the transitions breadth first, so the matching never backtracks
+        int states = trie.size();
+        int[] fail = new int[states];
+        transitions = new int[states * classes];
+        List<Integer> queue = new ArrayList<>();
+        for (int cls = 1; cls < classes; cls++) {
+            int s = trie.get(0)[cls];
+            transitions[cls] = s;
+            if (s != 0) queue.add(s);
+        }
+        for (int head = 0; head < queue.size(); head++) {
+            int state = queue.get(head);
+            out.get(state).addAll(out.get(fail[state]));
+            for (int cls = 1; cls < classes; cls++) {
+                int s = trie.get(state)[cls];
+                if (s != 0) {
+                    fail[s] = transitions[fail[state] * classes + cls];
+                    transitions[state * classes + cls] = s;
+                    queue.add(s);
+                } else {
+                    transitions[state * classes + cls] = transitions[fail[state] * classes + cls];
+                }
+            }
+        }
+
+        outputs = new int[states][];
+        for (int state = 0; state < states; state++) {
+            List<Integer> o = out.get(state);
+            if (!o.isEmpty()) {
+                outputs[state] = new int[o.size()];
+                for (int i = 0; i < o.size(); i++) {
+                    outputs[state][i] = o.get(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Match the line against all the patterns.
+     *
+     * @return Matchers that has {@linkplain Matcher#find() found} the pattern, keyed by index of the pattern.
+     */
+    public Map<Integer, Matcher> match(CharSequence line) {
+        boolean[] candidates = null;
+        int state = 0;
+        for (int i = 0; i < line.length(); i++) {
+            state = transitions[state * classes + classOf(line.charAt(i))];
+            int[] o = outputs[state];
+            if (o != null) {
+                if (candidates == null) {
+                    candidates = new boolean[patterns.length];
+                }
+                for (int p : o) {
+                    candidates[p] = true;
+                }
+            }
+        }
+
+        if (candidates == null && unfiltered.length == 0) return Collections.emptyMap();
+
+        if (candidates == null) {
+            candidates = new boolean[patterns.length];
+        }
+        for (int p : unfiltered) {
+            candidates[p] = true;
+        }
+
+        Map<Integer, Matcher> matched = null;
+        for (int p = 0; p < candidates.length; p++) {
+            if (!candidates[p]) continue;
+
+            Matcher m = patterns[p].matcher(line);
+            if (m.find()) {
+                if (matched == null) {
+                    matched = new LinkedHashMap<>();
+                }
+                matched.put(p, m);
+            }
+        }
+        return matched == null ? Collections.<Integer, Matcher>emptyMap() : matched;
+    }
+
+    private int classOf(char c) {
+        if (c < 128) return asciiClasses[c];
+
+        Integer cls = otherClasses.get(c);
+        return cls == null ? 0 : cls;
+    }
+
+    /**
+     * Find the longest literal every match of the pattern contains.
+     *
+     * Only the top-level sequence of the expression is considered, anything inside groups or character classes
+     * is ignored. Expressions with alternatives, flags or special constructs are not prefiltered at all.
+     *
+     * @return null if there is no literal long enough.
+     */
+    /*package*/ static @CheckForNull String requiredLiteral(Pattern pattern) {
+        String regex = pattern.pattern();
+        if (pattern.flags() != 0 || regex.contains("(?")) return null;
+
+        String longest = "";
+        StringBuilder run = new StringBuilder();
+        int depth = 0;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                if (++i == regex.length()) return null;
+                char e = regex.charAt(i);
+                if (e == 'Q') {
+                    int end = regex.indexOf("\\E", i);
+                    if (end == -1) end = regex.length();
+                    if (depth == 0) {
+                        run.append(regex, i + 1, end);
+                    }
+                    i = end + 1;
+                } else if (!Character.isLetterOrDigit(e)) {
+                    if (depth == 0) run.append(e);
+                } else {
+                    // Character class, boundary, back reference, escaped code point...
+                    longest = longer(longest, run);
+                    i = endOfEscape(regex, i);
+                    if (i == -1) return null;
+                }
+                continue;
+            }
+
+            switch (c) {
+                case '|':
+                    if (depth == 0) return null;
+                    break;
+                case '(':
+                    longest = longer(longest, run);
+                    depth++;
+                    break;
+                case ')':
+                    depth--;
+                    break;
+                case '[':
+                    longest = longer(longest, run);
+                    i = endOfClass(regex, i);
+                    if (i == -1) return null;
+                    break;
+                case '*': case '?': case '{':
+                    // Preceding character is optional or repeated
+                    if (depth == 0 && run.length() > 0) {
+                        run.setLength(run.length() - 1);
+                    }
+                    longest = longer(longest, run);
+                    if (c == '{') {
+                        i = regex.indexOf('}', i);
+                        if (i == -1) return null;
+                    }
+                    break;
+                case '+': case '.': case '^': case '$':
+                    longest = longer(longest, run);
+                    break;
+                default:
+                    if (depth == 0) {
+                        run.append(c);
+                    }
+            }
+        }
+        longest = longer(longest, run);
+        return longest.length() < MIN_LITERAL ? null : longest;
+    }
+
+    /**
+     * Index of the last character of escape sequence, given the index of the character following the backslash,
+     * or -1 if it is not known where it ends.
+     */
+    private static int endOfEscape(String regex, int start) {
+        char e = regex.charAt(start);
+        int i = start + 1;
+        switch (e) {
+            case 'x':
+                if (i < regex.length() && regex.charAt(i) == '{') return regex.indexOf('}', i);
+                return i + 1 < regex.length() ? i + 1 : -1;
+            case 'u':
+                return i + 3 < regex.length() ? i + 3 : -1;
+            case '0':
+                // Up to three octal digits, the first of them at most 3
+                int max = i < regex.length() && regex.charAt(i) <= '3' ? 3 : 2;
+                while (i < regex.length() && i - start <= max && regex.charAt(i) >= '0' && regex.charAt(i) <= '7') i++;
+                return i == start + 1 ? -1 : i - 1;
+            case 'c':
+                return i < regex.length() ? i : -1;
+            case 'k':
+                return i < regex.length() && regex.charAt(i) == '<' ? regex.indexOf('>', i) : -1;
+            case 'p': case 'P': case 'N':
+                if (i < regex.length() && regex.charAt(i) == '{') return regex.indexOf('}', i);
+                return i < regex.length() ? i : -1;
+            default:
+                // The number of digits the back reference consumes depends on the number of groups
+                if (e >= '1' && e <= '9' && i < regex.length() && Character.isDigit(regex.charAt(i))) return -1;
+                return start;
+        }
+    }
+
+    /**
+     * Index of the bracket closing character class starting at given index, or -1.
+     */
+    private static int endOfClass(String regex, int start) {
+        int depth = 0;
+        for (int i = start; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                depth++;
+                // Closing bracket right after the opening one is taken literally
+                if (i + 1 < regex.length() && regex.charAt(i + 1) == '^') i++;
+                if (i + 1 < regex.length() && regex.charAt(i + 1) == ']') i++;
+            } else if (c == ']' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Pick the longer of the two and reset the run.
+     */
+    private static String longer(String longest, StringBuilder run) {
+        String candidate = run.toString();
+        run.setLength(0);
+        return candidate.length() > longest.length() ? candidate : longest;
+    }
+}
@@ -2,6 +2,7 @@ package org.jenkinsci.test.acceptance.machine;
 
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jenkinsci.test.acceptance.Ssh;
+import org.jenkinsci.test.acceptance.SshPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,9 +26,12 @@ public class JcloudsMachine implements Machine {
 
     private final String dir;
 
+    private final SshPool sshPool;
+
     public JcloudsMachine(JcloudsMachineProvider machineProvider, NodeMetadata nodeMetadata) {
         this.nodeMetadata = nodeMetadata;
         this.machineProvider = machineProvider;
+        this.sshPool = new SshPool(getPublicIpAddress(), machineProvider.authenticator());
         for (int port : machineProvider.getAvailableInboundPorts()) {
             availablePorts.push(port);
         }
@@ -49,15 +53,9 @@ public class JcloudsMachine implements Machine {
 
     @Override
     public Ssh connect() {
-        Ssh ssh = null;
         try {
-            ssh = new Ssh(getPublicIpAddress());
-            machineProvider.authenticator().authenticate(ssh.getConnection());
-            return ssh;
+            return sshPool.connect();
         } catch (IOException e) {
-            if (ssh != null) {
-                ssh.close();
-            }
             throw new AssertionError("Failed to create ssh connection", e);
         }
     }
@@ -95,6 +93,9 @@ public class JcloudsMachine implements Machine {
         } catch (InterruptedException e) {
             //ignore
             logger.error(e.getMessage());
+        } finally {
+            // The processes serving the connections are gone
+            sshPool.evict();
         }
         machineProvider.offer(this);
     }
@@ -1,9 +1,11 @@
 package org.jenkinsci.test.acceptance.machine;
 
 import com.google.common.base.Predicate;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Module;
 import com.google.inject.Singleton;
@@ -36,6 +38,8 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
 import java.net.UnknownHostException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -62,14 +66,51 @@ public abstract class JcloudsMachineProvider implements MachineProvider,Closeabl
 
     private static final Set<String> supportedProviders = ImmutableSet.copyOf(Iterables.concat(appProviders.keySet(), allApis.keySet()));
 
+    /**
+     * Time to wait for sshd to accept authenticated connections.
+     */
+    private static final long SSH_TIMEOUT = TimeUnit.MINUTES.toMillis(2);
+
+    /**
+     * Time to wait for a batch of machines to become usable, including {@link #postStartupSetup(NodeMetadata)}.
+     */
+    private static final long SETUP_TIMEOUT = TimeUnit.MINUTES.toMillis(5);
+
+    private static final int SSH_PORT = 22;
+    private static final int CONNECT_TIMEOUT = 2000;
+    private static final long PROBE_INITIAL_DELAY = 250;
+    private static final long PROBE_MAX_DELAY = 10000;
+
     protected final ComputeService computeService;
 
     protected final ContextBuilder contextBuilder;
 
     private final String provider;
-    private volatile BlockingQueue<Machine> queue=null;
+
+    /**
+     * Machines ready to be handed out.
+     */
+    private final BlockingQueue<Machine> queue = new LinkedBlockingQueue<>();
     private final AtomicInteger provisionedMachineCount = new AtomicInteger();
 
+    /**
+     * Machines being provisioned in background, guarded by this.
+     */
+    private int provisioning;
+
+    /**
+     * Creation of the initial pool, guarded by this.
+     */
+    private Future<?> initialization;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("machine-provisioning-%d").setDaemon(true).build()
+    );
+
+    private final Latency provisioningLatency = new Latency();
+    private final Latency sshLatency = new Latency();
+    private final Latency setupLatency = new Latency();
+
     @Inject(optional = true)
     private SubWorld subworld;
 
@@ -81,13 +122,33 @@ public abstract class JcloudsMachineProvider implements MachineProvider,Closeabl
     @Named("minNumOfMachines")
     private int minNumOfMachines=1;
 
+    /**
+     * Number of idle machines to keep in the pool. Once taking a machine drops the pool below this, new ones are
+     * provisioned in background so the next test does not have to wait for the cloud. 0 turns this off.
+     */
+    @Inject(optional = true)
+    @Named("lowWatermarkOfMachines")
+    private int lowWatermark=0;
+
     @Inject(optional = true)
     @Named("terminateNodesOnExit")
     private boolean terminateNodesOnExit=false;
 
-
+    /**
+     * Machines handed out, by id.
+     */
     private final Map<String, Machine> machines = new ConcurrentHashMap<>();
 
+    /**
+     * Ids of all nodes this provider has turned into machines.
+     */
+    private final Set<String> nodeIds = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /**
+     * Set once {@link #close()} started, provisioning interrupted by it leaves the nodes alone.
+     */
+    private volatile boolean closed;
+
     protected JcloudsMachineProvider(String provider, String identity, String credential) {
         logger.info("Initializing JCloudMachineProvider...");
         if(!contains(supportedProviders, provider)){
@@ -101,33 +162,102 @@ public abstract class JcloudsMachineProvider implements MachineProvider,Closeabl
 
     @Override
     public Machine get() {
-        if(provisionedMachineCount.get() == 0){
-            initializeMachines();
-        }
-        if(queue.peek() != null){
-            return queue.poll();
-        }else{
-            //get a new machine
-            return createNewMachines(1, 1).iterator().next();
+        try {
+            return getAsync().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting for " + provider + " machine", e);
+        } catch (ExecutionException e) {
+            Throwables.propagateIfPossible(e.getCause());
+            throw new RuntimeException(e.getCause());
         }
     }
 
-    private void initializeMachines(){
-        BlockingQueue bq = queue;
-        if(bq == null){
-            synchronized (this){
-                bq = queue;
-                if(bq == null){
-                    queue = bq =  new LinkedBlockingQueue<>();
+    /**
+     * Get machine without blocking the caller while it is provisioned.
+     *
+     * The machine is taken from the pool if there is one idle, or a machine provisioned in background is waited for.
+     * A new machine is created on demand only when there is nothing to wait for.
+     */
+    public Future<Machine> getAsync() {
+        final Future<?> init = initialize();
+        return executor.submit(new Callable<Machine>() {
+            @Override
+            public Machine call() throws Exception {
+                init.get();
+
+                Machine m = queue.poll();
+                while (m == null && isProvisioning()) {
+                    m = queue.poll(1, TimeUnit.SECONDS);
+                }
+                if (m == null) {
+                    m = createNewMachines(1, 1).iterator().next();
                 }
+                machines.put(m.getId(), m);
+
+                replenish();
+                return m;
             }
+        });
+    }
+
+    /**
+     * Start creating the initial pool unless done already, retrying in case previous attempt failed.
+     */
+    private synchronized Future<?> initialize() {
+        if (initialization == null || failed(initialization)) {
+            initialization = executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    queue.addAll(createNewMachines(minNumOfMachines, maxNumOfMachines));
+                }
+            });
         }
-        Set<Machine> machines = createNewMachines(minNumOfMachines, maxNumOfMachines);
-        for(Machine m:machines){
-            queue.add(m);
+        return initialization;
+    }
+
+    private static boolean failed(Future<?> f) {
+        if (!f.isDone()) return false;
+        try {
+            f.get();
+            return false;
+        } catch (InterruptedException | ExecutionException | CancellationException e) {
+            return true;
         }
     }
 
+    private synchronized boolean isProvisioning() {
+        return provisioning > 0;
+    }
+
+    /**
+     * Provision machines in background so there are at least {@link #lowWatermark} idle ones.
+     */
+    private void replenish() {
+        final int missing;
+        synchronized (this) {
+            missing = lowWatermark - queue.size() - provisioning;
+            if (missing <= 0) return;
+            provisioning += missing;
+        }
+
+        logger.info(String.format("%s pool below %d idle machines, provisioning %d ahead", provider, lowWatermark, missing));
+        executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    queue.addAll(createNewMachines(1, missing));
+                } catch (RuntimeException e) {
+                    logger.warn(String.format("Failed to provision %s machines ahead", provider), e);
+                } finally {
+                    synchronized (JcloudsMachineProvider.this) {
+                        provisioning -= missing;
+                    }
+                }
+            }
+        });
+    }
+
 
     /**
      * Every provider should provide a group name under which the machines need to be created
@@ -152,19 +282,59 @@ public abstract class JcloudsMachineProvider implements MachineProvider,Closeabl
      */
     public abstract int[] getAvailableInboundPorts();
 
+    /**
+     * Wrap node that is up and set up into {@link Machine}.
+     */
+    protected Machine createMachine(NodeMetadata node) {
+        return new JcloudsMachine(this, node);
+    }
+
     public void offer(Machine m){
         logger.info(String.format("%s machine %s offered, will be recycled", provider, m.getId()));
-        Machine machine = machines.get(m.getId());
+        Machine machine = machines.remove(m.getId());
         if(machine != null){
-            machines.remove(m.getId());
             queue.add(machine);
         }else{
             throw new IllegalStateException("Did not find machine corresponding to offered id: "+m.getId());
         }
     }
 
+    /**
+     * Machines created so far, idle or not.
+     */
+    public int getProvisionedMachineCount() {
+        return provisionedMachineCount.get();
+    }
+
+    /**
+     * Time from asking the cloud for nodes until they are running.
+     */
+    public Latency getProvisioningLatency() {
+        return provisioningLatency;
+    }
+
+    /**
+     * Time from node running until sshd accepts connections.
+     */
+    public Latency getSshLatency() {
+        return sshLatency;
+    }
+
+    /**
+     * Time spent in {@link #postStartupSetup(NodeMetadata)}.
+     */
+    public Latency getSetupLatency() {
+        return setupLatency;
+    }
+
     @Override
     public void close() throws IOException {
+        closed = true;
+        executor.shutdownNow();
+        logger.info(String.format(
+                "%s machines: %d provisioned, provisioning %s, ssh %s, setup %s",
+                provider, provisionedMachineCount.get(), provisioningLatency, sshLatency, setupLatency
+        ));
         if(terminateNodesOnExit) {
             terminateAllNodes();
         }
@@ -189,54 +359,87 @@ public abstract class JcloudsMachineProvider implements MachineProvider,Closeabl
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+        // Nodes created by this call, the only ones to destroy on failure. Other nodes in the group can be in use.
+        Set<String> created = new HashSet<>();
         Set<? extends NodeMetadata> nodes;
         try {
-            nodes = getRunningInstances();
+            nodes = getRunningInstances(maxNumOfMachines);
             if(nodes.isEmpty()) { //get new ones
                 logger.info(String.format("No running instances found, create %s new machines",maxNumOfMachines));
+                long start = System.nanoTime();
                 nodes = computeService.createNodesInGroup(getGroupName(), maxNumOfMachines, template);
+                provisioningLatency.record(System.nanoTime() - start, nodes.size());
+                created.addAll(ids(nodes));
             }
         } catch (RunNodesException e) {
-            logger.error(String.format("%s out of %s machines provisioned.",e.getSuccessfulNodes().size()));
             int numSuccessfulMachines = e.getSuccessfulNodes().size();
+            logger.error(String.format("%s out of %s machines provisioned.", numSuccessfulMachines, maxNumOfMachines));
             if(numSuccessfulMachines < minNumOfMachines){
-                logger.error("Requested minimum of %s machines, got %s. Aborting, all provisioned machines will be terminated", minNumOfMachines,numSuccessfulMachines);
-                terminateAllNodes();
+                logger.error("Requested minimum of {} machines, got {}. Aborting, machines provisioned by this request will be terminated", minNumOfMachines,numSuccessfulMachines);
+                created.addAll(ids(e.getSuccessfulNodes()));
+                created.addAll(ids(e.getNodeErrors().keySet()));
+                destroyNodes(created);
                 throw new RuntimeException(e);
             }
             nodes = e.getSuccessfulNodes();
+            created.addAll(ids(nodes));
         }
 
-        /** Now, wait till machine is up with sshd and  {@link MachineProvider}s have finished any post boot up steps
-         *  TODO make it configurable
-         */
-        ExecutorService executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-
-        for(NodeMetadata node:nodes){
-            executorService.submit(new MachineSanitizer(node));
+        // Now, wait till machine is up with sshd and {@link MachineProvider}s have finished any post boot up steps
+        List<NodeMetadata> candidates = new ArrayList<>(nodes);
+        List<Callable<NodeMetadata>> sanitizers = new ArrayList<>();
+        for(NodeMetadata node:candidates){
+            sanitizers.add(new MachineSanitizer(node));
         }
 
+        List<Future<NodeMetadata>> sanitized;
         try {
-            executorService.shutdown();
-            executorService.awaitTermination(2, TimeUnit.MINUTES);
+            sanitized = executor.invokeAll(sanitizers, SETUP_TIMEOUT, TimeUnit.MILLISECONDS);
         } catch (InterruptedException e) {
-            terminateAllNodes();
+            Thread.currentThread().interrupt();
+            if (closed) {
+                // Shutting down, nodes are terminated by close() if configured so
+                throw new RuntimeException("Interrupted setting up machines by shutdown", e);
+            }
+            destroyNodes(created);
             throw new RuntimeException("Failed to setup machines. ",e);
         }
 
-        provisionedMachineCount.set(provisionedMachineCount.get()+nodes.size());
-
         Set<Machine> newMachines = new HashSet<>();
-        for(NodeMetadata node:nodes){
-            Machine m = new JcloudsMachine(this,node);
-            machines.put(node.getId(),m);
-            newMachines.add(m);
+        List<String> usable = new ArrayList<>();
+        for (int i = 0; i < sanitized.size(); i++) {
+            NodeMetadata node = candidates.get(i);
+            try {
+                sanitized.get(i).get();
+            } catch (InterruptedException | ExecutionException | CancellationException e) {
+                // Destroyed by the sanitizer, or timed out
+                if (e instanceof CancellationException) {
+                    logger.error(String.format("Machine %s was not set up in time, this node will be destroyed.", node.getId()));
+                    computeService.destroyNode(node.getId());
+                }
+                continue;
+            }
+            usable.add(node.getId());
+            newMachines.add(createMachine(node));
         }
 
+        if (newMachines.size() < minNumOfMachines) {
+            destroyNodes(created);
+            throw new RuntimeException(String.format(
+                    "Requested minimum of %s %s machines, only %s are usable", minNumOfMachines, provider, newMachines.size()
+            ));
+        }
+
+        nodeIds.addAll(usable);
+
+        provisionedMachineCount.addAndGet(newMachines.size());
         return newMachines;
     }
 
-    private Set<NodeMetadata> getRunningInstances(){
+    /**
+     * Running nodes in our group that are not used by this provider already, left from previous runs.
+     */
+    private Set<NodeMetadata> getRunningInstances(int max){
         logger.info(String.format("Check if we already got running machines in the security group: %s... ", getGroupName()));
         Set<? extends NodeMetadata> nodeMetadatas = computeService.listNodesDetailsMatching(new Predicate<ComputeMetadata>() {
             @Override
@@ -247,7 +450,8 @@ public abstract class JcloudsMachineProvider implements MachineProvider,Closeabl
 
         Set<NodeMetadata> filteredNodes = new HashSet<>();
         for(NodeMetadata nm:nodeMetadatas){
-            if(getGroupName().equals(nm.getGroup()) && nm.getStatus() == NodeMetadata.Status.RUNNING){
+            if (filteredNodes.size() >= max) break;
+            if(getGroupName().equals(nm.getGroup()) && nm.getStatus() == NodeMetadata.Status.RUNNING && !nodeIds.contains(nm.getId())){
                 logger.info(String.format("Found running machine: %s",getGroupName()));
                 filteredNodes.add(nm);
             }
@@ -259,6 +463,24 @@ public abstract class JcloudsMachineProvider implements MachineProvider,Closeabl
         computeService.destroyNodesMatching(inGroup(getGroupName()));
     }
 
+    private void destroyNodes(final Set<String> ids) {
+        if (ids.isEmpty()) return;
+        computeService.destroyNodesMatching(new Predicate<NodeMetadata>() {
+            @Override
+            public boolean apply(NodeMetadata node) {
+                return ids.contains(node.getId());
+            }
+        });
+    }
+
+    private static Set<String> ids(Iterable<? extends NodeMetadata> nodes) {
+        Set<String> ids = new HashSet<>();
+        for (NodeMetadata node : nodes) {
+            ids.add(node.getId());
+        }
+        return ids;
+    }
+
 
     private ContextBuilder initComputeService(String provider, String identity, String credential) {
         Iterable<Module> modules = ImmutableSet.<Module>of(
@@ -275,42 +497,56 @@ public abstract class JcloudsMachineProvider implements MachineProvider,Closeabl
         return contextBuilder;
     }
 
-    private void waitForSsh(String user, String host){
-        int timeout = 120000; //2 minute
-        long startTime = System.currentTimeMillis();
+    /**
+     * Wait for sshd of the node to accept authenticated connections.
+     *
+     * Cheap TCP connects are used to find out the daemon is listening, backing off exponentially, before
+     * authenticating.
+     */
+    protected void waitForSsh(NodeMetadata node) throws InterruptedException {
+        String host = node.getPublicAddresses().iterator().next();
+        logger.info(String.format("Making sure sshd is up on host: %s ",host));
+
+        long deadline = System.currentTimeMillis() + SSH_TIMEOUT;
+        long delay = PROBE_INITIAL_DELAY;
         while(true){
-            logger.info(String.format("Making sure sshd is up on host: %s ",host));
             try {
-                if(System.currentTimeMillis() - startTime > timeout){
-                    throw new RuntimeException(String.format("ssh failed to work within %s seconds.",timeout/1000));
+                try (Socket socket = new Socket()) {
+                    socket.connect(new InetSocketAddress(host, SSH_PORT), CONNECT_TIMEOUT);
                 }
+                // Listening does not mean it authenticates already
                 try (Ssh ssh = new Ssh(host)) {
                     authenticator().authenticate(ssh.getConnection());
-                    logger.info("sshd is ready on host: " + host);
                 }
+                logger.info("sshd is ready on host: " + host);
                 return;
             } catch (IOException e) {
-                try {
-                    Thread.sleep(10000); //sleep 10 sec
-                } catch (InterruptedException e1) {
-                    logger.error(e.getMessage(), e);
-                    return; //exit from this loop
+                if(System.currentTimeMillis() + delay > deadline){
+                    throw new RuntimeException(String.format("ssh failed to work within %s seconds.", SSH_TIMEOUT/1000), e);
                 }
+                Thread.sleep(delay);
+                delay = Math.min(delay * 2, PROBE_MAX_DELAY);
             }
         }
     }
 
-    private class MachineSanitizer implements Runnable{
+    private class MachineSanitizer implements Callable<NodeMetadata> {
         private final NodeMetadata node;
         private MachineSanitizer(NodeMetadata node) {
             this.node = node;
         }
 
         @Override
-        public void run() {
+        public NodeMetadata call() {
             try{
-                waitForSsh(getUserName(node), node.getPublicAddresses().iterator().next()); //wait for ssh to be ready
+                long start = System.nanoTime();
+                waitForSsh(node); //wait for ssh to be ready
+                sshLatency.record(System.nanoTime() - start, 1);
+
+                start = System.nanoTime();
                 postStartupSetup(node);
+                setupLatency.record(System.nanoTime() - start, 1);
+                return node;
             }catch (Exception e){
                 String msg = String.format("There was problem in setting up machine: %s, this node will be destroyed.",node.getId());
                 logger.error(msg ,e);
@@ -320,6 +556,42 @@ public abstract class JcloudsMachineProvider implements MachineProvider,Closeabl
         }
     }
 
+    /**
+     * Accumulated duration of a provisioning phase.
+     */
+    public static final class Latency {
+        private long count;
+        private long total;
+        private long max;
+
+        private synchronized void record(long nanos, int machines) {
+            if (machines == 0) return;
+            count += machines;
+            total += nanos * machines;
+            max = Math.max(max, nanos);
+        }
+
+        /**
+         * Number of machines measured.
+         */
+        public synchronized long getCount() {
+            return count;
+        }
+
+        public synchronized long getAverage(TimeUnit unit) {
+            return count == 0 ? 0 : unit.convert(total / count, TimeUnit.NANOSECONDS);
+        }
+
+        public synchronized long getMax(TimeUnit unit) {
+            return unit.convert(max, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format("avg %d ms max %d ms (%d)", getAverage(TimeUnit.MILLISECONDS), getMax(TimeUnit.MILLISECONDS), count);
+        }
+    }
+
     public static String getGroupName(String seed){
         try {
             MessageDigest md = MessageDigest.getInstance("MD5");
@@ -374,10 +646,6 @@ public abstract class JcloudsMachineProvider implements MachineProvider,Closeabl
         }
     }
 
-    private String getUserName(NodeMetadata node){
-        return (node.getCredentials() == null) ? "ubuntu" : node.getCredentials().getUser();
-    }
-
 //    private static final String EC2_INSTANCE_LOG=System.getProperty("user.home")
 
     private static final Logger logger = LoggerFactory.getLogger(MachineProvider.class);
@@ -9,8 +9,10 @@ import org.jenkinsci.test.acceptance.Ssh;
 import org.jenkinsci.test.acceptance.SshKeyPair;
 import org.jenkinsci.test.acceptance.guice.TestCleaner;
 import org.jenkinsci.test.acceptance.guice.TestScope;
+import org.jenkinsci.test.acceptance.resolver.ArtifactStore;
 import org.jenkinsci.test.acceptance.resolver.JenkinsResolver;
 import org.jenkinsci.test.acceptance.resolver.PluginDownloader;
+import org.jenkinsci.test.acceptance.resolver.StoredResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,6 +43,9 @@ public class RemoteJenkinsProvider extends JenkinsProvider {
     @Inject
     private Injector injector;
 
+    @Inject
+    private ArtifactStore store;
+
     @Inject
     public RemoteJenkinsProvider(MachineProvider provider, JenkinsResolver jenkinsResolver, SshKeyPair keyPair) {
         this.machineProvider = provider;
@@ -65,9 +70,13 @@ public class RemoteJenkinsProvider extends JenkinsProvider {
 
     private JenkinsController createNewJenkinsController(){
         Machine machine = machineProvider.get();
+        String path = JenkinsResolver.JENKINS_TEMP_DIR+"form-element-path.hpi";
         try{
-            //install jenkins WAR
-            jenkinsResolver.materialize(machine, jenkinsWar);
+            //install jenkins WAR and form-path-element plugin in one go
+            ArtifactStore.Batch batch = store.batch(machine);
+            materialize(batch, jenkinsResolver, jenkinsWar);
+            new PluginDownloader("form-element-path").materialize(batch, path);
+            batch.materialize();
         }catch(Exception e){
             logger.error("Error during setting up Jenkins: "+e.getMessage(),e);
             throw new AssertionError(e);
@@ -75,18 +84,21 @@ public class RemoteJenkinsProvider extends JenkinsProvider {
 
         String jenkinsHome = machine.dir()+newJenkinsHome()+"/";
         String pluginDir = jenkinsHome +"plugins/";
-        String path = JenkinsResolver.JENKINS_TEMP_DIR+"form-element-path.hpi";
 
-        //install form-path-element plugin
-        new PluginDownloader("form-element-path").materialize(machine, path);
         try (Ssh ssh = machine.connect()) {
-            ssh.executeRemoteCommand("mkdir -p " + pluginDir);
-
-            ssh.executeRemoteCommand(String.format("cp %s %s", path, pluginDir));
+            ssh.executeRemoteCommands("mkdir -p " + pluginDir, String.format("cp %s %s", path, pluginDir));
         }
         return new RemoteJenkinsController(injector, machine, jenkinsHome,jenkinsWar,privateKeyFile);
     }
 
+    private static void materialize(ArtifactStore.Batch batch, JenkinsResolver resolver, String path) {
+        if (resolver instanceof StoredResolver) {
+            ((StoredResolver) resolver).materialize(batch, path);
+        } else {
+            resolver.materialize(batch.getMachine(), path);
+        }
+    }
+
     private String newJenkinsHome(){
         return String.format("jenkins_home_%s", JcloudsMachine.newDirSuffix());
     }
@@ -1,6 +1,7 @@
 package org.jenkinsci.test.acceptance.machine;
 
 import org.jenkinsci.test.acceptance.Ssh;
+import org.jenkinsci.test.acceptance.SshPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,6 +28,7 @@ public class SimpleMachine implements Machine {
 
     private final Stack<Integer> availablePorts = new Stack<>();
 
+    private final SshPool sshPool;
 
     public SimpleMachine(SimpleMachineProvider machineProvider, String id, String ipAddress, String user) {
         this.machineProvider = machineProvider;
@@ -36,6 +38,7 @@ public class SimpleMachine implements Machine {
             availablePorts.push(port);
         }
         this.user = user;
+        this.sshPool = new SshPool(ipAddress, machineProvider.authenticator());
 
         try (Ssh ssh = connect()) {
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
@@ -54,16 +57,10 @@ public class SimpleMachine implements Machine {
 
     @Override
     public Ssh connect() {
-        Ssh ssh = null;
         try {
-            ssh = new Ssh(getPublicIpAddress());
-            machineProvider.authenticator().authenticate(ssh.getConnection());
-            return ssh;
+            return sshPool.connect();
         } catch (IOException e) {
-            if (ssh != null) {
-                ssh.close();
-            }
-            throw new AssertionError("Failed to create ssh connection",e);
+            throw new AssertionError("Failed to create ssh connection", e);
         }
     }
 
@@ -93,7 +90,7 @@ public class SimpleMachine implements Machine {
 
     @Override
     public void close() throws IOException {
-        //To change body of implemented methods use File | Settings | File Templates.
+        sshPool.evict();
     }
 
     public static long newDirSuffix() {
@@ -5,7 +5,12 @@ import java.net.URL;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.regex.Pattern;
 
 import org.apache.commons.io.IOUtils;
@@ -13,6 +18,7 @@ import org.hamcrest.Description;
 import org.jenkinsci.test.acceptance.Matcher;
 import org.jenkinsci.test.acceptance.Matchers;
 import org.jenkinsci.test.acceptance.junit.Wait;
+import org.openqa.selenium.NoSuchElementException;
 import com.fasterxml.jackson.databind.JsonNode;
 
 import static org.hamcrest.CoreMatchers.*;
@@ -24,6 +30,15 @@ import static org.jenkinsci.test.acceptance.Matchers.pageObjectExists;
  * @author Kohsuke Kawaguchi
  */
 public class Build extends ContainerPageObject {
+    private static final Logger LOGGER = Logger.getLogger(Build.class.getName());
+
+    /**
+     * Milliseconds to reuse the facts about finished build for.
+     *
+     * Permalinks like <tt>lastBuild</tt> can point to other build later so they can not be kept forever.
+     */
+    private static final long FACTS_TTL = 5000;
+
     public enum Result {SUCCESS, UNSTABLE, FAILURE, ABORTED, NOT_BUILT}
 
     public final Job job;
@@ -98,6 +113,7 @@ public class Build extends ContainerPageObject {
     }
 
     public Build waitUntilFinished(int timeout) {
+        long started = System.currentTimeMillis();
         // Strictly speaking we should reduce the timeout for completion by the time we waited for build to start.
         waitUntilStarted(timeout);
 
@@ -105,8 +121,23 @@ public class Build extends ContainerPageObject {
         // one can see what the build is doing
         visit("console");
 
+        // Get notified as soon as the build ends, polling the JSON in case it can not be determined that way
+        int pollingTimeout = timeout;
+        Future<Build> completion = BuildCompletionNotifier.follow(this);
+        try {
+            completion.get(time.seconds(timeout), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            LOGGER.log(Level.FINE, "Unable to follow console of " + this, e.getCause());
+        } catch (TimeoutException e) {
+            completion.cancel(true);
+            pollingTimeout = 1; // Only to report the failure
+        } catch (InterruptedException e) {
+            completion.cancel(true);
+            throw new Error(e);
+        }
+
         waitFor().withMessage("Build %s is finished", this)
-                .withTimeout(timeout, TimeUnit.SECONDS)
+                .withTimeout(pollingTimeout, TimeUnit.SECONDS)
                 .until(new Wait.Predicate<Boolean>() {
                     @Override
                     public Boolean apply() throws Exception {
@@ -118,6 +149,7 @@ public class Build extends ContainerPageObject {
                         return "Console output:\n" + Build.this.getConsole() + "\n";
                     }
         });
+        BuildCompletionNotifier.recordWait(this, System.currentTimeMillis() - started);
         return this;
     }
 
@@ -129,12 +161,29 @@ public class Build extends ContainerPageObject {
             return false;
         }
 
-        JsonNode d = getJson();
+        JsonNode d = getJsonFields("building", "result");
         return d.get("building").booleanValue() || d.get("result") == null;
     }
 
     public int getNumber() {
-        return getJson().get("number").asInt();
+        return getFacts().get("number").asInt();
+    }
+
+    /**
+     * Number, result and display name, that do not change once the build is finished.
+     */
+    private JsonNode getFacts() {
+        if (result == null) {
+            return getJsonFields("number", "result", "fullDisplayName");
+        }
+
+        try {
+            return injector.getInstance(JsonApiClient.class).getCached(
+                    getJsonApiUrl(), FACTS_TTL, "number", "result", "fullDisplayName"
+            );
+        } catch (IOException e) {
+            throw new NoSuchElementException("Failed to read from " + getJsonApiUrl(), e);
+        }
     }
 
     public URL getConsoleUrl() {
@@ -192,7 +241,7 @@ public class Build extends ContainerPageObject {
         }
 
         waitUntilFinished();
-        result = Result.valueOf(getJson().get("result").asText());
+        result = Result.valueOf(getJsonFields("result").get("result").asText());
         return result.name();
     }
 
@@ -313,7 +362,7 @@ public class Build extends ContainerPageObject {
         // way to access its full name. The default implementation assumes that
         // POs are equal iff they share the same URL which is not true for jobs inside view.
         // return getNumber() == rhs.getNumber() && job.equals(rhs.job);
-        return getJson().get("fullDisplayName").equals(rhs.getJson().get("fullDisplayName"));
+        return getFacts().get("fullDisplayName").equals(rhs.getFacts().get("fullDisplayName"));
     }
 
     @Override
@@ -0,0 +1,108 @@
+package org.jenkinsci.test.acceptance.po;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import org.jenkinsci.test.acceptance.po.JsonApiClient.ProgressiveText;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Notices the end of a {@link Build} by following its progressive console output.
+ *
+ * <p>
+ * Jenkins sends <tt>X-More-Data</tt> header for as long as the build log can grow, so the build is over as soon as
+ * the header is missing. Only the log increment since the last request is transferred, which is considerably cheaper
+ * for Jenkins than rendering the whole build JSON over and over.
+ *
+ * <p>
+ * Time spent waiting for builds is accumulated so it can be seen how much of the run is spent there.
+ */
+final class BuildCompletionNotifier implements Callable<Build> {
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("Build completion notifier %d").build()
+    );
+
+    /**
+     * Delay between requests when the log keeps growing.
+     */
+    private static final long MIN_DELAY = 100;
+    /**
+     * Delay between requests when there was no output for a while.
+     */
+    private static final long MAX_DELAY = 1000;
+
+    private static final AtomicLong WAIT_MILLIS = new AtomicLong();
+    private static final AtomicInteger WAITS = new AtomicInteger();
+
+    private final Build build;
+    private final JsonApiClient client;
+    private final URL url;
+    private final long start;
+
+    private BuildCompletionNotifier(Build build, JsonApiClient client, URL url, long start) {
+        this.build = build;
+        this.client = client;
+        this.url = url;
+        this.start = start;
+    }
+
+    /**
+     * Start following the build.
+     *
+     * @return Future that completes when the build is done, or fails when the console can not be followed.
+     */
+    public static Future<Build> follow(Build build) {
+        JsonApiClient client = build.injector.getInstance(JsonApiClient.class);
+        URL url = build.url("logText/progressiveText");
+
+        // Read in the calling thread first, so the client picks up the session as the driver is not thread safe
+        ProgressiveText text;
+        try {
+            text = client.getProgressiveText(url, 0);
+        } catch (IOException e) {
+            return Futures.immediateFailedFuture(e);
+        }
+        if (!text.hasMore()) return Futures.immediateFuture(build);
+
+        return EXECUTOR.submit(new BuildCompletionNotifier(build, client, url, text.getSize()));
+    }
+
+    @Override
+    public Build call() throws IOException, InterruptedException {
+        long start = this.start;
+        long delay = MIN_DELAY;
+        while (true) {
+            Thread.sleep(delay);
+
+            ProgressiveText text = client.getProgressiveText(url, start);
+            if (!text.hasMore()) return build;
+
+            long end = text.getSize();
+            delay = end > start ? MIN_DELAY : Math.min(delay * 2, MAX_DELAY);
+            start = end;
+        }
+    }
+
+    /**
+     * Account time spent waiting for build completion.
+     */
+    /*package*/ static void recordWait(Build build, long millis) {
+        long total = WAIT_MILLIS.addAndGet(millis);
+        int count = WAITS.incrementAndGet();
+        LOGGER.info(String.format(
+                "Waited %d ms for %s to finish. %d ms spent in %d waits for builds so far",
+                millis, build, total, count
+        ));
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(BuildCompletionNotifier.class.getName());
+}
@@ -118,12 +118,15 @@ public class CapybaraPortingLayerImpl implements CapybaraPortingLayer {
     /**
      * Default waiting object configured with default timing.
      *
+     * Polls after 50 ms at first and backs off up to a second, so quick conditions are noticed right away and the
+     * long ones do not keep the browser busy.
+     *
      * @see {@link Wait}
      */
     @Override
     public <T> Wait<T> waitFor(T subject) {
         return new Wait<T>(subject, time)
-                .pollingEvery(500, TimeUnit.MILLISECONDS)
+                .withBackoff(50, 1000, TimeUnit.MILLISECONDS)
                 .withTimeout(120, TimeUnit.SECONDS)
         ;
     }
@@ -1,14 +1,12 @@
 package org.jenkinsci.test.acceptance.po;
 
 import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import org.apache.commons.lang3.StringUtils;
 import org.openqa.selenium.By;
 import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.WebElement;
@@ -62,12 +60,7 @@ public abstract class ContainerPageObject extends ConfigurablePageObject {
                 url = new URL(url + "?" + queryString);
             }
 
-            // Pass in all the cookies (in particular the session cookie.)
-            // This ensures that the API call sees what the current user sees.
-            HttpURLConnection con = (HttpURLConnection) url.openConnection();
-            con.setRequestProperty("Cookie", StringUtils.join(driver.manage().getCookies(), ";"));
-
-            return jsonParser.readTree(con.getInputStream());
+            return injector.getInstance(JsonApiClient.class).get(url);
         } catch (MalformedURLException e) {
             throw new Error(e);
         } catch (IOException e) {
@@ -75,6 +68,20 @@ public abstract class ContainerPageObject extends ConfigurablePageObject {
         }
     }
 
+    /**
+     * Obtain only given top-level fields of JSON representation.
+     *
+     * Cheaper than {@link #getJson()} for both Jenkins and the test when only a couple of values is needed.
+     */
+    public JsonNode getJsonFields(String... fields) {
+        URL url = getJsonApiUrl();
+        try {
+            return injector.getInstance(JsonApiClient.class).get(url, fields);
+        } catch (IOException e) {
+            throw new NoSuchElementException("Failed to read from " + url, e);
+        }
+    }
+
     /**
      * Create action of this page object.
      *
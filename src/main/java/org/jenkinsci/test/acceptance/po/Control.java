@@ -1,11 +1,17 @@
 package org.jenkinsci.test.acceptance.po;
 
+import org.jenkinsci.test.acceptance.ByFactory.ByPath;
 import org.jenkinsci.test.acceptance.junit.Resource;
 import org.openqa.selenium.*;
 
 import com.google.inject.Injector;
 import org.openqa.selenium.support.ui.Select;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.CheckForNull;
+import javax.inject.Inject;
 import javax.annotation.Nullable;
 
 /**
@@ -27,10 +33,20 @@ public class Control extends CapybaraPortingLayerImpl {
     private final Owner parent;
     private final String[] relativePaths;
 
+    /**
+     * Area to resolve together with, if any.
+     */
+    private final PageAreaImpl area;
+
+    @Inject @Nullable
+    private ControlResolver resolver;
+
     public Control(PageAreaImpl parent, String... relativePaths) {
         super(parent.injector);
         this.parent = parent;
         this.relativePaths = relativePaths;
+        this.area = parent;
+        parent.addControl(this, relativePaths);
     }
 
     /**
@@ -45,6 +61,7 @@ public class Control extends CapybaraPortingLayerImpl {
             }
         };
         this.relativePaths = paths;
+        this.area = null;
     }
 
     public Control(Injector injector, final By selector) {
@@ -56,13 +73,29 @@ public class Control extends CapybaraPortingLayerImpl {
                 return selector;
             }
         };
+        this.area = null;
     }
 
+    /**
+     * Find the first visible element of the candidate paths.
+     *
+     * Controls created by {@link PageAreaImpl} are resolved in the browser together with the other controls of
+     * the area, see {@link ControlResolver}.
+     */
     public WebElement resolve() {
+        if (resolver != null) {
+            WebElement e = resolver.resolve(this, area);
+            if (e != null) return e;
+        }
+
         NoSuchElementException problem = new NoSuchElementException("No relative path specified!");
         for (String p : relativePaths) {
             try {
-                return find(parent.path(p));
+                WebElement e = find(parent.path(p));
+                if (resolver != null) {
+                    resolver.found(this, e);
+                }
+                return e;
             }
             catch (NoSuchElementException e) {
                 problem = e;
@@ -71,24 +104,76 @@ public class Control extends CapybaraPortingLayerImpl {
         throw problem;
     }
 
-    public void sendKeys(String t) {
-        resolve().sendKeys(t);
+    /**
+     * Run the action on the element, resolving it again once if it turns out to be replaced since it was cached.
+     */
+    private <T> T withElement(ElementAction<T> action) {
+        WebElement e = resolve();
+        try {
+            return action.apply(e);
+        } catch (StaleElementReferenceException x) {
+            if (resolver == null) throw x;
+            // Replaced by a script or a timer on the page, the resolver does not see that happen
+            resolver.invalidate();
+            return action.apply(resolve());
+        }
+    }
+
+    private static abstract class ElementAction<T> {
+        abstract T apply(WebElement e);
+    }
+
+    /**
+     * Absolute form element paths of the candidates.
+     *
+     * @return null in case the control is not located by path.
+     */
+    /*package*/ @CheckForNull List<String> paths() {
+        if (relativePaths.length == 0) return null;
+
+        List<String> paths = new ArrayList<>(relativePaths.length);
+        for (String p : relativePaths) {
+            By selector = parent.path(p);
+            if (!(selector instanceof ByPath)) return null;
+
+            paths.add(((ByPath) selector).getPath());
+        }
+        return paths;
+    }
+
+    public void sendKeys(final String t) {
+        withElement(new ElementAction<Void>() {
+            @Override Void apply(WebElement e) {
+                e.sendKeys(t);
+                return null;
+            }
+        });
     }
 
     public void uncheck() {
-        check(resolve(), false);
+        check(false);
     }
 
     public void check() {
-        check(resolve(), true);
+        check(true);
     }
 
-    public void check(boolean state) {
-        check(resolve(), state);
+    public void check(final boolean state) {
+        withElement(new ElementAction<Void>() {
+            @Override Void apply(WebElement e) {
+                check(e, state);
+                return null;
+            }
+        });
     }
 
     public void click() {
-        resolve().click();
+        withElement(new ElementAction<Void>() {
+            @Override Void apply(WebElement e) {
+                e.click();
+                return null;
+            }
+        });
     }
 
     /**
@@ -106,10 +191,14 @@ public class Control extends CapybaraPortingLayerImpl {
      * @param text the large string to be entered
      */
 
-    public void setAtOnce(String text){
-        WebElement e = resolve();
-        e.clear();
-        ((JavascriptExecutor)driver).executeScript("arguments[0].value = arguments[1];", e, text);
+    public void setAtOnce(final String text){
+        withElement(new ElementAction<Void>() {
+            @Override Void apply(WebElement e) {
+                e.clear();
+                ((JavascriptExecutor)driver).executeScript("arguments[0].value = arguments[1];", e, text);
+                return null;
+            }
+        });
     }
 
 
@@ -118,14 +207,18 @@ public class Control extends CapybaraPortingLayerImpl {
      *
      * Any existing value gets cleared.
      */
-    public void set(@Nullable String text) {
+    public void set(@Nullable final String text) {
         //if the text is longer than 255 characters, use the high throughput variant
         if (text!=null && text.length() > 255)
             setAtOnce(text);
         else {
-            WebElement e = resolve();
-            e.clear();
-            e.sendKeys(text);
+            withElement(new ElementAction<Void>() {
+                @Override Void apply(WebElement e) {
+                    e.clear();
+                    e.sendKeys(text);
+                    return null;
+                }
+            });
         }
     }
 
@@ -265,7 +358,11 @@ public class Control extends CapybaraPortingLayerImpl {
     }
 
     public String text() {
-        return resolve().getText();
+        return withElement(new ElementAction<String>() {
+            @Override String apply(WebElement e) {
+                return e.getText();
+            }
+        });
     }
 
     /**
@@ -0,0 +1,202 @@
+package org.jenkinsci.test.acceptance.po;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import javax.annotation.CheckForNull;
+import javax.inject.Inject;
+
+import org.jenkinsci.test.acceptance.guice.AutoCleaned;
+import org.jenkinsci.test.acceptance.guice.TestScope;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.internal.WrapsElement;
+import org.openqa.selenium.support.events.AbstractWebDriverEventListener;
+import org.openqa.selenium.support.events.EventFiringWebDriver;
+
+/**
+ * Resolves {@link Control}s of a {@link PageAreaImpl} in the browser all at once.
+ *
+ * <p>
+ * Finding a visible element the usual way takes a round trip to find the candidates and another one to check
+ * the visibility of each. Instead, the first control of an area that is needed resolves the paths of all the
+ * controls the area has created in a single script. The elements are cached for as long as the page stays the same,
+ * that is until the browser navigates somewhere, something is clicked, or the page is found to be reloaded.
+ * Element replaced by a script or a timer in the meantime is found to be stale by {@link Control} on use, which then
+ * invalidates the cache and resolves it again.
+ *
+ * <p>
+ * Controls that are not found by the script are left for {@link CapybaraPortingLayerImpl#find(org.openqa.selenium.By)}
+ * to wait for.
+ */
+@TestScope
+public class ControlResolver implements AutoCleaned {
+    /**
+     * Maximal number of controls resolved in one script.
+     */
+    private static final int BATCH_SIZE = 200;
+
+    private static final String SCRIPT = ""
+            + "var token = window.__athControlResolver || (window.__athControlResolver = String(Math.random()));"
+            + "var byPath = {};"
+            + "var all = document.querySelectorAll('[path]');"
+            + "for (var i = 0; i < all.length; i++) {"
+            + "  var p = all[i].getAttribute('path');"
+            + "  (byPath[p] || (byPath[p] = [])).push(all[i]);"
+            + "}"
+            + "function visible(e) {"
+            + "  if (!(e.offsetWidth || e.offsetHeight || e.getClientRects().length)) return false;"
+            + "  var style = window.getComputedStyle(e);"
+            + "  return style.visibility != 'hidden' && style.visibility != 'collapse' && style.opacity != '0';"
+            + "}"
+            + "function first(paths) {"
+            + "  for (var i = 0; i < paths.length; i++) {"
+            + "    var candidates = byPath[paths[i]] || [];"
+            + "    for (var j = 0; j < candidates.length; j++) {"
+            + "      if (visible(candidates[j])) return candidates[j];"
+            + "    }"
+            + "  }"
+            + "  return null;"
+            + "}"
+            + "var ret = [token];"
+            + "var controls = arguments[0];"
+            + "for (var i = 0; i < controls.length; i++) ret.push(first(controls[i]));"
+            + "return ret;"
+    ;
+
+    private final WebDriver driver;
+
+    /**
+     * Resolved elements by the paths of the control. Null for controls the script did not find.
+     */
+    private final Map<List<String>, WebElement> cache = new HashMap<>();
+    private String pageToken;
+
+    /**
+     * Turned off in case the elements returned from the script would bypass the listeners of the driver.
+     */
+    private boolean enabled = true;
+
+    private int hits;
+    private int batches;
+    private int resolved;
+
+    @Inject
+    public ControlResolver(WebDriver driver) {
+        this.driver = driver;
+
+        if (driver instanceof EventFiringWebDriver) {
+            ((EventFiringWebDriver) driver).register(new PageChangeListener());
+        }
+    }
+
+    /**
+     * Get the element of the control from the batch.
+     *
+     * @return null when the control can not be batched or it was not found.
+     */
+    /*package*/ synchronized @CheckForNull WebElement resolve(Control control, @CheckForNull PageAreaImpl area) {
+        if (!enabled) return null;
+
+        List<String> paths = control.paths();
+        if (paths == null) return null;
+
+        if (cache.containsKey(paths)) {
+            hits++;
+            return cache.get(paths);
+        }
+
+        Set<List<String>> batch = new LinkedHashSet<>();
+        batch.add(paths);
+        if (area != null) {
+            for (Control sibling : area.getControls()) {
+                if (batch.size() >= BATCH_SIZE) break;
+
+                List<String> p = sibling.paths();
+                if (p != null && !cache.containsKey(p)) {
+                    batch.add(p);
+                }
+            }
+        }
+
+        List<List<String>> args = new ArrayList<>(batch);
+        List<?> ret = (List<?>) ((JavascriptExecutor) driver).executeScript(SCRIPT, args);
+        batches++;
+
+        String token = (String) ret.get(0);
+        if (!token.equals(pageToken)) {
+            // Reloaded, nothing cached is valid anymore
+            cache.clear();
+            pageToken = token;
+        }
+        for (int i = 0; i < args.size(); i++) {
+            WebElement e = (WebElement) ret.get(i + 1);
+            if (e != null && driver instanceof EventFiringWebDriver && !(e instanceof WrapsElement)) {
+                LOGGER.warning("Elements returned by scripts are not wrapped by the driver, resolving controls one by one");
+                enabled = false;
+                cache.clear();
+                return null;
+            }
+            cache.put(args.get(i), e);
+            if (e != null) resolved++;
+        }
+        return cache.get(paths);
+    }
+
+    /**
+     * Remember element found by other means.
+     */
+    /*package*/ synchronized void found(Control control, WebElement element) {
+        List<String> paths = control.paths();
+        if (paths != null && pageToken != null) {
+            cache.put(paths, element);
+        }
+    }
+
+    public synchronized void invalidate() {
+        cache.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (batches > 0) {
+            LOGGER.info(String.format(
+                    "Resolved %d controls in %d scripts, %d lookups served from cache", resolved, batches, hits
+            ));
+        }
+    }
+
+    /**
+     * Forget the elements once the browser did something that can replace the page.
+     */
+    private final class PageChangeListener extends AbstractWebDriverEventListener {
+        @Override
+        public void afterNavigateTo(String url, WebDriver driver) {
+            invalidate();
+        }
+
+        @Override
+        public void afterNavigateBack(WebDriver driver) {
+            invalidate();
+        }
+
+        @Override
+        public void afterNavigateForward(WebDriver driver) {
+            invalidate();
+        }
+
+        @Override
+        public void afterClickOn(WebElement element, WebDriver driver) {
+            invalidate();
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(ControlResolver.class.getName());
+}
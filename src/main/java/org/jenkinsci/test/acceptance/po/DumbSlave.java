@@ -2,8 +2,16 @@ package org.jenkinsci.test.acceptance.po;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.SystemUtils;
+import org.jenkinsci.test.acceptance.controller.JenkinsController;
+import org.jenkinsci.test.acceptance.controller.LocalController;
 import org.jenkinsci.test.acceptance.slave.SlaveController;
 import org.jenkinsci.utils.process.CommandBuilder;
 
@@ -43,34 +51,46 @@ public class DumbSlave extends Slave {
      * call this in the context of the config UI.
      */
     public void asLocal() {
+        setLauncher(CommandSlaveLauncher.class).command(localLaunchCommand(getJenkins()));
+    }
+
+    /**
+     * Command launching agent on the same host as Jenkins master.
+     *
+     * slave.jar is shared with the test only when Jenkins runs on the same host, and with the same filesystem, as the
+     * test. Otherwise the command downloads it on the master. Call once per agent, as the downloaded jars differ.
+     */
+    public static String localLaunchCommand(Jenkins jenkins) {
+        if (jenkins.injector.getInstance(JenkinsController.class) instanceof LocalController) {
+            return String.format("java -jar \"%s\"", slaveJar(jenkins));
+        }
+
         assertCurlOrPowershellv3Plus();
         File tmpDir = new File(System.getProperty("java.io.tmpdir"));
         File jar = new File(tmpDir, "slave"+createRandomName()+".jar");
-        String command;
         if (SystemUtils.IS_OS_UNIX) {
-            command = String.format(
+            return String.format(
                     "sh -c 'curl -s -o %1$s %2$sjnlpJars/slave.jar && java -jar %1$s'",
-                    jar, url("../../")
+                    jar, jenkins.url
             );
         }
         else {
             // windows
-            command = String.format("powershell -command \"& { " +
-                                                               "try { " +
-                                                                  "Invoke-WebRequest %2$sjnlpJars/slave.jar -OutFile %1$s " +
-                                                               "} catch { " +
-                                                                  "echo 'download of slave jar failed'; " +
-                                                                  "exit 2 "+
-                                                               "} " +
-                                                               "java -jar %1$s "+
-                                                              "}\"",
-                                    jar, url("../../")
-                                   );
+            return String.format("powershell -command \"& { " +
+                                                        "try { " +
+                                                           "Invoke-WebRequest %2$sjnlpJars/slave.jar -OutFile %1$s " +
+                                                        "} catch { " +
+                                                           "echo 'download of slave jar failed'; " +
+                                                           "exit 2 "+
+                                                        "} " +
+                                                        "java -jar %1$s "+
+                                                       "}\"",
+                                 jar, jenkins.url
+                                );
         }
-        setLauncher(CommandSlaveLauncher.class).command(command);
     }
 
-    private void assertCurlOrPowershellv3Plus() {
+    private static void assertCurlOrPowershellv3Plus() {
         try {
             if (SystemUtils.IS_OS_UNIX) {
                 if (new CommandBuilder("which", "curl").system() != 0) {
@@ -88,4 +108,37 @@ public class DumbSlave extends Slave {
             // ignore and assume that curl is installed
         }
     }
+
+    /**
+     * slave.jar of the Jenkins under test, downloaded once and shared by all local agents.
+     *
+     * Released versions are shared by test JVMs too, as they are written aside and moved in place.
+     */
+    public static File slaveJar(Jenkins jenkins) {
+        String version = jenkins.getVersion().toString();
+        String key = jenkins.url + " " + version;
+        synchronized (SLAVE_JARS) {
+            File jar = SLAVE_JARS.get(key);
+            if (jar != null && jar.isFile()) return jar;
+
+            boolean release = version.matches("[0-9.]+");
+            File tmpDir = new File(System.getProperty("java.io.tmpdir"));
+            jar = new File(tmpDir, "slave-" + (release ? version : createRandomName()) + ".jar");
+            if (!release || jar.length() == 0) {
+                File tmp = new File(jar.getPath() + ".tmp" + System.nanoTime());
+                try {
+                    FileUtils.copyURLToFile(new URL(jenkins.url, "jnlpJars/slave.jar"), tmp);
+                    Files.move(tmp.toPath(), jar.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    throw new AssertionError("Failed to download slave.jar from " + jenkins.url, e);
+                } finally {
+                    FileUtils.deleteQuietly(tmp);
+                }
+            }
+            SLAVE_JARS.put(key, jar);
+            return jar;
+        }
+    }
+
+    private static final Map<String, File> SLAVE_JARS = new HashMap<>();
 }
@@ -32,6 +32,11 @@ import hudson.util.VersionNumber;
 public class Jenkins extends Node implements Container {
     private VersionNumber version;
 
+    /**
+     * Installed plugins, read on demand.
+     */
+    private volatile PluginInventory pluginInventory;
+
     public final JobsMixIn jobs;
     public final ViewsMixIn views;
     public final SlavesMixIn slaves;
@@ -151,6 +156,7 @@ public class Jenkins extends Node implements Container {
     public void restart() {
         visit("restart");
         clickButton("Yes");
+        invalidatePluginInventory();
 
         // Poll until we have the real page
         waitFor(driver).withTimeout(JenkinsController.STARTUP_TIMEOUT, TimeUnit.SECONDS)
@@ -181,6 +187,26 @@ public class Jenkins extends Node implements Container {
         return new Plugin(getPluginManager(), name);
     }
 
+    /**
+     * Plugins installed in this Jenkins.
+     *
+     * Read once and reused until plugins are installed or Jenkins is restarted.
+     */
+    public PluginInventory getPluginInventory() {
+        PluginInventory inventory = pluginInventory;
+        if (inventory == null) {
+            pluginInventory = inventory = new PluginInventory(getPluginManager().getJson(PluginInventory.TREE));
+        }
+        return inventory;
+    }
+
+    /**
+     * Forget installed plugins so they are read again when needed.
+     */
+    public void invalidatePluginInventory() {
+        pluginInventory = null;
+    }
+
     public <T extends PageObject> T getPluginPage(Class<T> type) {
         String urlChunk = type.getAnnotation(PluginPageObject.class).value();
 
@@ -1,31 +1,39 @@
 package org.jenkinsci.test.acceptance.po;
 
+import javax.annotation.CheckForNull;
 import javax.inject.Inject;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.UUID;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.regex.Pattern;
 import java.util.zip.GZIPOutputStream;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.SystemUtils;
 import org.codehaus.plexus.util.Base64;
 import org.jenkinsci.test.acceptance.controller.JenkinsController;
 import org.jenkinsci.test.acceptance.controller.LocalController;
 import org.jenkinsci.test.acceptance.junit.Resource;
+import org.jenkinsci.test.acceptance.slave.LocalSlaveProvider;
+import org.jenkinsci.test.acceptance.slave.SlaveProvider;
+import org.jenkinsci.test.acceptance.utils.SystemEnvironmentVariables;
 import org.junit.internal.AssumptionViolatedException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
@@ -45,6 +53,16 @@ import static org.junit.Assert.assertThat;
  * @author Kohsuke Kawaguchi
  */
 public class Job extends TopLevelItem {
+    /**
+     * Files at least this big are uploaded to Jenkins for the build to read, smaller ones are inlined.
+     * Set RESOURCE_UPLOAD_THRESHOLD=-1 to always inline.
+     */
+    private static final long UPLOAD_THRESHOLD = Long.parseLong(
+            SystemEnvironmentVariables.getPropertyVariableOrEnvironment("RESOURCE_UPLOAD_THRESHOLD", String.valueOf(32 * 1024))
+    );
+
+    private boolean builtOnMasterFilesystem;
+
     public List<Parameter> getParameters() {
         return parameters;
     }
@@ -224,28 +242,89 @@ public class Job extends TopLevelItem {
      * Adds a shell step that copies a resource inside the test project into a file on the build machine.
      * <p/>
      * Because there's no direct file system access to Jenkins master, we do this by packing file content in
-     * base64 and put it as a heredoc in the shell script.
+     * base64 and put it as a heredoc in the shell script. When the job was declared {@link #builtOnMasterFilesystem()},
+     * big files are uploaded to <tt>JENKINS_HOME</tt> instead and the step reads them from there.
      */
     public void copyResource(Resource resource, String fileName) {
         addShellStep(copyResourceShell(resource, fileName));
     }
 
     protected String copyResourceShell(Resource resource, String fileName) {
-        try (InputStream in = resource.asInputStream()) {
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-
-            try (OutputStream gz = new GZIPOutputStream(out)) {
+        File tmp = null;
+        try {
+            tmp = File.createTempFile("jenkins-acceptance-tests", ".gz");
+            try (InputStream in = resource.asInputStream(); OutputStream gz = new GZIPOutputStream(new FileOutputStream(tmp))) {
                 IOUtils.copy(in, gz);
             }
 
             // fileName can include path portion like foo/bar/zot
+            String uploaded = upload(tmp, ".gz");
+            if (uploaded != null) {
+                return String.format("(mkdir -p %1$s || true) && rm -r %1$s && gunzip < %2$s > %1$s",
+                        fileName, uploaded);
+            }
             return String.format("(mkdir -p %1$s || true) && rm -r %1$s && base64 --decode << ENDOFFILE | gunzip > %1$s \n%2$s\nENDOFFILE",
-                    fileName, new String(Base64.encodeBase64Chunked(out.toByteArray())));
+                    fileName, new String(Base64.encodeBase64Chunked(FileUtils.readFileToByteArray(tmp))));
         } catch (IOException e) {
             throw new AssertionError(e);
+        } finally {
+            FileUtils.deleteQuietly(tmp);
+        }
+    }
+
+    /**
+     * Upload the file to <tt>JENKINS_HOME</tt>, so builds can read it rather than having it inlined in the
+     * configuration.
+     *
+     * This is only done when the build runs where master does, that is Jenkins is started by the harness on this
+     * machine and agents are launched by the master as local processes. The job must not be tied to a label at the
+     * time either, in case it is meant for agent created some other way.
+     *
+     * @return Shell quoted path to read the file from on the build machine, null when it is to be inlined.
+     */
+    private @CheckForNull String upload(File file, String suffix) {
+        if (UPLOAD_THRESHOLD < 0 || file.length() < UPLOAD_THRESHOLD) return null;
+        if (!isBuiltOnMasterFilesystem()) return null;
+
+        Jenkins jenkins = getJenkins();
+        String name = UUID.randomUUID() + suffix;
+        // The body is not a form so the script is passed in query string and reads the body itself
+        String script = "def f = new File(Jenkins.instance.rootDir, 'ath-uploads/" + name + "')\n"
+                + "f.parentFile.mkdirs()\n"
+                + "f.withOutputStream { it << org.kohsuke.stapler.Stapler.currentRequest.inputStream }\n"
+                + "println f.length() + ' ' + f.absolutePath"
+        ;
+        try {
+            URL url = new URL(jenkins.url, "scriptText?script=" + URLEncoder.encode(script, "UTF-8"));
+            String out = injector.getInstance(JsonApiClient.class).upload(jenkins.url, url, file).trim();
+            String expected = file.length() + " ";
+            if (!out.startsWith(expected)) {
+                LOGGER.info("Inlining " + file.length() + " bytes, upload failed: " + out);
+                return null;
+            }
+            return "'" + out.substring(expected.length()).replace("'", "'\\''") + "'";
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Inlining " + file.length() + " bytes, upload failed", e);
+            return null;
         }
     }
 
+    private boolean isBuiltOnMasterFilesystem() {
+        if (!builtOnMasterFilesystem) return false;
+        if (!(controller instanceof LocalController)) return false;
+        return injector.getInstance(SlaveProvider.class) instanceof LocalSlaveProvider;
+    }
+
+    /**
+     * Declare the builds of this job run on the filesystem of the master, so resources copied into the workspace from
+     * now on can be uploaded to <tt>JENKINS_HOME</tt> instead of being inlined in the step.
+     * <p/>
+     * Do not call this for jobs that are, or will be, tied to a remote agent.
+     */
+    public void builtOnMasterFilesystem() {
+        builtOnMasterFilesystem = true;
+    }
+
     public void copyResource(Resource resource) {
         copyResource(resource, resource.getName());
     }
@@ -262,7 +341,6 @@ public class Job extends TopLevelItem {
         try {
             tmp = File.createTempFile("jenkins-acceptance-tests", "dir");
             ZipUtil.pack(file, tmp);
-            byte[] archive = IOUtils.toByteArray(new FileInputStream(tmp));
 
             if (SystemUtils.IS_OS_WINDOWS) {
                 if (!(controller instanceof LocalController)) {
@@ -271,10 +349,15 @@ public class Job extends TopLevelItem {
                 }
                 addBatchStep("xcopy " + file.getAbsolutePath() + " %cd% /E");
             } else {
-                addShellStep(String.format(
-                        "base64 --decode << ENDOFFILE > archive.zip && unzip -o archive.zip \n%s\nENDOFFILE",
-                        new String(Base64.encodeBase64Chunked(archive))
-                ));
+                String uploaded = upload(tmp, ".zip");
+                if (uploaded != null) {
+                    addShellStep("unzip -o " + uploaded);
+                } else {
+                    addShellStep(String.format(
+                            "base64 --decode << ENDOFFILE > archive.zip && unzip -o archive.zip \n%s\nENDOFFILE",
+                            new String(Base64.encodeBase64Chunked(FileUtils.readFileToByteArray(tmp)))
+                    ));
+                }
             }
         } catch (IOException e) {
             throw new AssertionError(e);
@@ -305,6 +388,23 @@ public class Job extends TopLevelItem {
         }
     }
 
+    /**
+     * Replace the configuration of the job with <tt>config.xml</tt>, without visiting the configuration page.
+     *
+     * @see JobConfigXml
+     */
+    public void updateConfigXml(String configXml) {
+        try {
+            injector.getInstance(JsonApiClient.class).postXml(getJenkins().url, url("config.xml"), configXml);
+        } catch (IOException e) {
+            throw new AssertionError("Failed to update configuration of " + name, e);
+        }
+    }
+
+    public void updateConfigXml(JobConfigXml<?> config) {
+        updateConfigXml(config.toXml());
+    }
+
     public URL getBuildUrl() {
         return url("build?delay=0sec");
     }
@@ -331,7 +431,7 @@ public class Job extends TopLevelItem {
 
     public Build scheduleBuild(Map<String, ?> params) {
         open();
-        int nb = getJson().get("nextBuildNumber").intValue();
+        int nb = getJsonFields("nextBuildNumber").get("nextBuildNumber").intValue();
         if (parameters.isEmpty()) {
             clickLink("Build Now");
         } else {
@@ -382,7 +482,7 @@ public class Job extends TopLevelItem {
     }
 
     public int getNextBuildNumber() {
-        return getJson().get("nextBuildNumber").intValue();
+        return getJsonFields("nextBuildNumber").get("nextBuildNumber").intValue();
     }
 
     public Workspace getWorkspace() {
@@ -481,4 +581,6 @@ public class Job extends TopLevelItem {
                 hasContent("This project is currently disabled")
         );
     }
+
+    private static final Logger LOGGER = Logger.getLogger(Job.class.getName());
 }
@@ -0,0 +1,261 @@
+package org.jenkinsci.test.acceptance.po;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.StringEscapeUtils;
+
+/**
+ * Builds <tt>config.xml</tt> of a job, to create or reconfigure it through REST rather than the configuration page.
+ *
+ * <pre>
+ * FreeStyleJob job = jenkins.jobs.createFromXml(FreeStyleJob.class, "job", JobConfigXml.freestyle()
+ *         .label("linux")
+ *         .shell("make")
+ * );
+ * </pre>
+ *
+ * Only the most common settings have methods, builders and publishers not covered can be added as XML fragments.
+ *
+ * @see JobsMixIn#createFromXml(Class, String, JobConfigXml)
+ * @see Job#updateConfigXml(JobConfigXml)
+ */
+public abstract class JobConfigXml<T extends JobConfigXml<T>> {
+    private String description = "";
+    private boolean disabled;
+
+    public static FreeStyle freestyle() {
+        return new FreeStyle();
+    }
+
+    public static Matrix matrix() {
+        return new Matrix();
+    }
+
+    public static Workflow workflow() {
+        return new Workflow();
+    }
+
+    public T description(String description) {
+        this.description = description;
+        return self();
+    }
+
+    public T disabled(boolean disabled) {
+        this.disabled = disabled;
+        return self();
+    }
+
+    public String toXml() {
+        StringBuilder xml = new StringBuilder("<?xml version='1.0' encoding='UTF-8'?>\n");
+        xml.append('<').append(getRootElement()).append(">\n");
+        element(xml, "description", description);
+        element(xml, "keepDependencies", "false");
+        xml.append("  <properties/>\n");
+        writeBody(xml);
+        element(xml, "disabled", String.valueOf(disabled));
+        xml.append("</").append(getRootElement()).append(">\n");
+        return xml.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toXml();
+    }
+
+    protected abstract String getRootElement();
+
+    /**
+     * Write elements specific to the job type.
+     */
+    protected abstract void writeBody(StringBuilder xml);
+
+    @SuppressWarnings("unchecked")
+    protected final T self() {
+        return (T) this;
+    }
+
+    protected static void element(StringBuilder xml, String name, String value) {
+        xml.append("  <").append(name).append('>')
+                .append(StringEscapeUtils.escapeXml(value))
+                .append("</").append(name).append(">\n");
+    }
+
+    /**
+     * Jobs with build steps and publishers, based on <tt>hudson.model.Project</tt>.
+     */
+    public static abstract class Project<T extends Project<T>> extends JobConfigXml<T> {
+        private String label;
+        private boolean concurrentBuild;
+        private final List<String> builders = new ArrayList<>();
+        private final List<String> publishers = new ArrayList<>();
+
+        /**
+         * Restrict where the job can run.
+         */
+        public T label(String label) {
+            this.label = label;
+            return self();
+        }
+
+        public T concurrentBuild(boolean concurrentBuild) {
+            this.concurrentBuild = concurrentBuild;
+            return self();
+        }
+
+        public T shell(String command) {
+            return builder("<hudson.tasks.Shell><command>" + StringEscapeUtils.escapeXml(command) + "</command></hudson.tasks.Shell>");
+        }
+
+        public T batch(String command) {
+            return builder("<hudson.tasks.BatchFile><command>" + StringEscapeUtils.escapeXml(command) + "</command></hudson.tasks.BatchFile>");
+        }
+
+        /**
+         * Add build step as XML, like <tt>&lt;hudson.tasks.Shell>&lt;command>make&lt;/command>&lt;/hudson.tasks.Shell></tt>.
+         */
+        public T builder(String xml) {
+            builders.add(xml);
+            return self();
+        }
+
+        /**
+         * Archive artifacts matching the Ant pattern.
+         */
+        public T archiveArtifacts(String includes) {
+            return publisher("<hudson.tasks.ArtifactArchiver><artifacts>" + StringEscapeUtils.escapeXml(includes) + "</artifacts></hudson.tasks.ArtifactArchiver>");
+        }
+
+        /**
+         * Add publisher as XML.
+         */
+        public T publisher(String xml) {
+            publishers.add(xml);
+            return self();
+        }
+
+        @Override
+        protected void writeBody(StringBuilder xml) {
+            xml.append("  <scm class=\"hudson.scm.NullSCM\"/>\n");
+            if (label != null) {
+                element(xml, "assignedNode", label);
+            }
+            element(xml, "canRoam", String.valueOf(label == null));
+            element(xml, "blockBuildWhenDownstreamBuilding", "false");
+            element(xml, "blockBuildWhenUpstreamBuilding", "false");
+            xml.append("  <triggers/>\n");
+            element(xml, "concurrentBuild", String.valueOf(concurrentBuild));
+            writeProjectBody(xml);
+            list(xml, "builders", builders);
+            list(xml, "publishers", publishers);
+            xml.append("  <buildWrappers/>\n");
+        }
+
+        protected void writeProjectBody(StringBuilder xml) {
+        }
+
+        private static void list(StringBuilder xml, String name, List<String> items) {
+            xml.append("  <").append(name).append(">\n");
+            for (String item : items) {
+                xml.append("    ").append(item).append('\n');
+            }
+            xml.append("  </").append(name).append(">\n");
+        }
+    }
+
+    public static final class FreeStyle extends Project<FreeStyle> {
+        private FreeStyle() {}
+
+        @Override
+        protected String getRootElement() {
+            return "project";
+        }
+    }
+
+    public static final class Matrix extends Project<Matrix> {
+        private final Map<String, String[]> axes = new LinkedHashMap<>();
+        private final Map<String, String[]> labelAxes = new LinkedHashMap<>();
+
+        private Matrix() {}
+
+        /**
+         * Add user-defined axis.
+         */
+        public Matrix axis(String name, String... values) {
+            axes.put(name, values);
+            return this;
+        }
+
+        /**
+         * Add axis of agent labels.
+         */
+        public Matrix labelAxis(String name, String... labels) {
+            labelAxes.put(name, labels);
+            return this;
+        }
+
+        @Override
+        protected String getRootElement() {
+            return "matrix-project";
+        }
+
+        @Override
+        protected void writeProjectBody(StringBuilder xml) {
+            xml.append("  <axes>\n");
+            axes(xml, "hudson.matrix.TextAxis", axes);
+            axes(xml, "hudson.matrix.LabelAxis", labelAxes);
+            xml.append("  </axes>\n");
+            xml.append("  <executionStrategy class=\"hudson.matrix.DefaultMatrixExecutionStrategyImpl\">"
+                    + "<runSequentially>false</runSequentially></executionStrategy>\n");
+        }
+
+        private static void axes(StringBuilder xml, String type, Map<String, String[]> axes) {
+            for (Map.Entry<String, String[]> axis : axes.entrySet()) {
+                xml.append("    <").append(type).append("><name>")
+                        .append(StringEscapeUtils.escapeXml(axis.getKey())).append("</name><values>");
+                for (String value : axis.getValue()) {
+                    xml.append("<string>").append(StringEscapeUtils.escapeXml(value)).append("</string>");
+                }
+                xml.append("</values></").append(type).append(">\n");
+            }
+        }
+    }
+
+    public static final class Workflow extends JobConfigXml<Workflow> {
+        private String script = "";
+        private boolean sandbox = true;
+
+        private Workflow() {}
+
+        public Workflow script(String script) {
+            this.script = script;
+            return this;
+        }
+
+        /**
+         * Run the script in Groovy sandbox, the default.
+         */
+        public Workflow sandbox(boolean sandbox) {
+            this.sandbox = sandbox;
+            return this;
+        }
+
+        @Override
+        protected String getRootElement() {
+            return "flow-definition";
+        }
+
+        @Override
+        protected void writeBody(StringBuilder xml) {
+            xml.append("  <definition class=\"org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition\">\n");
+            xml.append("  ");
+            element(xml, "script", script);
+            xml.append("  ");
+            element(xml, "sandbox", String.valueOf(sandbox));
+            xml.append("  </definition>\n");
+            xml.append("  <triggers/>\n");
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package org.jenkinsci.test.acceptance.po;
 
+import java.io.IOException;
 import java.net.URL;
+import java.net.URLEncoder;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 import org.openqa.selenium.By;
@@ -62,6 +64,29 @@ public class JobsMixIn extends MixIn {
         return j;
     }
 
+    /**
+     * Create job from its <tt>config.xml</tt>, without visiting any page.
+     *
+     * @see JobConfigXml
+     */
+    public <T extends TopLevelItem> T createFromXml(Class<T> type, String name, String configXml) {
+        try {
+            URL createItem = new URL(url, "createItem?name=" + URLEncoder.encode(name, "UTF-8"));
+            injector.getInstance(JsonApiClient.class).postXml(getJenkins().url, createItem, configXml);
+        } catch (IOException e) {
+            throw new AssertionError("Failed to create " + name, e);
+        }
+        return get(type, name);
+    }
+
+    public <T extends TopLevelItem> T createFromXml(Class<T> type, String name, JobConfigXml<?> config) {
+        return createFromXml(type, name, config.toXml());
+    }
+
+    public <T extends TopLevelItem> T createFromXml(Class<T> type, JobConfigXml<?> config) {
+        return createFromXml(type, createRandomName(), config);
+    }
+
     public <T extends TopLevelItem> T get(Class<T> type, String name) {
         if (contextAvailable() && typeAcceptsContext(type)) {
             return newInstance(type, getContext(), url("job/%s/", name), name);
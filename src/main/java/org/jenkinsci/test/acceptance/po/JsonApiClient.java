@@ -0,0 +1,433 @@
+package org.jenkinsci.test.acceptance.po;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.Consts;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpStatus;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.FileEntity;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.entity.mime.MultipartEntityBuilder;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.util.EntityUtils;
+import org.jenkinsci.test.acceptance.guice.AutoCleaned;
+import org.jenkinsci.test.acceptance.guice.TestScope;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.events.AbstractWebDriverEventListener;
+import org.openqa.selenium.support.events.EventFiringWebDriver;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Client for Jenkins remote API shared by all {@link ContainerPageObject}s of the test.
+ *
+ * <p>
+ * Connections are pooled and kept alive and the responses are compressed. The calls are authenticated with the
+ * cookies of the browser, so the API sees what the current user sees. As reading the cookies from the browser is
+ * a round trip too, they are only read again after the browser navigated or clicked something, which is what can
+ * change the session.
+ *
+ * @see ContainerPageObject#getJson(String)
+ */
+@TestScope
+public class JsonApiClient implements AutoCleaned {
+    private final WebDriver driver;
+    private final ObjectMapper jsonParser;
+    private final CloseableHttpClient client;
+
+    private volatile String cookies;
+
+    private final Map<String, Cached> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Crumbs by Jenkins URL, {@link NullNode} when there is no crumb issuer.
+     */
+    private final Map<String, JsonNode> crumbs = new ConcurrentHashMap<>();
+
+    @Inject
+    public JsonApiClient(WebDriver driver, ObjectMapper jsonParser) {
+        this.driver = driver;
+        this.jsonParser = jsonParser;
+
+        PoolingHttpClientConnectionManager connections = new PoolingHttpClientConnectionManager();
+        connections.setMaxTotal(20);
+        connections.setDefaultMaxPerRoute(20);
+        this.client = HttpClients.custom()
+                .setConnectionManager(connections)
+                .disableCookieManagement() // Use the cookies of the browser
+                .build()
+        ;
+
+        if (driver instanceof EventFiringWebDriver) {
+            ((EventFiringWebDriver) driver).register(new SessionListener());
+        }
+    }
+
+    /**
+     * Read the whole JSON document.
+     */
+    public JsonNode get(URL url) throws IOException {
+        return execute(url, new Parser() {
+            @Override
+            public JsonNode parse(InputStream in) throws IOException {
+                return jsonParser.readTree(in);
+            }
+        });
+    }
+
+    /**
+     * Read only given top-level fields of the JSON API.
+     *
+     * The document is streamed so nothing but the requested fields is kept.
+     *
+     * @param url URL of the JSON API, without query string.
+     */
+    public JsonNode get(URL url, final String... fields) throws IOException {
+        final List<String> wanted = Arrays.asList(fields);
+        return execute(new URL(url + "?tree=" + StringUtils.join(fields, ",")), new Parser() {
+            @Override
+            public JsonNode parse(InputStream in) throws IOException {
+                ObjectNode result = jsonParser.createObjectNode();
+                try (JsonParser p = jsonParser.getFactory().createParser(in)) {
+                    if (p.nextToken() != JsonToken.START_OBJECT) {
+                        throw new IOException("JSON object expected");
+                    }
+                    while (p.nextToken() == JsonToken.FIELD_NAME) {
+                        String name = p.getCurrentName();
+                        p.nextToken();
+                        if (wanted.contains(name)) {
+                            result.set(name, p.<JsonNode>readValueAsTree());
+                        } else {
+                            p.skipChildren();
+                        }
+                    }
+                }
+                return result;
+            }
+        });
+    }
+
+    /**
+     * Read top-level fields that are not expected to change, such as the number of a finished build.
+     *
+     * @param ttl Milliseconds to reuse the value for.
+     */
+    public JsonNode getCached(URL url, long ttl, String... fields) throws IOException {
+        String key = url + "?tree=" + StringUtils.join(fields, ",");
+        Cached cached = cache.get(key);
+        if (cached != null && cached.expires > System.currentTimeMillis()) {
+            return cached.json;
+        }
+
+        JsonNode json = get(url, fields);
+        cache.put(key, new Cached(json, System.currentTimeMillis() + ttl));
+        return json;
+    }
+
+    private JsonNode execute(URL url, Parser parser) throws IOException {
+        boolean retried = false;
+        while (true) {
+            HttpGet get = new HttpGet(url.toExternalForm());
+            get.setHeader("Cookie", getCookies());
+
+            try (CloseableHttpResponse rsp = client.execute(get)) {
+                int code = rsp.getStatusLine().getStatusCode();
+                if ((code == HttpStatus.SC_UNAUTHORIZED || code == HttpStatus.SC_FORBIDDEN) && !retried) {
+                    // The session might have changed behind our back
+                    EntityUtils.consume(rsp.getEntity());
+                    cookies = null;
+                    retried = true;
+                    continue;
+                }
+                if (code >= 400) {
+                    EntityUtils.consume(rsp.getEntity());
+                    throw new IOException("Server returned HTTP response code: " + code + " for URL: " + url);
+                }
+
+                try (InputStream in = rsp.getEntity().getContent()) {
+                    return parser.parse(in);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the part of a progressive log written since the offset.
+     *
+     * @param url URL of the log, like <tt>logText/progressiveText</tt>.
+     * @param start Offset to read from, {@link ProgressiveText#getSize()} of the previous read.
+     */
+    public ProgressiveText getProgressiveText(URL url, long start) throws IOException {
+        boolean retried = false;
+        while (true) {
+            HttpGet get = new HttpGet(url.toExternalForm() + "?start=" + start);
+            get.setHeader("Cookie", getCookies());
+
+            try (CloseableHttpResponse rsp = client.execute(get)) {
+                int code = rsp.getStatusLine().getStatusCode();
+                if ((code == HttpStatus.SC_UNAUTHORIZED || code == HttpStatus.SC_FORBIDDEN) && !retried) {
+                    EntityUtils.consume(rsp.getEntity());
+                    cookies = null;
+                    retried = true;
+                    continue;
+                }
+                if (code >= 400) {
+                    EntityUtils.consume(rsp.getEntity());
+                    throw new IOException("Server returned HTTP response code: " + code + " for URL: " + url);
+                }
+
+                String text = EntityUtils.toString(rsp.getEntity(), "UTF-8");
+                Header size = rsp.getFirstHeader("X-Text-Size");
+                Header more = rsp.getFirstHeader("X-More-Data");
+                return new ProgressiveText(
+                        text,
+                        size == null ? start + text.length() : Long.parseLong(size.getValue()),
+                        more != null && Boolean.parseBoolean(more.getValue())
+                );
+            }
+        }
+    }
+
+    /**
+     * Submit form to Jenkins, including the crumb when CSRF protection is on.
+     *
+     * @param root URL of Jenkins, to get the crumb from.
+     * @return The response body.
+     */
+    public String post(URL root, URL url, Map<String, String> form) throws IOException {
+        boolean retried = false;
+        while (true) {
+            List<NameValuePair> params = new ArrayList<>();
+            for (Map.Entry<String, String> e : form.entrySet()) {
+                params.add(new BasicNameValuePair(e.getKey(), e.getValue()));
+            }
+            JsonNode crumb = getCrumb(root);
+            if (crumb != null) {
+                params.add(new BasicNameValuePair(crumb.get("crumbRequestField").asText(), crumb.get("crumb").asText()));
+            }
+
+            HttpPost post = new HttpPost(url.toExternalForm());
+            post.setHeader("Cookie", getCookies());
+            post.setEntity(new UrlEncodedFormEntity(params, "UTF-8"));
+
+            try (CloseableHttpResponse rsp = client.execute(post)) {
+                int code = rsp.getStatusLine().getStatusCode();
+                if ((code == HttpStatus.SC_UNAUTHORIZED || code == HttpStatus.SC_FORBIDDEN) && !retried) {
+                    // The session, and so the crumb, might have changed behind our back
+                    EntityUtils.consume(rsp.getEntity());
+                    cookies = null;
+                    crumbs.remove(root.toExternalForm());
+                    retried = true;
+                    continue;
+                }
+                String body = EntityUtils.toString(rsp.getEntity(), "UTF-8");
+                if (code >= 400) {
+                    throw new IOException("Server returned HTTP response code: " + code + " for URL: " + url + "\n" + body);
+                }
+                return body;
+            }
+        }
+    }
+
+    /**
+     * Send file as the request body, streaming it from disk. The crumb is passed in header as the body is not a form.
+     *
+     * @param root URL of Jenkins, to get the crumb from.
+     * @return The response body.
+     */
+    public String upload(URL root, URL url, File body) throws IOException {
+        return send(root, url, new FileEntity(body, ContentType.APPLICATION_OCTET_STREAM));
+    }
+
+    /**
+     * Send file as a multipart form field, the way a browser submits a file input.
+     *
+     * @param root URL of Jenkins, to get the crumb from.
+     * @return The response body.
+     */
+    public String upload(URL root, URL url, String field, File file, String fileName) throws IOException {
+        return send(root, url, MultipartEntityBuilder.create()
+                .addBinaryBody(field, file, ContentType.APPLICATION_OCTET_STREAM, fileName)
+                .build()
+        );
+    }
+
+    /**
+     * Send XML document, like item configuration, as the request body.
+     *
+     * @param root URL of Jenkins, to get the crumb from.
+     * @return The response body.
+     */
+    public String postXml(URL root, URL url, String xml) throws IOException {
+        return send(root, url, new StringEntity(xml, ContentType.create("application/xml", Consts.UTF_8)));
+    }
+
+    /**
+     * @param body Entity that can be sent repeatedly.
+     */
+    private String send(URL root, URL url, HttpEntity body) throws IOException {
+        boolean retried = false;
+        while (true) {
+            HttpPost post = new HttpPost(url.toExternalForm());
+            post.setHeader("Cookie", getCookies());
+            JsonNode crumb = getCrumb(root);
+            if (crumb != null) {
+                post.setHeader(crumb.get("crumbRequestField").asText(), crumb.get("crumb").asText());
+            }
+            post.setEntity(body);
+
+            try (CloseableHttpResponse rsp = client.execute(post)) {
+                int code = rsp.getStatusLine().getStatusCode();
+                if ((code == HttpStatus.SC_UNAUTHORIZED || code == HttpStatus.SC_FORBIDDEN) && !retried) {
+                    EntityUtils.consume(rsp.getEntity());
+                    cookies = null;
+                    crumbs.remove(root.toExternalForm());
+                    retried = true;
+                    continue;
+                }
+                String text = EntityUtils.toString(rsp.getEntity(), "UTF-8");
+                if (code >= 400) {
+                    throw new IOException("Server returned HTTP response code: " + code + " for URL: " + url + "\n" + text);
+                }
+                return text;
+            }
+        }
+    }
+
+    /**
+     * @return null when CSRF protection is off.
+     */
+    private JsonNode getCrumb(URL root) throws IOException {
+        String key = root.toExternalForm();
+        if (crumbs.containsKey(key)) {
+            return crumbs.get(key).isNull() ? null : crumbs.get(key);
+        }
+
+        JsonNode crumb;
+        try {
+            crumb = get(new URL(root, "crumbIssuer/api/json"));
+        } catch (IOException e) {
+            if (!String.valueOf(e.getMessage()).contains("code: 404")) throw e;
+            crumb = NullNode.getInstance();
+        }
+        crumbs.put(key, crumb);
+        return crumb.isNull() ? null : crumb;
+    }
+
+    private String getCookies() {
+        String c = cookies;
+        if (c == null) {
+            List<String> pairs = new ArrayList<>();
+            for (Cookie cookie : driver.manage().getCookies()) {
+                pairs.add(cookie.getName() + "=" + cookie.getValue());
+            }
+            cookies = c = StringUtils.join(pairs, "; ");
+        }
+        return c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        client.close();
+    }
+
+    private interface Parser {
+        JsonNode parse(InputStream in) throws IOException;
+    }
+
+    public static final class ProgressiveText {
+        private final String text;
+        private final long size;
+        private final boolean more;
+
+        /*package*/ ProgressiveText(String text, long size, boolean more) {
+            this.text = text;
+            this.size = size;
+            this.more = more;
+        }
+
+        /**
+         * Text written since the offset read from.
+         */
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * Offset to continue reading from.
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * The log can still grow.
+         */
+        public boolean hasMore() {
+            return more;
+        }
+    }
+
+    private static final class Cached {
+        private final JsonNode json;
+        private final long expires;
+
+        private Cached(JsonNode json, long expires) {
+            this.json = json;
+            this.expires = expires;
+        }
+    }
+
+    /**
+     * Forget the cookies once the browser did something that can change the session.
+     */
+    private final class SessionListener extends AbstractWebDriverEventListener {
+        @Override
+        public void afterNavigateTo(String url, WebDriver driver) {
+            cookies = null;
+        }
+
+        @Override
+        public void afterNavigateBack(WebDriver driver) {
+            cookies = null;
+        }
+
+        @Override
+        public void afterNavigateForward(WebDriver driver) {
+            cookies = null;
+        }
+
+        @Override
+        public void afterClickOn(WebElement element, WebDriver driver) {
+            cookies = null;
+        }
+    }
+}
@@ -4,6 +4,13 @@ import org.openqa.selenium.By;
 import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebElement;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import javax.annotation.Nonnull;
 
 /**
@@ -23,6 +30,11 @@ public abstract class PageAreaImpl extends CapybaraPortingLayerImpl implements P
 
     private final PageObject page;
 
+    /**
+     * Controls created so far, by their relative paths.
+     */
+    private final Map<List<String>, Control> controls = new LinkedHashMap<>();
+
     /**
      * @param context Parent page object area is scoped to.
      * @param path Absolute path to the area.
@@ -109,7 +121,28 @@ public abstract class PageAreaImpl extends CapybaraPortingLayerImpl implements P
      */
     @Override
     public Control control(String... relativePaths) {
-        return new Control(this, relativePaths);
+        synchronized (controls) {
+            Control control = controls.get(Arrays.asList(relativePaths));
+            return control != null ? control : new Control(this, relativePaths);
+        }
+    }
+
+    /*package*/ void addControl(Control control, String... relativePaths) {
+        List<String> key = Arrays.asList(relativePaths);
+        synchronized (controls) {
+            if (!controls.containsKey(key)) {
+                controls.put(key, control);
+            }
+        }
+    }
+
+    /**
+     * Controls created by this area so far.
+     */
+    /*package*/ Collection<Control> getControls() {
+        synchronized (controls) {
+            return new ArrayList<>(controls.values());
+        }
     }
 
     @Override
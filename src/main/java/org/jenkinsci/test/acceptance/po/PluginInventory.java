@@ -0,0 +1,85 @@
+package org.jenkinsci.test.acceptance.po;
+
+import hudson.util.VersionNumber;
+
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.CheckForNull;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Snapshot of plugins installed in Jenkins.
+ *
+ * Read in a single request to the plugin manager API instead of asking for every plugin separately.
+ *
+ * @see Jenkins#getPluginInventory()
+ */
+public final class PluginInventory {
+    /*package*/ static final String TREE = "tree=plugins[shortName,version,active,enabled]";
+
+    private final Map<String, Entry> plugins;
+
+    /**
+     * @param json Plugin manager API response, see {@link #TREE}.
+     */
+    public PluginInventory(JsonNode json) {
+        ImmutableMap.Builder<String, Entry> builder = ImmutableMap.builder();
+        for (JsonNode p : json.get("plugins")) {
+            builder.put(p.get("shortName").asText(), new Entry(
+                    new VersionNumber(p.get("version").asText()),
+                    p.path("active").asBoolean(),
+                    p.path("enabled").asBoolean()
+            ));
+        }
+        this.plugins = builder.build();
+    }
+
+    /**
+     * @return null if not installed.
+     */
+    public @CheckForNull VersionNumber getVersion(String name) {
+        Entry e = plugins.get(name);
+        return e == null ? null : e.version;
+    }
+
+    public boolean isInstalled(String name) {
+        return plugins.containsKey(name);
+    }
+
+    /**
+     * Installed, enabled and loaded.
+     */
+    public boolean isActive(String name) {
+        Entry e = plugins.get(name);
+        return e != null && e.active && e.enabled;
+    }
+
+    public Set<String> getNames() {
+        return plugins.keySet();
+    }
+
+    @Override
+    public String toString() {
+        return plugins.toString();
+    }
+
+    private static final class Entry {
+        private final VersionNumber version;
+        private final boolean active;
+        private final boolean enabled;
+
+        private Entry(VersionNumber version, boolean active, boolean enabled) {
+            this.version = version;
+            this.active = active;
+            this.enabled = enabled;
+        }
+
+        @Override
+        public String toString() {
+            return version + (active ? "" : " (inactive)") + (enabled ? "" : " (disabled)");
+        }
+    }
+}
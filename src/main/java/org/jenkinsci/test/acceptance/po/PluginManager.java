@@ -1,19 +1,31 @@
 package org.jenkinsci.test.acceptance.po;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import javax.inject.Named;
 import javax.inject.Provider;
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.google.common.base.Predicate;
+import com.google.common.base.Throwables;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.jenkinsci.test.acceptance.controller.JenkinsController;
+import org.jenkinsci.test.acceptance.controller.LocalController;
 import org.jenkinsci.test.acceptance.junit.WithPlugins;
 import org.jenkinsci.test.acceptance.update_center.PluginMetadata;
 import org.jenkinsci.test.acceptance.update_center.PluginSpec;
@@ -37,6 +49,11 @@ public class PluginManager extends ContainerPageObject {
 
     private static final Logger LOGGER = Logger.getLogger(PluginManager.class.getName());
 
+    /**
+     * Number of plugins to download at once.
+     */
+    private static final int RESOLUTION_THREADS = 4;
+
     /**
      * Did we fetch the update center metadata?
      */
@@ -115,21 +132,16 @@ public class PluginManager extends ContainerPageObject {
     public InstallationStatus installationStatus(PluginSpec spec) {
         String name = spec.getName();
         String version = spec.getVersion();
-        Plugin plugin;
-        try {
-            plugin = jenkins.getPlugin(name);
-            if (version != null) {
-                VersionNumber actualVersion = plugin.getVersion();
-                // check if installed version >= required version
-                if (actualVersion.compareTo(new VersionNumber(version)) < 0) {
-                    LOGGER.info(name + " has version " + actualVersion + " but " + version + " was requested");
-                    return InstallationStatus.OUTDATED;
-                }
-            }
-            return InstallationStatus.UP_TO_DATE;
-        } catch (IllegalArgumentException ex) {
+        VersionNumber actualVersion = jenkins.getPluginInventory().getVersion(name);
+        if (actualVersion == null) {
             return InstallationStatus.NOT_INSTALLED;
         }
+        // check if installed version >= required version
+        if (version != null && actualVersion.compareTo(new VersionNumber(version)) < 0) {
+            LOGGER.info(name + " has version " + actualVersion + " but " + version + " was requested");
+            return InstallationStatus.OUTDATED;
+        }
+        return InstallationStatus.UP_TO_DATE;
     }
 
     @Deprecated
@@ -191,6 +203,7 @@ public class PluginManager extends ContainerPageObject {
                 return false;
             }
             List<PluginMetadata> pluginToBeInstalled = ucmd.get().transitiveDependenciesOf(jenkins, Arrays.asList(specs));
+            List<PluginMetadata> install = new ArrayList<>();
             for (PluginMetadata newPlugin: pluginToBeInstalled) {
                 final String name = newPlugin.getName();
                 String requiredVersion = candidates.get(name);
@@ -208,10 +221,17 @@ public class PluginManager extends ContainerPageObject {
                         throw new AssumptionViolatedException(
                                 name + " has version " + availableVersion + " but " + requiredVersion + " was requested");
                     }
-                    File localFile = newPlugin.resolve(injector, availableVersion);
-                    installPlugin(localFile);
+                    install.add(newPlugin);
                 }
             }
+
+            List<File> files = resolve(install);
+            LocalController local = getLocalController();
+            if (local != null) {
+                installPlugins(local, install, files);
+            } else {
+                uploadPlugins(install, files);
+            }
         } else {
             visit("available");
 
@@ -245,11 +265,99 @@ public class PluginManager extends ContainerPageObject {
         }
 
         // Jenkins will be restarted if necessary
+        jenkins.invalidatePluginInventory();
         new UpdateCenter(jenkins).waitForInstallationToComplete(specs);
 
         return false;
     }
 
+    /**
+     * Resolve plugin files concurrently, as downloading the whole dependency closure one by one takes a while.
+     */
+    private List<File> resolve(List<PluginMetadata> plugins) {
+        if (plugins.isEmpty()) return new ArrayList<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(plugins.size(), RESOLUTION_THREADS));
+        try {
+            List<Future<File>> futures = new ArrayList<>();
+            for (final PluginMetadata p : plugins) {
+                futures.add(executor.submit(new Callable<File>() {
+                    @Override
+                    public File call() {
+                        return p.resolve(injector, p.getVersion());
+                    }
+                }));
+            }
+
+            List<File> files = new ArrayList<>();
+            for (Future<File> f : futures) {
+                try {
+                    files.add(f.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while resolving plugins", e);
+                } catch (ExecutionException e) {
+                    Throwables.propagateIfPossible(e.getCause());
+                    throw new RuntimeException("Failed to resolve plugins", e.getCause());
+                }
+            }
+            return files;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Controller managing this Jenkins in case its JENKINS_HOME is accessible directly.
+     */
+    private @CheckForNull LocalController getLocalController() {
+        JenkinsController controller = injector.getInstance(JenkinsController.class);
+        if (!(controller instanceof LocalController)) return null;
+        if (!controller.getUrl().toExternalForm().equals(jenkins.url.toExternalForm())) return null;
+        if (!jenkins.canRestart()) return null;
+        return (LocalController) controller;
+    }
+
+    /**
+     * Put plugins directly to JENKINS_HOME and restart once to load them all.
+     */
+    private void installPlugins(LocalController controller, List<PluginMetadata> plugins, List<File> files) {
+        File pluginDir = new File(controller.getJenkinsHome(), "plugins");
+        try {
+            for (int i = 0; i < plugins.size(); i++) {
+                String name = plugins.get(i).getName();
+                // Plugin installed as *.hpi would take precedence
+                FileUtils.deleteQuietly(new File(pluginDir, name + ".hpi"));
+                FileUtils.copyFile(files.get(i), new File(pluginDir, name + ".jpi"));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to install plugins to " + pluginDir, e);
+        }
+
+        LOGGER.info("Restarting Jenkins to load plugins " + plugins);
+        jenkins.restart();
+    }
+
+    /**
+     * Upload plugins over HTTP in the session of the browser, falling back to the browser when Jenkins rejects the upload.
+     */
+    private void uploadPlugins(List<PluginMetadata> plugins, List<File> files) {
+        JsonApiClient client = injector.getInstance(JsonApiClient.class);
+        boolean http = true;
+        for (int i = 0; i < plugins.size(); i++) {
+            if (http) {
+                try {
+                    plugins.get(i).uploadTo(jenkins, client, files.get(i));
+                    continue;
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "Unable to upload plugins over HTTP, using the browser instead", e);
+                    http = false;
+                }
+            }
+            installPlugin(files.get(i));
+        }
+    }
+
     private void tickPluginToInstall(PluginSpec spec) {
         String name = spec.getName();
         check(find(by.xpath("//input[starts-with(@name,'plugin.%s.')]", name)));
@@ -280,6 +388,7 @@ public class PluginManager extends ContainerPageObject {
         WebElement upload = form.findElement(by.input("name"));
         upload.sendKeys(localFile.getAbsolutePath());
         form.submit();
+        jenkins.invalidatePluginInventory();
     }
 
     /**
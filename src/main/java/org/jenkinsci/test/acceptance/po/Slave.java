@@ -3,7 +3,6 @@ package org.jenkinsci.test.acceptance.po;
 import java.util.regex.Pattern;
 
 import org.jenkinsci.test.acceptance.Matcher;
-import org.jenkinsci.test.acceptance.junit.Wait;
 import org.jenkinsci.test.acceptance.slave.SlaveController;
 
 import com.google.common.base.Joiner;
@@ -37,20 +36,10 @@ public class Slave extends Node {
     /**
      * Waits for a slave to come online before proceeding.
      * @see #isOnline
+     * @see SlaveOnlineWatcher
      */
     public Slave waitUntilOnline() {
-        waitFor().withMessage("Slave is online")
-                .until(new Wait.Predicate<Boolean>() {
-                    @Override public Boolean apply() {
-                        return isOnline();
-                    }
-
-                    @Override
-                    public String diagnose(Throwable lastException, String message) {
-                        return "Slave log:\n" + getLog();
-                    }
-        });
-        return this;
+        return new SlaveOnlineWatcher(this).await();
     }
 
     public String getLog() {
@@ -59,7 +48,7 @@ public class Slave extends Node {
     }
 
     public boolean isOffline() {
-        return getJson().get("offline").asBoolean();
+        return getJsonFields("offline").get("offline").asBoolean();
     }
 
     public int getExecutorCount() {
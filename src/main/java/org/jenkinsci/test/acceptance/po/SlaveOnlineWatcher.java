@@ -0,0 +1,95 @@
+package org.jenkinsci.test.acceptance.po;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.jenkinsci.test.acceptance.junit.Wait;
+
+/**
+ * Follows the connection log of a {@link Slave} until it comes online.
+ *
+ * <p>
+ * Instead of reading the state of the computer over and over, only the part of the log written since the last look
+ * is fetched. The state is confirmed as soon as the log says the agent has connected, and every few polls regardless of
+ * the log as the message differs between versions and launchers. What was read stays around to diagnose agents that
+ * failed to connect, without taking the browser to the log page.
+ */
+public class SlaveOnlineWatcher {
+    private static final Pattern ONLINE = Pattern.compile("(Slave|Agent) successfully connected and online");
+    /**
+     * Ask for the state every this many polls even if the log does not say the agent is online.
+     */
+    /*package*/ static final int STATE_EVERY = 10;
+
+    private final Slave slave;
+    private final URL logUrl;
+    private final StringBuilder log = new StringBuilder();
+    private long offset;
+    private boolean online;
+    private int polls;
+
+    public SlaveOnlineWatcher(Slave slave) {
+        this.slave = slave;
+        this.logUrl = slave.url("logText/progressiveText");
+    }
+
+    /**
+     * Wait for the default timeout.
+     */
+    public Slave await() {
+        return await(slave.waitFor());
+    }
+
+    public Slave await(long timeout, TimeUnit unit) {
+        return await(slave.waitFor().withTimeout(timeout, unit));
+    }
+
+    private Slave await(Wait<CapybaraPortingLayer> wait) {
+        wait.withMessage("Slave %s is online", slave.getName())
+                .withBackoff(50, 500, TimeUnit.MILLISECONDS)
+                .until(new Wait.Predicate<Boolean>() {
+                    @Override public Boolean apply() {
+                        return poll();
+                    }
+
+                    @Override
+                    public String diagnose(Throwable lastException, String message) {
+                        return "Slave log:\n" + getLog();
+                    }
+                });
+        return slave;
+    }
+
+    /**
+     * Read what was logged since the last call.
+     *
+     * @return true once the slave is online.
+     */
+    public synchronized boolean poll() {
+        if (online) return true;
+
+        int from = Math.max(0, log.length() - 64); // The message can be split between reads
+        try {
+            JsonApiClient.ProgressiveText text = slave.injector.getInstance(JsonApiClient.class).getProgressiveText(logUrl, offset);
+            log.append(text.getText());
+            offset = text.getSize();
+        } catch (IOException e) {
+            // No log to follow, ask for the state instead
+            return online = slave.isOnline();
+        }
+
+        if (ONLINE.matcher(log).find(from) || ++polls % STATE_EVERY == 0) {
+            online = slave.isOnline();
+        }
+        return online;
+    }
+
+    /**
+     * The connection log read so far.
+     */
+    public synchronized String getLog() {
+        return log.toString();
+    }
+}
@@ -1,6 +1,12 @@
 package org.jenkinsci.test.acceptance.po;
 
 import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Mix-in for slaves.
@@ -43,6 +49,55 @@ public class SlavesMixIn extends MixIn {
         return s;
     }
 
+    /**
+     * Creates agents launched by commands, all in one request to the script console instead of going through
+     * the form for each. Jenkins starts launching them right away.
+     *
+     * @param commands Command launching the agent, by its name.
+     * @return The agents, not waited for to come online.
+     */
+    public List<DumbSlave> create(Map<String, String> commands) {
+        if (commands.isEmpty()) return Collections.emptyList();
+
+        StringBuilder script = new StringBuilder("[");
+        for (Map.Entry<String, String> e : commands.entrySet()) {
+            if (script.length() > 1) script.append(", ");
+            script.append(String.format("[%s, %s, %s]",
+                    groovyString(e.getKey()), groovyString(remoteFs(e.getKey())), groovyString(e.getValue())
+            ));
+        }
+        script.append("].each { a ->\n"
+                + "  jenkins.model.Jenkins.instance.addNode(new hudson.slaves.DumbSlave(\n"
+                + "      a[0], '', a[1], '1', hudson.model.Node.Mode.NORMAL, '',\n"
+                + "      new hudson.slaves.CommandLauncher(a[2]), hudson.slaves.RetentionStrategy.INSTANCE, []\n"
+                + "  ))\n"
+                + "}\n"
+                + "println 'created ' + " + commands.size()
+        );
+
+        String out;
+        try {
+            out = injector.getInstance(JsonApiClient.class).post(
+                    jenkins.url, new URL(jenkins.url, "scriptText"), Collections.singletonMap("script", script.toString())
+            );
+        } catch (IOException e) {
+            throw new AssertionError("Failed to create agents " + commands.keySet(), e);
+        }
+        if (!out.trim().equals("created " + commands.size())) {
+            throw new AssertionError("Failed to create agents " + commands.keySet() + ":\n" + out);
+        }
+
+        List<DumbSlave> slaves = new ArrayList<>();
+        for (String name : commands.keySet()) {
+            slaves.add(get(DumbSlave.class, name));
+        }
+        return slaves;
+    }
+
+    private static String groovyString(String s) {
+        return "'" + s.replace("\\", "\\\\").replace("'", "\\'") + "'";
+    }
+
     private String remoteFs(String name) {
         String base = System.getProperty("java.io.tmpdir");
         if (System.getenv("SLAVE_FS_BASE") != null) {
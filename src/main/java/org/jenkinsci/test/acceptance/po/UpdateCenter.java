@@ -6,6 +6,8 @@ import org.apache.commons.lang3.ArrayUtils;
 import org.jenkinsci.test.acceptance.Matchers;
 import org.jenkinsci.test.acceptance.update_center.PluginSpec;
 
+import hudson.util.VersionNumber;
+
 import static java.util.Arrays.*;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assume.assumeTrue;
@@ -85,15 +87,17 @@ public class UpdateCenter extends ContainerPageObject {
             jenkins.restart();
         }
 
+        jenkins.invalidatePluginInventory();
+        PluginInventory installed = jenkins.getPluginInventory();
         for (PluginSpec spec : specs) {
-            Plugin plugin = jenkins.getPlugin(spec.getName());
-            if (plugin == null) {
+            VersionNumber version = installed.getVersion(spec.getName());
+            if (version == null) {
                 throw new InstallationFailedException("Plugin " + spec.getName() + " not installed, restarted " + restartRequired);
             }
 
-            if (spec.getVersionNumber() != null && plugin.getVersion().isOlderThan(spec.getVersionNumber())) {
+            if (spec.getVersionNumber() != null && version.isOlderThan(spec.getVersionNumber())) {
                 throw new InstallationFailedException(
-                        "Plugin " + spec + " not installed in required version, is " + plugin.getVersion() + ", restarted " + true
+                        "Plugin " + spec + " not installed in required version, is " + version + ", restarted " + true
                 );
             }
         }
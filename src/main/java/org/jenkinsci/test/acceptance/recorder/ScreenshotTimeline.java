@@ -0,0 +1,218 @@
+package org.jenkinsci.test.acceptance.recorder;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.CheckForNull;
+import javax.imageio.ImageIO;
+
+import org.jenkinsci.test.acceptance.guice.TestScope;
+import org.jenkinsci.test.acceptance.junit.FailureDiagnostics;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.events.AbstractWebDriverEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Screenshots taken at points the test interacts with the browser.
+ *
+ * <p>
+ * Cheaper alternative to recording the screen, see {@link TestRecorderRule#TIMELINE}. Screenshot is taken after every
+ * navigation and click, and when {@link org.jenkinsci.test.acceptance.junit.Wait} times out. Screenshots that look
+ * the same as the previous one, judging by their perceptual hash, are not kept. Only the last {@link #MAX_FRAMES} are
+ * kept in memory and they are written to the diagnostics when the test fails.
+ */
+@TestScope
+public class ScreenshotTimeline extends AbstractWebDriverEventListener {
+
+    /*package*/ static final int MAX_FRAMES = 30;
+
+    /**
+     * Screenshots with hashes differing in fewer bits are considered the same.
+     */
+    private static final int SIMILARITY_THRESHOLD = 4;
+
+    /**
+     * Timeline of the test running in current thread, inherited by the threads the test spawns.
+     */
+    private static final InheritableThreadLocal<ScreenshotTimeline> CURRENT = new InheritableThreadLocal<>();
+
+    private final ArrayDeque<Frame> frames = new ArrayDeque<>();
+    private final long start = System.currentTimeMillis();
+    private @CheckForNull WebDriver driver;
+
+    private int captured;
+    private int duplicates;
+    private long bytes;
+    private long cpuNanos;
+
+    /**
+     * Timeline of the current test, if any.
+     */
+    public static @CheckForNull ScreenshotTimeline current() {
+        return CURRENT.get();
+    }
+
+    /*package*/ void start() {
+        CURRENT.set(this);
+    }
+
+    /*package*/ void stop() {
+        CURRENT.remove();
+    }
+
+    @Override
+    public void afterNavigateTo(String url, WebDriver driver) {
+        capture(driver, "navigate");
+    }
+
+    @Override
+    public void afterNavigateBack(WebDriver driver) {
+        capture(driver, "back");
+    }
+
+    @Override
+    public void afterNavigateForward(WebDriver driver) {
+        capture(driver, "forward");
+    }
+
+    @Override
+    public void afterClickOn(WebElement element, WebDriver driver) {
+        capture(driver, "click");
+    }
+
+    /**
+     * Take screenshot of the browser the test used last.
+     */
+    public void capture(String event) {
+        WebDriver d = driver;
+        if (d != null) {
+            capture(d, event);
+        }
+    }
+
+    private synchronized void capture(WebDriver driver, String event) {
+        if (CURRENT.get() != this || !(driver instanceof TakesScreenshot)) return;
+        this.driver = driver;
+
+        long cpu = cpuTime();
+        try {
+            byte[] png = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+            captured++;
+
+            long hash = hash(png);
+            Frame last = frames.peekLast();
+            if (last != null && Long.bitCount(last.hash ^ hash) < SIMILARITY_THRESHOLD) {
+                duplicates++;
+                return;
+            }
+
+            frames.add(new Frame(System.currentTimeMillis() - start, event, driver.getCurrentUrl(), hash, png));
+            bytes += png.length;
+            if (frames.size() > MAX_FRAMES) {
+                bytes -= frames.removeFirst().png.length;
+            }
+        } catch (WebDriverException | IOException e) {
+            // Alert open, browser gone, or the like. Nothing to capture.
+            logger.debug("Unable to take screenshot after {}", event, e);
+        } finally {
+            cpuNanos += cpuTime() - cpu;
+        }
+    }
+
+    /**
+     * Write frames kept to diagnostics.
+     */
+    /*package*/ synchronized void flush(FailureDiagnostics diagnostics) {
+        if (frames.isEmpty()) return;
+
+        diagnostics.mkdirs("timeline");
+        StringBuilder index = new StringBuilder();
+        int i = 0;
+        for (Frame f : frames) {
+            String name = String.format("%02d-%s.png", i++, f.event);
+            diagnostics.write("timeline/" + name, f.png);
+            index.append(String.format("%8.1fs %-20s %s%n", f.time / 1000D, name, f.url));
+        }
+        diagnostics.write("timeline/index.txt", index.toString());
+    }
+
+    /*package*/ synchronized List<String> getEvents() {
+        List<String> events = new ArrayList<>();
+        for (Frame f : frames) {
+            events.add(f.event);
+        }
+        return events;
+    }
+
+    /*package*/ synchronized String cost() {
+        return String.format(
+                "%d screenshots taken, %d duplicates skipped, %d kept (%d KB), %d ms CPU",
+                captured, duplicates, frames.size(), bytes / 1024, cpuNanos / 1000000
+        );
+    }
+
+    /**
+     * Difference hash of the image: gray 9x8 thumbnail, one bit per horizontally adjacent pixels whether the left
+     * one is brighter.
+     */
+    /*package*/ static long hash(byte[] png) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        if (image == null) throw new IOException("Not an image");
+
+        BufferedImage thumbnail = new BufferedImage(9, 8, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = thumbnail.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(image, 0, 0, 9, 8, null);
+        } finally {
+            g.dispose();
+        }
+
+        long hash = 0;
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                hash <<= 1;
+                if (thumbnail.getRaster().getSample(x, y, 0) > thumbnail.getRaster().getSample(x + 1, y, 0)) {
+                    hash |= 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    private static long cpuTime() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        return threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : 0;
+    }
+
+    private static final class Frame {
+        private final long time;
+        private final String event;
+        private final String url;
+        private final long hash;
+        private final byte[] png;
+
+        private Frame(long time, String event, String url, long hash, byte[] png) {
+            this.time = time;
+            this.event = event;
+            this.url = url;
+            this.hash = hash;
+            this.png = png;
+        }
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(ScreenshotTimeline.class);
+}
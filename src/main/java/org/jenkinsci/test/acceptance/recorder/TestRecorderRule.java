@@ -18,7 +18,10 @@ import java.awt.GraphicsConfiguration;
 import java.awt.Dimension;
 import java.awt.AWTException;
 import java.awt.HeadlessException;
+import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
 import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
@@ -26,6 +29,9 @@ import javax.inject.Inject;
 /**
  * JUnit Rule that before executing a test it starts a recording current screen
  * and after the test is executed, it stops recording.
+ *
+ * In {@link #TIMELINE} mode, the screen is not recorded. {@link ScreenshotTimeline} is written for failed tests
+ * instead.
  */
 @GlobalRule
 public class TestRecorderRule extends TestWatcher {
@@ -37,6 +43,7 @@ public class TestRecorderRule extends TestWatcher {
     private static final float QUALITY_RATIO = 0.97f;
 
     static final String OFF = "off";
+    static final String TIMELINE = "timeline";
 
     static final String FAILURES = "failuresOnly";
     static final String ALWAYS = "always";
@@ -49,15 +56,34 @@ public class TestRecorderRule extends TestWatcher {
     private boolean headless = false;
     private FailureDiagnostics diagnostics;
     private JUnitScreenRecorder screenRecorder;
+    private final ScreenshotTimeline timeline;
+
+    private long cpuStart;
+    private long movieBytes;
 
-    @Inject
     public TestRecorderRule(FailureDiagnostics diagnostics) {
+        this(diagnostics, new ScreenshotTimeline());
+    }
+
+    @Inject
+    public TestRecorderRule(FailureDiagnostics diagnostics, ScreenshotTimeline timeline) {
         this.diagnostics = diagnostics;
+        this.timeline = timeline;
+    }
+
+    /**
+     * {@link ScreenshotTimeline} is to be attached to the browser.
+     */
+    public static boolean isTimelineEnabled() {
+        return TIMELINE.equals(RECORDER_OPTION);
     }
 
     @Override
     protected void starting(Description description) {
-        if (isRecorderEnabled()) {
+        cpuStart = processCpuTime();
+        if (isTimelineEnabled()) {
+            timeline.start();
+        } else if (isRecorderEnabled()) {
             startRecording(description);
         }
     }
@@ -109,9 +135,25 @@ public class TestRecorderRule extends TestWatcher {
         }
     }
 
+    @Override
+    protected void failed(Throwable e, Description description) {
+        if (isTimelineEnabled()) {
+            timeline.capture("failure");
+            timeline.flush(diagnostics);
+        }
+    }
+
     @Override
     protected void finished(Description description) {
         stopRecordingWithFinalWaiting();
+
+        if (isTimelineEnabled()) {
+            timeline.stop();
+            logger.info("{} timeline: {}", description.getDisplayName(), timeline.cost());
+        } else if (this.screenRecorder != null && !this.headless) {
+            logger.info("{} screen recording: {} KB movie, {} ms CPU used by the JVM while recording",
+                    description.getDisplayName(), movieBytes / 1024, (processCpuTime() - cpuStart) / 1000000);
+        }
     }
 
     private boolean isRecorderEnabled() {
@@ -137,6 +179,9 @@ public class TestRecorderRule extends TestWatcher {
                     waitUntilLastFramesAreRecorded();
                 }
                 screenRecorder.stop();
+                for (File movie : screenRecorder.getCreatedMovieFiles()) {
+                    movieBytes += movie.length();
+                }
             } catch (IOException e) {
                 logger.warn("Exception stoping test recording {}.", e);
             } catch (InterruptedException e) {
@@ -150,6 +195,14 @@ public class TestRecorderRule extends TestWatcher {
         TimeUnit.MILLISECONDS.sleep(500);
     }
 
+    private static long processCpuTime() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+        }
+        return 0;
+    }
+
     private Format getFileFormat(String mimeType) {
         return new Format(FormatKeys.MediaTypeKey, FormatKeys.MediaType.FILE, FormatKeys.MimeTypeKey, mimeType);
     }
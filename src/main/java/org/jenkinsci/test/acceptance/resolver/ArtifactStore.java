@@ -0,0 +1,522 @@
+package org.jenkinsci.test.acceptance.resolver;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import com.trilead.ssh2.ChannelCondition;
+import com.trilead.ssh2.Session;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.jenkinsci.test.acceptance.Ssh;
+import org.jenkinsci.test.acceptance.machine.Machine;
+import org.jenkinsci.test.acceptance.utils.FastGZIPOutputStream;
+import org.jenkinsci.test.acceptance.utils.SHA1Sum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.CheckForNull;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Content addressed store of files transferred to {@link Machine}s.
+ *
+ * <p>
+ * Files are kept on the machine under {@link #STORE} named by their SHA-1, and the paths they are requested at are
+ * symlinks into the store. What was transferred to which machine is recorded in a manifest under
+ * <tt>$WORKSPACE/artifact-store/</tt>, so materializing a file the machine has got already takes no remote command
+ * at all. Content that is in the store already is not transferred again, even when requested at a different path.
+ *
+ * <p>
+ * The rest is transferred in a {@link Batch}. Local files are uploaded in parallel, gzip compressed, each in a session
+ * of its own. URLs are downloaded by the machine, all of them at once.
+ *
+ * <p>
+ * The manifest is verified against the machine once per JVM, in a single command, as the machine can be replaced by
+ * another one at the same address or have its home directory wiped. What the machine does not have is transferred
+ * again.
+ *
+ * @see StoredResolver
+ */
+@Singleton
+public class ArtifactStore {
+    /**
+     * Directory of the store on the machine, relative to the home of the user.
+     */
+    /*package*/ static final String STORE = JenkinsResolver.JENKINS_TEMP_DIR + "store/";
+
+    private final File manifests;
+    private final Map<String, Manifest> byMachine = new HashMap<>();
+    private final Map<File, Digest> digests = new HashMap<>();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("artifact-transfer-%d").setDaemon(true).build()
+    );
+
+    @Inject
+    public ArtifactStore(@Named("WORKSPACE") String workspace) {
+        this.manifests = new File(workspace, "artifact-store");
+    }
+
+    /**
+     * Start collecting files to be transferred to the machine together.
+     */
+    public Batch batch(Machine machine) {
+        return new Batch(machine, manifest(machine));
+    }
+
+    private synchronized Manifest manifest(Machine machine) {
+        String key = (machine.getUser() + "@" + machine.getPublicIpAddress()).replaceAll("[^A-Za-z0-9@._-]", "_");
+        Manifest m = byMachine.get(key);
+        if (m == null) {
+            m = new Manifest(new File(manifests, key + ".manifest"));
+            byMachine.put(key, m);
+        }
+        return m;
+    }
+
+    /**
+     * SHA-1 of local file, computed again only once the file changes.
+     */
+    private String sha1(File file) {
+        synchronized (digests) {
+            Digest d = digests.get(file);
+            if (d == null || d.length != file.length() || d.lastModified != file.lastModified()) {
+                d = new Digest(file.length(), file.lastModified(), new SHA1Sum(file).getSha1String());
+                digests.put(file, d);
+            }
+            return d.sha1;
+        }
+    }
+
+    /**
+     * Files to be materialized on a machine at once.
+     */
+    public final class Batch {
+        private final Machine machine;
+        private final Manifest manifest;
+
+        private final Map<String, File> files = new LinkedHashMap<>();
+        private final Map<String, Download> urls = new LinkedHashMap<>();
+
+        private Batch(Machine machine, Manifest manifest) {
+            this.machine = machine;
+            this.manifest = manifest;
+        }
+
+        public Machine getMachine() {
+            return machine;
+        }
+
+        /**
+         * Upload local file to the path on the machine.
+         */
+        public Batch add(File file, String path) {
+            files.put(path, file);
+            return this;
+        }
+
+        /**
+         * Let the machine download URL to the path.
+         *
+         * @param md5 Expected MD5 sum of the content, if known. Downloaded again once the content differs.
+         */
+        public Batch add(String url, String path, @CheckForNull String md5) {
+            urls.put(path, new Download(url, md5));
+            return this;
+        }
+
+        /**
+         * Transfer what the machine does not have yet and put all the files in place.
+         */
+        public void materialize() {
+            verify();
+
+            Map<String, String> links = new LinkedHashMap<>(); // path -> sha1
+            Map<String, File> uploads = new LinkedHashMap<>(); // sha1 -> file
+            Map<String, Download> downloads = new LinkedHashMap<>(); // path -> url
+            int hits = 0;
+
+            for (Map.Entry<String, File> e : files.entrySet()) {
+                String sha1 = sha1(e.getValue());
+                if (manifest.isLinked(e.getKey(), sha1)) {
+                    hits++;
+                    continue;
+                }
+                links.put(e.getKey(), sha1);
+                if (!manifest.hasBlob(sha1)) {
+                    uploads.put(sha1, e.getValue());
+                }
+            }
+            for (Map.Entry<String, Download> e : urls.entrySet()) {
+                String sha1 = manifest.getUrl(e.getValue().url, e.getValue().md5);
+                if (sha1 == null) {
+                    downloads.put(e.getKey(), e.getValue());
+                } else if (manifest.isLinked(e.getKey(), sha1)) {
+                    hits++;
+                } else {
+                    links.put(e.getKey(), sha1);
+                }
+            }
+
+            if (links.isEmpty() && downloads.isEmpty()) {
+                logger.info("All {} artifacts are on {} already", hits, machine.getPublicIpAddress());
+                return;
+            }
+            logger.info("Transferring artifacts to {}: {} uploads, {} downloads, {} links, {} up to date",
+                    machine.getPublicIpAddress(), uploads.size(), downloads.size(), links.size(), hits);
+
+            try {
+                List<Future<?>> transfers = new ArrayList<>();
+                for (Map.Entry<String, File> e : uploads.entrySet()) {
+                    transfers.add(executor.submit(new Upload(e.getValue(), e.getKey())));
+                }
+                Future<Map<String, String[]>> downloaded = null;
+                if (!downloads.isEmpty()) {
+                    downloaded = executor.submit(new DownloadAll(new ArrayList<>(downloads.values())));
+                }
+
+                for (Future<?> f : transfers) {
+                    f.get();
+                }
+                for (Map.Entry<String, File> e : uploads.entrySet()) {
+                    manifest.addBlob(e.getKey());
+                }
+                if (downloaded != null) {
+                    Map<String, String[]> sums = downloaded.get();
+                    for (Map.Entry<String, Download> e : downloads.entrySet()) {
+                        String[] sum = sums.get(e.getValue().url);
+                        manifest.addBlob(sum[0]);
+                        manifest.addUrl(e.getValue().url, sum[0], sum[1]);
+                        links.put(e.getKey(), sum[0]);
+                    }
+                }
+
+                link(links);
+            } catch (InterruptedException | ExecutionException e) {
+                throw new AssertionError("Failed to transfer artifacts to " + machine.getPublicIpAddress(), e);
+            } finally {
+                manifest.save();
+            }
+        }
+
+        /**
+         * Forget blobs and links the machine does not have, unless done by this JVM already.
+         */
+        private void verify() {
+            synchronized (manifest) {
+                if (manifest.verified) return;
+
+                List<String> blobs = new ArrayList<>(manifest.blobs);
+                List<Map.Entry<String, String>> links = new ArrayList<>(manifest.links.entrySet());
+                if (!blobs.isEmpty() || !links.isEmpty()) {
+                    StringBuilder script = new StringBuilder();
+                    for (int i = 0; i < blobs.size(); i++) {
+                        script.append(String.format("[ -f %s ] || echo blob %d; ", Ssh.escape(STORE + blobs.get(i)), i));
+                    }
+                    for (int i = 0; i < links.size(); i++) {
+                        script.append(String.format("[ \"`readlink %s`\" = \"$PWD\"/%s ] || echo link %d; ",
+                                Ssh.escape(links.get(i).getKey()), Ssh.escape(STORE + links.get(i).getValue()), i
+                        ));
+                    }
+                    script.append("true");
+
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    int status;
+                    try (Ssh ssh = machine.connect()) {
+                        status = ssh.getConnection().exec(script.toString(), out);
+                    } catch (IOException e) {
+                        logger.warn("Failed to verify artifacts on " + machine.getPublicIpAddress(), e);
+                        status = -1;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new AssertionError(e);
+                    }
+
+                    if (status != 0) {
+                        logger.warn("Unable to verify artifacts on {}, transferring everything", machine.getPublicIpAddress());
+                        manifest.clear();
+                    } else {
+                        int missing = 0;
+                        for (String line : new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n")) {
+                            String[] fields = line.trim().split(" ");
+                            if (fields.length != 2) continue;
+                            int i = Integer.parseInt(fields[1]);
+                            if (fields[0].equals("blob")) {
+                                manifest.removeBlob(blobs.get(i));
+                                missing++;
+                            } else if (fields[0].equals("link")) {
+                                manifest.removeLink(links.get(i).getKey());
+                                missing++;
+                            }
+                        }
+                        if (missing > 0) {
+                            logger.info("{} artifacts recorded in manifest are missing on {}", missing, machine.getPublicIpAddress());
+                        }
+                    }
+                    manifest.save();
+                }
+                manifest.verified = true;
+            }
+        }
+
+        /**
+         * Point all the paths to the store in one command.
+         */
+        private void link(Map<String, String> links) {
+            List<String> cmds = new ArrayList<>();
+            for (Map.Entry<String, String> e : links.entrySet()) {
+                cmds.add("mkdir -p " + Ssh.escape(org.codehaus.plexus.util.FileUtils.dirname(e.getKey())));
+                cmds.add("ln -sfn \"$PWD\"/" + Ssh.escape(STORE + e.getValue()) + " " + Ssh.escape(e.getKey()));
+            }
+            try (Ssh ssh = machine.connect()) {
+                ssh.executeRemoteCommands(cmds.toArray(new String[cmds.size()]));
+            }
+            for (Map.Entry<String, String> e : links.entrySet()) {
+                manifest.addLink(e.getKey(), e.getValue());
+            }
+        }
+
+        /**
+         * Stream gzipped file to the store, verifying the checksum before it is moved in place.
+         */
+        private final class Upload implements Callable<Void> {
+            private final File file;
+            private final String sha1;
+
+            private Upload(File file, String sha1) {
+                this.file = file;
+                this.sha1 = sha1;
+            }
+
+            @Override
+            public Void call() throws Exception {
+                String tmp = Ssh.escape(STORE + sha1 + ".tmp" + System.nanoTime());
+                String cmd = String.format(
+                        "mkdir -p %s && gzip -dc > %s && echo '%s  '%s | sha1sum -c --quiet - && mv %s %s",
+                        Ssh.escape(STORE), tmp, sha1, tmp, tmp, Ssh.escape(STORE + sha1)
+                );
+
+                try (Ssh ssh = machine.connect()) {
+                    Session session = ssh.getConnection().openSession();
+                    try {
+                        session.execCommand(cmd);
+                        try (InputStream in = new FileInputStream(file); OutputStream out = new FastGZIPOutputStream(session.getStdin())) {
+                            IOUtils.copy(in, out);
+                        }
+                        session.waitForCondition(ChannelCondition.EXIT_STATUS, 0);
+                        Integer status = session.getExitStatus();
+                        if (status == null || status != 0) {
+                            throw new IOException("Failed to upload " + file + " to " + machine.getPublicIpAddress() + ", exit code = " + status);
+                        }
+                    } finally {
+                        session.close();
+                    }
+                }
+                logger.info("Uploaded {} to {}", file, machine.getPublicIpAddress());
+                return null;
+            }
+        }
+
+        /**
+         * Download all URLs in parallel on the machine, reporting SHA-1 and MD5 of each.
+         */
+        private final class DownloadAll implements Callable<Map<String, String[]>> {
+            private final List<Download> downloads;
+
+            private DownloadAll(List<Download> downloads) {
+                this.downloads = downloads;
+            }
+
+            @Override
+            public Map<String, String[]> call() throws Exception {
+                StringBuilder script = new StringBuilder("mkdir -p " + Ssh.escape(STORE) + " && { ");
+                for (int i = 0; i < downloads.size(); i++) {
+                    String tmp = Ssh.escape(STORE + "download.tmp" + System.nanoTime() + "." + i);
+                    script.append(String.format(
+                            "( wget -q -O %1$s %2$s && set -- `sha1sum %1$s` && s=$1 && set -- `md5sum %1$s` && mv %1$s %3$s$s && echo %4$d $s $1 ) & ",
+                            tmp, Ssh.escape(downloads.get(i).url), Ssh.escape(STORE), i
+                    ));
+                }
+                script.append("wait; }");
+
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                try (Ssh ssh = machine.connect()) {
+                    ssh.executeRemoteCommand(script.toString(), out);
+                }
+
+                Map<String, String[]> sums = new HashMap<>();
+                for (String line : out.toString("UTF-8").split("\n")) {
+                    String[] fields = line.trim().split(" ");
+                    if (fields.length != 3) continue;
+                    sums.put(downloads.get(Integer.parseInt(fields[0])).url, new String[] {fields[1], fields[2]});
+                }
+                for (Download d : downloads) {
+                    if (!sums.containsKey(d.url)) {
+                        throw new IOException("Failed to download " + d.url + " to " + machine.getPublicIpAddress());
+                    }
+                    if (d.md5 != null && !d.md5.equals(sums.get(d.url)[1])) {
+                        throw new IOException("MD5 sum of " + d.url + " is " + sums.get(d.url)[1] + ", expected " + d.md5);
+                    }
+                }
+                return sums;
+            }
+        }
+    }
+
+    private static final class Download {
+        private final String url;
+        private final String md5;
+
+        private Download(String url, String md5) {
+            this.url = url;
+            this.md5 = md5;
+        }
+    }
+
+    private static final class Digest {
+        private final long length;
+        private final long lastModified;
+        private final String sha1;
+
+        private Digest(long length, long lastModified, String sha1) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.sha1 = sha1;
+        }
+    }
+
+    /**
+     * What the store of a machine contains, persisted as tab separated lines.
+     */
+    private static final class Manifest {
+        private final File file;
+        private final Set<String> blobs = new HashSet<>();
+        private final Map<String, String> links = new HashMap<>(); // path -> sha1
+        private final Map<String, String[]> urls = new HashMap<>(); // url -> sha1, md5
+
+        /**
+         * Verified against the machine by this JVM.
+         */
+        private boolean verified;
+
+        private Manifest(File file) {
+            this.file = file;
+            if (!file.exists()) return;
+
+            try (BufferedReader r = new BufferedReader(new FileReader(file))) {
+                String line;
+                while ((line = r.readLine()) != null) {
+                    String[] f = line.split("\t");
+                    if (f.length == 2 && f[0].equals("blob")) {
+                        blobs.add(f[1]);
+                    } else if (f.length == 3 && f[0].equals("link")) {
+                        links.put(f[1], f[2]);
+                    } else if (f.length == 4 && f[0].equals("url")) {
+                        urls.put(f[1], new String[] {f[2], f[3]});
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("Unable to read " + file + ", transferring everything", e);
+                blobs.clear();
+                links.clear();
+                urls.clear();
+            }
+        }
+
+        private synchronized boolean hasBlob(String sha1) {
+            return blobs.contains(sha1);
+        }
+
+        private synchronized boolean isLinked(String path, String sha1) {
+            return sha1.equals(links.get(path)) && blobs.contains(sha1);
+        }
+
+        /**
+         * @return SHA-1 of content downloaded from the URL, null if not downloaded or differs from expected MD5.
+         */
+        private synchronized @CheckForNull String getUrl(String url, @CheckForNull String md5) {
+            String[] sums = urls.get(url);
+            if (sums == null || !blobs.contains(sums[0])) return null;
+            if (md5 != null && !md5.equals(sums[1])) return null;
+            return sums[0];
+        }
+
+        private synchronized void removeBlob(String sha1) {
+            blobs.remove(sha1);
+        }
+
+        private synchronized void removeLink(String path) {
+            links.remove(path);
+        }
+
+        private synchronized void clear() {
+            blobs.clear();
+            links.clear();
+            urls.clear();
+        }
+
+        private synchronized void addBlob(String sha1) {
+            blobs.add(sha1);
+        }
+
+        private synchronized void addLink(String path, String sha1) {
+            links.put(path, sha1);
+        }
+
+        private synchronized void addUrl(String url, String sha1, String md5) {
+            urls.put(url, new String[] {sha1, md5});
+        }
+
+        /**
+         * Write aside and move in place, so other test JVMs never see partial manifest.
+         */
+        private synchronized void save() {
+            File tmp = new File(file.getPath() + ".tmp" + System.nanoTime());
+            try {
+                file.getParentFile().mkdirs();
+                try (PrintWriter w = new PrintWriter(tmp, "UTF-8")) {
+                    for (String b : blobs) {
+                        w.println("blob\t" + b);
+                    }
+                    for (Map.Entry<String, String> e : links.entrySet()) {
+                        w.println("link\t" + e.getKey() + "\t" + e.getValue());
+                    }
+                    for (Map.Entry<String, String[]> e : urls.entrySet()) {
+                        w.println("url\t" + e.getKey() + "\t" + e.getValue()[0] + "\t" + e.getValue()[1]);
+                    }
+                }
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                logger.warn("Unable to write " + file, e);
+            } finally {
+                FileUtils.deleteQuietly(tmp);
+            }
+        }
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(ArtifactStore.class);
+}
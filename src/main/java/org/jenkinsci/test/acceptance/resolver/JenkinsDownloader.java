@@ -3,7 +3,6 @@ package org.jenkinsci.test.acceptance.resolver;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import com.trilead.ssh2.Connection;
-import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.StringUtils;
 import org.jenkinsci.test.acceptance.machine.Machine;
 import org.jenkinsci.test.acceptance.Ssh;
@@ -15,10 +14,11 @@ import java.io.IOException;
 import java.net.URL;
 
 /**
+ * Lets the machine download jenkins.war into {@link ArtifactStore}.
  *
  * @author Vivek Pandey
  */
-public class JenkinsDownloader implements JenkinsResolver {
+public class JenkinsDownloader implements StoredResolver {
 
     private final String jenkinsWarLocation;
 
@@ -26,6 +26,9 @@ public class JenkinsDownloader implements JenkinsResolver {
     @Named("jenkins_md5_sum")
     private String jenkinsMd5Sum;
 
+    @Inject
+    private ArtifactStore store;
+
     @Inject
     public JenkinsDownloader(@Named("jenkins-war-location")String jenkinsWarLocation) {
         this.jenkinsWarLocation = jenkinsWarLocation;
@@ -33,6 +36,13 @@ public class JenkinsDownloader implements JenkinsResolver {
 
     @Override
     public void materialize(Machine machine, String path) {
+        ArtifactStore.Batch batch = store.batch(machine);
+        materialize(batch, path);
+        batch.materialize();
+    }
+
+    @Override
+    public void materialize(ArtifactStore.Batch batch, String path) {
         if (StringUtils.isBlank(jenkinsMd5Sum)) {
             try {
                 URL url = new URL(jenkinsWarLocation + ".md5");
@@ -45,21 +55,17 @@ public class JenkinsDownloader implements JenkinsResolver {
                 // forget it!
             }
         }
-        try (Ssh ssh = machine.connect()) {
-            if (!remoteFileExists(ssh.getConnection(), path, jenkinsMd5Sum)) {
-                ssh.executeRemoteCommand("mkdir -p " + Ssh.escape(FileUtils.dirname(path)));
-                ssh.executeRemoteCommand(
-                        String.format("wget -q -O %s %s", Ssh.escape(path), Ssh.escape(jenkinsWarLocation)));
-            }
-        }
+        batch.add(jenkinsWarLocation, path, StringUtils.isBlank(jenkinsMd5Sum) ? null : jenkinsMd5Sum);
     }
 
     public static  boolean remoteFileExists(Connection connection, String target, String expectedMd5Sum){
+        if (expectedMd5Sum != null) {
+            // Fails for missing file as well
+            return validateMd5Sum(connection, target, expectedMd5Sum);
+        }
         try {
             int status  = connection.exec(String.format("stat %s > /dev/null 2>&1", Ssh.escape(target)), System.out);
-            if(status == 0){
-                return expectedMd5Sum == null || validateMd5Sum(connection, target, expectedMd5Sum);
-            }
+            return status == 0;
         } catch (IOException | InterruptedException e) {
             logger.error(e.getMessage());
         }
@@ -71,7 +77,7 @@ public class JenkinsDownloader implements JenkinsResolver {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         int status  = 0;
         try {
-            status = connection.exec(String.format("md5sum %s", Ssh.escape(target)), baos);
+            status = connection.exec(String.format("md5sum %s 2>/dev/null", Ssh.escape(target)), baos);
             if(status == 0){
                 String[] values = baos.toString("UTF-8").split(" ");
                 return (values.length > 1 && values[0].equals(expectedMd5Sum));
@@ -3,23 +3,20 @@ package org.jenkinsci.test.acceptance.resolver;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import org.jenkinsci.test.acceptance.machine.Machine;
-import org.jenkinsci.test.acceptance.Ssh;
 
 import java.io.File;
-import java.io.IOException;
 
 /**
- * Uploads war from local to remote
+ * Uploads war from local to remote through {@link ArtifactStore}
  *
  * @author Vivek Pandey
  * @author Kohsuke Kawaguchi
  */
-public class JenkinsUploader implements JenkinsResolver {
+public class JenkinsUploader implements StoredResolver {
     File war;
 
     @Inject
-    @Named("jenkins_md5_sum")
-    private String jenkinsMd5Sum;
+    private ArtifactStore store;
 
 
     @Inject
@@ -32,13 +29,13 @@ public class JenkinsUploader implements JenkinsResolver {
 
     @Override
     public void materialize(Machine machine, String path) {
-        try (Ssh ssh = machine.connect()){
-            File target = new File(path);
-            if(!JenkinsDownloader.remoteFileExists(ssh.getConnection(),path,jenkinsMd5Sum)){
-                ssh.copyTo(war.getPath(), target.getName(), target.getParent());
-            }
-        } catch (IOException e) {
-            throw new AssertionError("Failed to copy "+war+" into "+path,e);
-        }
+        ArtifactStore.Batch batch = store.batch(machine);
+        materialize(batch, path);
+        batch.materialize();
+    }
+
+    @Override
+    public void materialize(ArtifactStore.Batch batch, String path) {
+        batch.add(war, path);
     }
 }
@@ -1,16 +1,18 @@
 package org.jenkinsci.test.acceptance.resolver;
 
-import org.codehaus.plexus.util.FileUtils;
+import com.google.inject.Inject;
 import org.jenkinsci.test.acceptance.machine.Machine;
-import org.jenkinsci.test.acceptance.Ssh;
 
 /**
  * @author Vivek Pandey
  */
-public class PluginDownloader implements JenkinsResolver {
+public class PluginDownloader implements StoredResolver {
 
     private final String pluginPath;
 
+    @Inject
+    private ArtifactStore store;
+
     /**
      * plugin format is PLUGIN_NAME:VERSION format. If VERSION is missing latest version of plugin in installed
      *
@@ -28,13 +30,17 @@ public class PluginDownloader implements JenkinsResolver {
 
     @Override
     public void materialize(Machine machine, String path) {
-        try (Ssh ssh = machine.connect()) {
-            if (!JenkinsDownloader.remoteFileExists(ssh.getConnection(), path, null)) {
-                ssh.executeRemoteCommand("mkdir -p " + Ssh.escape(FileUtils.dirname(path)));
-                ssh.executeRemoteCommand(String.format("wget -q -O %s %s", Ssh.escape(path),
-                        Ssh.escape(pluginPath)));
-            }
+        if (store == null) {
+            throw new IllegalStateException("Members of " + this + " were not injected, materialize into ArtifactStore.Batch instead");
         }
+        ArtifactStore.Batch batch = store.batch(machine);
+        materialize(batch, path);
+        batch.materialize();
+    }
+
+    @Override
+    public void materialize(ArtifactStore.Batch batch, String path) {
+        batch.add(pluginPath, path, null);
     }
 
     private String santizePluginName(String name){
@@ -0,0 +1,11 @@
+package org.jenkinsci.test.acceptance.resolver;
+
+/**
+ * {@link JenkinsResolver} that can transfer its file together with others through {@link ArtifactStore}.
+ */
+public interface StoredResolver extends JenkinsResolver {
+    /**
+     * Add the file to be materialized at the specified path to the batch.
+     */
+    void materialize(ArtifactStore.Batch batch, String path);
+}
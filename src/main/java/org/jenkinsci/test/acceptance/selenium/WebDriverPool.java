@@ -0,0 +1,153 @@
+package org.jenkinsci.test.acceptance.selenium;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.CheckForNull;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jenkinsci.test.acceptance.guice.WorldCleaner;
+import org.jenkinsci.test.acceptance.utils.SystemEnvironmentVariables;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoAlertPresentException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+/**
+ * Browser sessions kept open across tests, as starting a browser takes longer than a lot of the tests.
+ *
+ * <p>
+ * Opt-in via BROWSER_REUSE=true. The session handed back by a test is reset so the next test starts as if in a new
+ * browser: extra windows are closed, cookies and web storage are cleared and <tt>about:blank</tt> is loaded. Session
+ * that fails to reset, or is not responding when taken, is quit instead of being reused. Sessions are only shared among
+ * tests asking for the same key, that is expected to identify browser type and capabilities.
+ */
+@Singleton
+public class WebDriverPool implements Closeable {
+    public static final boolean ENABLED = Boolean.parseBoolean(
+            SystemEnvironmentVariables.getPropertyVariableOrEnvironment("BROWSER_REUSE", "false")
+    );
+
+    /**
+     * Most idle sessions kept per key.
+     */
+    private static final int MAX_IDLE = 4;
+
+    private final Map<String, Deque<WebDriver>> idle = new HashMap<>();
+    private boolean closed;
+
+    @Inject
+    public WebDriverPool(WorldCleaner cleaner) {
+        cleaner.addTask(this);
+    }
+
+    /**
+     * Take a responding session out of the pool.
+     *
+     * @return null if there is none.
+     */
+    public @CheckForNull WebDriver take(String key) {
+        while (true) {
+            WebDriver driver;
+            synchronized (this) {
+                Deque<WebDriver> drivers = idle.get(key);
+                driver = drivers == null ? null : drivers.poll();
+            }
+            if (driver == null) return null;
+
+            try {
+                driver.getWindowHandle();
+                return driver;
+            } catch (RuntimeException ex) { // Not all the drivers throw WebDriverException once gone
+                LOGGER.log(Level.INFO, "Discarding browser session that is not responding", ex);
+                quit(driver);
+            }
+        }
+    }
+
+    /**
+     * Reset the session and keep it for the next test.
+     */
+    public void release(String key, WebDriver driver) {
+        try {
+            reset(driver);
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.INFO, "Discarding browser session that failed to reset", ex);
+            quit(driver);
+            return;
+        }
+
+        synchronized (this) {
+            Deque<WebDriver> drivers = idle.get(key);
+            if (drivers == null) {
+                drivers = new ArrayDeque<>();
+                idle.put(key, drivers);
+            }
+            if (!closed && drivers.size() < MAX_IDLE) {
+                drivers.add(driver);
+                return;
+            }
+        }
+        quit(driver);
+    }
+
+    private static void reset(WebDriver driver) {
+        try {
+            driver.switchTo().alert().dismiss();
+        } catch (NoAlertPresentException ex) {
+            // Expected
+        }
+
+        List<String> handles = new ArrayList<>(driver.getWindowHandles());
+        for (String handle : handles.subList(1, handles.size())) {
+            driver.switchTo().window(handle);
+            driver.close();
+        }
+        driver.switchTo().window(handles.get(0));
+        driver.switchTo().defaultContent();
+
+        driver.manage().deleteAllCookies();
+        if (driver instanceof JavascriptExecutor) {
+            try {
+                ((JavascriptExecutor) driver).executeScript("window.localStorage.clear(); window.sessionStorage.clear();");
+            } catch (WebDriverException ex) {
+                // No storage for the page
+            }
+        }
+        driver.get("about:blank");
+    }
+
+    @Override
+    public void close() {
+        List<WebDriver> drivers = new ArrayList<>();
+        synchronized (this) {
+            closed = true;
+            for (Deque<WebDriver> d : idle.values()) {
+                drivers.addAll(d);
+            }
+            idle.clear();
+        }
+
+        for (WebDriver driver : drivers) {
+            quit(driver);
+        }
+    }
+
+    private static void quit(WebDriver driver) {
+        try {
+            driver.quit();
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.INFO, "Failed to quit browser session", ex);
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(WebDriverPool.class.getName());
+}
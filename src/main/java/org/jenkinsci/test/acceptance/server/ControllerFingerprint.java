@@ -0,0 +1,173 @@
+package org.jenkinsci.test.acceptance.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jenkinsci.test.acceptance.controller.JenkinsController;
+import org.jenkinsci.test.acceptance.controller.LocalController;
+import org.jenkinsci.test.acceptance.controller.WinstoneController;
+import org.jenkinsci.test.acceptance.update_center.PluginSpec;
+import org.jenkinsci.test.acceptance.utils.SHA1Sum;
+
+/**
+ * Identifies the flavor of Jenkins a test needs from {@link JenkinsControllerPoolProcess}.
+ *
+ * Controllers are interchangeable when they run the same jenkins.war (by checksum), with the same plugins
+ * required by the test and the same JVM options.
+ */
+public final class ControllerFingerprint implements Serializable {
+    private final String war;
+    private final String warChecksum;
+    private final List<String> plugins;
+    private final List<String> javaOpts;
+
+    public ControllerFingerprint(File war, Collection<PluginSpec> plugins, List<String> javaOpts) {
+        this.war = war.getAbsolutePath();
+        this.warChecksum = checksum(war);
+
+        TreeSet<String> specs = new TreeSet<>();
+        for (PluginSpec p : plugins) {
+            specs.add(p.toString());
+        }
+        this.plugins = Collections.unmodifiableList(new ArrayList<>(specs));
+        this.javaOpts = Collections.unmodifiableList(new ArrayList<>(javaOpts));
+    }
+
+    public File getWar() {
+        return new File(war);
+    }
+
+    public List<PluginSpec> getPlugins() {
+        List<PluginSpec> specs = new ArrayList<>();
+        for (String p : plugins) {
+            specs.add(new PluginSpec(p));
+        }
+        return specs;
+    }
+
+    public List<String> getJavaOpts() {
+        return javaOpts;
+    }
+
+    /**
+     * Configure freshly created controller to match this fingerprint.
+     */
+    public void applyTo(JenkinsController c) {
+        if (c instanceof LocalController) {
+            ((LocalController) c).setWar(getWar());
+        }
+        if (c instanceof WinstoneController) {
+            ((WinstoneController) c).setJavaOpts(javaOpts);
+        }
+    }
+
+    /**
+     * Estimated memory footprint of the instance in MB, based on -Xmx.
+     *
+     * @param fallback Value to use when there is no -Xmx option.
+     */
+    public int getMemory(int fallback) {
+        for (String opt : javaOpts) {
+            Matcher m = XMX.matcher(opt);
+            if (m.matches()) {
+                long size = Long.parseLong(m.group(1));
+                switch (m.group(2).toLowerCase()) {
+                    case "g": return (int) (size * 1024);
+                    case "m": return (int) size;
+                    case "k": return (int) (size / 1024);
+                    default:  return (int) (size / 1024 / 1024);
+                }
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * Send the fingerprint over the socket before the remoting channel is established.
+     */
+    /*package*/ void writeTo(OutputStream out) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(buf)) {
+            oos.writeObject(this);
+        }
+        DataOutputStream dos = new DataOutputStream(out);
+        dos.writeInt(buf.size());
+        buf.writeTo(dos);
+        dos.flush();
+    }
+
+    /**
+     * Read the fingerprint without consuming any bytes that belong to the remoting channel.
+     */
+    /*package*/ static ControllerFingerprint readFrom(InputStream in) throws IOException {
+        DataInputStream dis = new DataInputStream(in);
+        byte[] data = new byte[dis.readInt()];
+        dis.readFully(data);
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return (ControllerFingerprint) ois.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ControllerFingerprint that = (ControllerFingerprint) o;
+        return warChecksum.equals(that.warChecksum) && plugins.equals(that.plugins) && javaOpts.equals(that.javaOpts);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = warChecksum.hashCode();
+        result = 31 * result + plugins.hashCode();
+        result = 31 * result + javaOpts.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[war=%s, plugins=%s, javaOpts=%s]", getClass().getSimpleName(), war, plugins, javaOpts);
+    }
+
+    /**
+     * Checksums of wars by path, size and timestamp so every test does not have to read the whole war again.
+     */
+    private static final Map<String, String> CHECKSUMS = new HashMap<>();
+
+    private static String checksum(File war) {
+        String key = war.getAbsolutePath() + ":" + war.length() + ":" + war.lastModified();
+        synchronized (CHECKSUMS) {
+            String sum = CHECKSUMS.get(key);
+            if (sum == null) {
+                sum = new SHA1Sum(war).getSha1String();
+                CHECKSUMS.put(key, sum);
+            }
+            return sum;
+        }
+    }
+
+    private static final Pattern XMX = Pattern.compile("-Xmx(\\d+)([kKmMgG]?)");
+
+    private static final long serialVersionUID = 1L;
+}
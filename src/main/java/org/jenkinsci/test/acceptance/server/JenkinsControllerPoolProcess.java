@@ -12,24 +12,36 @@ import org.jenkinsci.test.acceptance.FallbackConfig;
 import org.jenkinsci.test.acceptance.controller.IJenkinsController;
 import org.jenkinsci.test.acceptance.controller.JenkinsController;
 import org.jenkinsci.test.acceptance.controller.JenkinsControllerFactory;
+import org.jenkinsci.test.acceptance.controller.WinstoneController;
 import org.jenkinsci.test.acceptance.guice.TestCleaner;
 import org.jenkinsci.test.acceptance.guice.TestLifecycle;
 import org.jenkinsci.test.acceptance.guice.World;
+import org.jenkinsci.test.acceptance.junit.RequiredPlugins;
+import org.jenkinsci.test.acceptance.update_center.PluginSpec;
 import org.kohsuke.args4j.CmdLineException;
 import org.kohsuke.args4j.CmdLineParser;
 import org.kohsuke.args4j.Option;
 
+import javax.annotation.CheckForNull;
 import javax.inject.Inject;
+import javax.inject.Named;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingDeque;
-import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Pre-launch {@link JenkinsController} so that tests can use them without waiting.
@@ -39,6 +51,12 @@ import java.util.concurrent.SynchronousQueue;
  * During development of tests, a test VM would come and go quickly. This design helps them maintain efficiency
  * in such a situation.
  *
+ * <p>
+ * Tests ask for a particular flavor of Jenkins identified by {@link ControllerFingerprint}. Each fingerprint has
+ * its own pool of pre-launched instances that is created on first request. Instances of all pools are launched
+ * concurrently, bounded by the configured parallelism and memory budget. When the budget is exhausted and a client
+ * is waiting for an instance, idle instances of the pools nobody is waiting for are stopped to make room.
+ *
  * @see docs/PRELAUNCH.md
  * @author Kohsuke Kawaguchi
  */
@@ -52,16 +70,38 @@ public class JenkinsControllerPoolProcess {
     @Inject
     TestLifecycle lifecycle;
 
-    private BlockingQueue<QueueItem> queue;
+    @Inject @Named("jenkins.war")
+    File war;
 
-    @Option(name="-n",usage="Number of instances to pool. >=1.")
+    @Option(name="-n",usage="Number of instances to pool for every fingerprint. >=1.")
     public int n = Integer.getInteger("count",1);
 
+    @Option(name="-parallelism",usage="Number of instances to launch concurrently across all pools. >=1.")
+    public int parallelism = Integer.getInteger("parallelism",1);
+
+    @Option(name="-memory",usage="Memory budget in MB for pooled and handed out instances. 0 for unlimited.")
+    public int memory = Integer.getInteger("memory",0);
+
+    @Option(name="-instanceMemory",usage="Memory in MB to account for an instance without -Xmx in its JAVA_OPTS.")
+    public int instanceMemory = Integer.getInteger("instanceMemory",1024);
+
+    @Option(name="-pools",usage="Number of fingerprints to keep pools for. Least recently used pool is discarded.")
+    public int maxPools = Integer.getInteger("pools",4);
+
     @Option(name="-socket",usage="Unix domain socket file to communicate with client")
     public File socket = SOCKET;
 
     private final ExecutorService executors = Executors.newCachedThreadPool();
 
+    /**
+     * Pools by fingerprint in the order of access.
+     */
+    private final LinkedHashMap<ControllerFingerprint, Pool> pools = new LinkedHashMap<>(16, 0.75f, true);
+
+    private Semaphore launchSlots;
+
+    private MemoryBudget budget;
+
     public static void main(String[] args) throws Exception {
         MAIN = true;
         JenkinsControllerPoolProcess proc = new JenkinsControllerPoolProcess();
@@ -77,41 +117,47 @@ public class JenkinsControllerPoolProcess {
     }
 
     public void run() throws Exception {
-        // there's always one process that's waiting to be in the queue,
-        // so the actual length of the queue has to be n-1.
-        if (n==1)
-            queue = new SynchronousQueue<>();
-        else
-            queue = new LinkedBlockingDeque<>(n-1);
-
         World w = World.get();
         w.getInjector().injectMembers(this);
+        init();
 
-        new Thread() {
-            /**
-             * Just keeps on creating new controllers and put it into the queue.
-             * Because queue is blocking, this will only prelaunch up to 3.
-             */
-            @Override
-            public void run() {
-                try {
-                    FallbackConfig f = new FallbackConfig();
-                    while (true) {
-                        lifecycle.startTestScope();
-                        JenkinsController c = f.createController(injector,factories);
-                        c.start();
-                        queue.put(new QueueItem(c,lifecycle.export()));
-                    }
-                } catch (Throwable e) {
-                    // fail fatally
-                    e.printStackTrace();
-                    System.exit(1);
-                }
-            }
-        }.start();
+        // Start with the flavor the server is configured with, it is the one clients are most likely to ask for
+        getPool(new ControllerFingerprint(war, Collections.<PluginSpec>emptyList(), WinstoneController.getDefaultJavaOpts()));
 
         processServerSocket();
+    }
 
+    /*package*/ void init() {
+        launchSlots = new Semaphore(parallelism);
+        budget = new MemoryBudget(memory);
+    }
+
+    /**
+     * Get pool for given fingerprint, creating it if needed.
+     */
+    private Pool getPool(ControllerFingerprint fingerprint) {
+        List<Pool> evicted = new ArrayList<>();
+        Pool pool;
+        synchronized (pools) {
+            pool = pools.get(fingerprint);
+            if (pool == null || pool.failure != null) {
+                pool = new Pool(fingerprint);
+                pools.put(fingerprint, pool);
+                pool.start();
+
+                Iterator<Pool> it = pools.values().iterator();
+                while (pools.size() > maxPools) {
+                    evicted.add(it.next());
+                    it.remove();
+                }
+            }
+        }
+
+        for (Pool p : evicted) {
+            System.out.println("Discarding pool for " + p.fingerprint);
+            p.shutdown();
+        }
+        return pool;
     }
 
     /**
@@ -130,13 +176,31 @@ public class JenkinsControllerPoolProcess {
             while (true) {
                 final UnixSocketChannel c = channel.accept();
                 System.out.println("Accepted");
-                final QueueItem qi = queue.take();
-                final JenkinsController j = qi.controller;
-                System.out.println("Handed out "+j.getUrl());
 
                 new Thread("Connection handling thread") {
                     @Override
                     public void run() {
+                        QueueItem qi;
+                        try {
+                            ControllerFingerprint fingerprint = ControllerFingerprint.readFrom(ChannelStream.in(c));
+                            System.out.println("Requested " + fingerprint);
+                            do {
+                                // Pool discarded while waiting, ask the one that replaced it
+                                qi = getPool(fingerprint).take();
+                            } while (qi == null);
+                        } catch (IOException | InterruptedException e) {
+                            e.printStackTrace();
+                            try {
+                                c.close();
+                            } catch (IOException _) {
+                                // ignore
+                            }
+                            return;
+                        }
+
+                        final JenkinsController j = qi.controller;
+                        System.out.println("Handed out "+j.getUrl());
+
                         lifecycle.import_(qi.testScope);
                         try {
                             processConnection(c, j);
@@ -145,6 +209,7 @@ public class JenkinsControllerPoolProcess {
                             if (scope!=null)
                                 scope.performCleanUp();
                             lifecycle.endTestScope();
+                            budget.release(qi.memory);
                         }
                     }
                 }.start();
@@ -179,6 +244,21 @@ public class JenkinsControllerPoolProcess {
         }
     }
 
+    /**
+     * Destroy instance that was never handed out.
+     */
+    /*package*/ void discard(QueueItem qi) {
+        lifecycle.import_(qi.testScope);
+        try {
+            qi.controller.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            lifecycle.endTestScope();
+            budget.release(qi.memory);
+        }
+    }
+
     public static final File SOCKET = new File(System.getProperty("user.home"),"jenkins.sock");
     /**
      * Are we running the JUT server?
@@ -188,10 +268,213 @@ public class JenkinsControllerPoolProcess {
     static class QueueItem {
         final JenkinsController controller;
         final Map testScope;
+        /**
+         * Memory accounted for the instance in {@link MemoryBudget}.
+         */
+        final int memory;
 
-        QueueItem(JenkinsController controller, Map testScope) {
+        QueueItem(JenkinsController controller, Map testScope, int memory) {
             this.controller = controller;
             this.testScope = testScope;
+            this.memory = memory;
+        }
+    }
+
+    /**
+     * Launch instance matching the fingerprint, waiting for the memory budget.
+     *
+     * @param requester Pool to launch for, its waiting clients justify evicting idle instances of other pools.
+     */
+    /*package*/ QueueItem launch(ControllerFingerprint fingerprint, @CheckForNull Pool requester) throws Exception {
+        int mem = fingerprint.getMemory(instanceMemory);
+        while (!budget.tryAcquire(mem)) {
+            if (requester == null || requester.waiting.get() == 0 || !evictIdle(requester)) {
+                budget.awaitRelease(1000); // Check again for clients that came in the meantime
+            }
+        }
+
+        launchSlots.acquire();
+        JenkinsController c = null;
+        try {
+            lifecycle.startTestScope();
+            injector.getInstance(RequiredPlugins.class).set(fingerprint.getPlugins());
+            c = new FallbackConfig().createController(injector, factories);
+            // Replaces the plugins set up for the default war by postConstruct
+            fingerprint.applyTo(c);
+            c.start();
+            return new QueueItem(c, lifecycle.export(), mem);
+        } catch (Exception e) {
+            if (c != null) {
+                try {
+                    c.close();
+                } catch (IOException x) {
+                    e.addSuppressed(x);
+                }
+            }
+            lifecycle.endTestScope();
+            budget.release(mem);
+            throw e;
+        } finally {
+            launchSlots.release();
+        }
+    }
+
+    /**
+     * Stop an idle instance of the least recently used pool no client is waiting for.
+     *
+     * @return false if there is none.
+     */
+    private boolean evictIdle(Pool requester) {
+        List<Pool> candidates;
+        synchronized (pools) {
+            candidates = new ArrayList<>(pools.values());
+        }
+        for (Pool p : candidates) {
+            if (p == requester || p.waiting.get() > 0) continue;
+
+            QueueItem qi = p.queue.poll();
+            if (qi != null) {
+                System.out.println("Stopping idle instance of " + p.fingerprint + " to make room for " + requester.fingerprint);
+                discard(qi);
+                p.room.release();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Pre-launched instances matching one {@link ControllerFingerprint}.
+     */
+    private final class Pool {
+        final ControllerFingerprint fingerprint;
+
+        /**
+         * Launched instances, all of them idle. Instance being launched is not here until it is ready.
+         */
+        final BlockingQueue<QueueItem> queue = new LinkedBlockingDeque<>();
+
+        /**
+         * Number of instances that can be launched before the pool is full.
+         */
+        final Semaphore room = new Semaphore(n);
+
+        /**
+         * Clients waiting for an instance.
+         */
+        final AtomicInteger waiting = new AtomicInteger();
+
+        private final Thread producer;
+
+        /**
+         * Set when the instance can not be launched, clients waiting for it are turned down.
+         */
+        volatile Throwable failure;
+
+        /**
+         * Set when the pool was discarded, clients waiting for it are sent to the current pool.
+         */
+        volatile boolean closed;
+
+        Pool(ControllerFingerprint fingerprint) {
+            this.fingerprint = fingerprint;
+
+            producer = new Thread("Prelaunching " + fingerprint) {
+                /**
+                 * Launches instances as long as there is room in the pool. Nothing is held while waiting for room,
+                 * so instances of other pools can take the memory budget in the meantime.
+                 */
+                @Override
+                public void run() {
+                    try {
+                        while (true) {
+                            room.acquire();
+                            queue.add(launch(Pool.this.fingerprint, Pool.this));
+                            if (closed) {
+                                drain();
+                                return;
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        // Pool discarded
+                    } catch (Throwable e) {
+                        System.err.println("Failed to launch " + Pool.this.fingerprint);
+                        e.printStackTrace();
+                        failure = e;
+                    }
+                }
+            };
+        }
+
+        void start() {
+            producer.start();
+        }
+
+        /**
+         * Wait for pre-launched instance.
+         *
+         * @return null when the pool was discarded in the meantime.
+         */
+        @CheckForNull QueueItem take() throws InterruptedException, IOException {
+            waiting.incrementAndGet();
+            try {
+                while (true) {
+                    if (closed) return null;
+                    QueueItem qi = queue.poll(1, TimeUnit.SECONDS);
+                    if (qi != null) {
+                        room.release();
+                        return qi;
+                    }
+                    if (failure != null) {
+                        throw new IOException("Unable to launch " + fingerprint, failure);
+                    }
+                }
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+
+        void shutdown() {
+            closed = true;
+            producer.interrupt();
+            drain();
+        }
+
+        private void drain() {
+            QueueItem qi;
+            while ((qi = queue.poll()) != null) {
+                discard(qi);
+            }
+        }
+    }
+
+    /**
+     * Memory reserved for launched instances.
+     */
+    private static final class MemoryBudget {
+        private final int total;
+        private int used;
+
+        MemoryBudget(int total) {
+            this.total = total;
+        }
+
+        synchronized boolean tryAcquire(int mb) {
+            if (total <= 0) return true;
+            // A single instance is let in even if it does not fit, otherwise the pool would never make progress
+            if (used > 0 && used + mb > total) return false;
+            used += mb;
+            return true;
+        }
+
+        synchronized void awaitRelease(long millis) throws InterruptedException {
+            wait(millis);
+        }
+
+        synchronized void release(int mb) {
+            if (total <= 0) return;
+            used -= mb;
+            notifyAll();
         }
     }
 }
@@ -1,6 +1,7 @@
 package org.jenkinsci.test.acceptance.server;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
@@ -12,6 +13,8 @@ import org.jenkinsci.remoting.RoleChecker;
 import org.jenkinsci.test.acceptance.controller.IJenkinsController;
 import org.jenkinsci.test.acceptance.controller.JenkinsController;
 import org.jenkinsci.test.acceptance.controller.LocalController.LocalFactoryImpl;
+import org.jenkinsci.test.acceptance.controller.WinstoneController;
+import org.jenkinsci.test.acceptance.junit.RequiredPlugins;
 import org.jenkinsci.test.acceptance.log.LogListenable;
 import org.jenkinsci.test.acceptance.log.LogListener;
 import org.jenkinsci.test.acceptance.log.LogPrinter;
@@ -42,6 +45,10 @@ public class PooledJenkinsController extends JenkinsController implements LogLis
     private Channel channel;
     private IJenkinsController controller;
     private final List<byte[]> toUnpack = new LinkedList<>();
+    private final Injector injector;
+
+    @Inject @Named("jenkins.war")
+    private File war;
 
     @Inject
     public PooledJenkinsController(Injector i) {
@@ -51,6 +58,18 @@ public class PooledJenkinsController extends JenkinsController implements LogLis
     public PooledJenkinsController(Injector i, File socket) {
         super(i);
         this.socket = socket;
+        this.injector = i;
+    }
+
+    /**
+     * Flavor of Jenkins to ask the pool for.
+     */
+    private ControllerFingerprint getFingerprint() {
+        return new ControllerFingerprint(
+                war,
+                injector.getInstance(RequiredPlugins.class).get(),
+                WinstoneController.getDefaultJavaOpts()
+        );
     }
 
     @Override
@@ -68,6 +87,7 @@ public class PooledJenkinsController extends JenkinsController implements LogLis
 
         UnixSocketAddress address = new UnixSocketAddress(socket);
         conn = UnixSocketChannel.open(address);
+        getFingerprint().writeTo(ChannelStream.out(conn));
 
         channel = new ChannelBuilder("JenkinsPool", Executors.newCachedThreadPool())
                 .withMode(Mode.BINARY)
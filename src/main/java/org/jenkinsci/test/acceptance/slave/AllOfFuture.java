@@ -0,0 +1,63 @@
+package org.jenkinsci.test.acceptance.slave;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Completes once all the futures have, with their results in order.
+ */
+/*package*/ final class AllOfFuture<T> implements Future<List<T>> {
+    private final List<? extends Future<? extends T>> futures;
+
+    /*package*/ AllOfFuture(List<? extends Future<? extends T>> futures) {
+        this.futures = futures;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = false;
+        for (Future<? extends T> f : futures) {
+            cancelled |= f.cancel(mayInterruptIfRunning);
+        }
+        return cancelled;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        for (Future<? extends T> f : futures) {
+            if (f.isCancelled()) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isDone() {
+        for (Future<? extends T> f : futures) {
+            if (!f.isDone()) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public List<T> get() throws InterruptedException, ExecutionException {
+        List<T> results = new ArrayList<>(futures.size());
+        for (Future<? extends T> f : futures) {
+            results.add(f.get());
+        }
+        return results;
+    }
+
+    @Override
+    public List<T> get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        List<T> results = new ArrayList<>(futures.size());
+        for (Future<? extends T> f : futures) {
+            results.add(f.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+        }
+        return results;
+    }
+}
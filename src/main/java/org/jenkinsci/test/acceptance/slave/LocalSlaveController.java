@@ -3,9 +3,14 @@ package org.jenkinsci.test.acceptance.slave;
 import org.apache.http.concurrent.BasicFuture;
 import org.jenkinsci.test.acceptance.po.DumbSlave;
 import org.jenkinsci.test.acceptance.po.Jenkins;
+import org.jenkinsci.test.acceptance.po.PageObject;
 import org.jenkinsci.test.acceptance.po.Slave;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Future;
 
 /**
@@ -30,6 +35,27 @@ public class LocalSlaveController extends SlaveController {
         return b;
     }
 
+    /**
+     * Creates all the nodes in a single request. They launch concurrently.
+     */
+    @Override
+    public Future<List<Slave>> install(Jenkins jenkins, int count) {
+        Map<String, String> commands = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            commands.put(PageObject.createRandomName(), DumbSlave.localLaunchCommand(jenkins));
+        }
+
+        List<Future<Slave>> futures = new ArrayList<>();
+        for (DumbSlave s : jenkins.slaves.create(commands)) {
+            s.waitUntilOnline();
+
+            BasicFuture<Slave> f = new BasicFuture<>(null);
+            f.completed(s);
+            futures.add(f);
+        }
+        return new AllOfFuture<>(futures);
+    }
+
     @Override
     public void close() throws IOException {
 
@@ -2,6 +2,8 @@ package org.jenkinsci.test.acceptance.slave;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Future;
 
 import org.apache.http.concurrent.BasicFuture;
@@ -63,6 +65,22 @@ public abstract class SlaveController extends CapybaraPortingLayerImpl implement
      */
     public abstract Future<Slave> install(Jenkins jenkinsToInstallTo);
 
+    /**
+     * Creates several nodes and lets them all connect at the same time.
+     * <p/>
+     * The default implementation installs the slaves one by one, only waiting for them to come online together.
+     * Implementations that can should create all the nodes in one go.
+     * <p/>
+     * When the {@link Future#get()} method returns successfully, all the slaves are fully online and ready to use.
+     */
+    public Future<List<Slave>> install(Jenkins jenkinsToInstallTo, int count) {
+        List<Future<Slave>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            futures.add(install(jenkinsToInstallTo));
+        }
+        return new AllOfFuture<>(futures);
+    }
+
     /**
      * Stops the slave from the slave side, for those slave launch methods that support it.
      * <p/>
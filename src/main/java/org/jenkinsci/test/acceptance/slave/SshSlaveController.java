@@ -10,6 +10,7 @@ import org.jenkinsci.test.acceptance.plugins.ssh_credentials.SshPrivateKeyCreden
 import org.jenkinsci.test.acceptance.po.DumbSlave;
 import org.jenkinsci.test.acceptance.po.Jenkins;
 import org.jenkinsci.test.acceptance.po.Slave;
+import org.jenkinsci.test.acceptance.po.SlaveOnlineWatcher;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.Select;
 import org.slf4j.Logger;
@@ -71,6 +72,7 @@ public class SshSlaveController extends SlaveController {
         }
 
         final Slave s = create(machine.getPublicIpAddress(), j);
+        final SlaveOnlineWatcher watcher = new SlaveOnlineWatcher(s);
 
         //Slave is configured, now wait till its online
         return new Future<Slave>(){
@@ -87,12 +89,12 @@ public class SshSlaveController extends SlaveController {
 
             @Override
             public boolean isDone() {
-                return slaveWaitComplete.get() || s.isOnline();
+                return slaveWaitComplete.get() || watcher.poll();
             }
 
             @Override
             public Slave get() throws InterruptedException, ExecutionException {
-                waitForOnLineSlave(s, slaveReadyTimeOutInSec);
+                waitForOnLineSlave(watcher, slaveReadyTimeOutInSec);
                 return s;
             }
 
@@ -101,7 +103,7 @@ public class SshSlaveController extends SlaveController {
                 if(unit != TimeUnit.SECONDS){
                     timeout = unit.toSeconds(timeout);
                 }
-                waitForOnLineSlave(s, (int) timeout);
+                waitForOnLineSlave(watcher, (int) timeout);
                 return s;
 
             }
@@ -110,32 +112,15 @@ public class SshSlaveController extends SlaveController {
 
     @Override
     public void close() throws IOException {
-        //exit from wait if any
-        if(!slaveWaitComplete.get()){
-            slaveWaitComplete.set(true);
-            elasticSleep(1000);
-        }
+        slaveWaitComplete.set(true);
         stop();
         machine.close();
     }
 
-    private void waitForOnLineSlave(final Slave s, int timeout){
+    private void waitForOnLineSlave(SlaveOnlineWatcher watcher, int timeout){
         logger.info(String.format("Wait for the new slave %s to come online in %s seconds",machine.getId(), timeout));
-        try {
-            long endTime = System.currentTimeMillis()+ TimeUnit.SECONDS.toMillis(timeout);
-            while (System.currentTimeMillis()<endTime) {
-                if(s.isOnline()){
-                    slaveWaitComplete.set(true);
-                    return;
-                }
-                elasticSleep(1000);
-            }
-            throw new org.openqa.selenium.TimeoutException(String.format("Slave could not be online in %s seconds",timeout));
-        } catch (RuntimeException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new Error(String.format("An exception occurred while waiting for slave to be online in %s seconds",timeout),e);
-        }
+        watcher.await(timeout, TimeUnit.SECONDS);
+        slaveWaitComplete.set(true);
     }
 
     private Slave create(String host, Jenkins j) {
@@ -145,8 +130,6 @@ public class SshSlaveController extends SlaveController {
 
         s.find(by.input("_.host")).sendKeys(host);
 
-        elasticSleep(25);
-
         final Select cId = new Select(s.find(by.input("_.credentialsId")));
         final String credentialName = String.format("%s (%s)", machine.getUser(), fingerprint);
         waitFor().until(new Callable<Object>() {
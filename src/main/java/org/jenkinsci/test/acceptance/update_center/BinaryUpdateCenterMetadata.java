@@ -0,0 +1,148 @@
+package org.jenkinsci.test.acceptance.update_center;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.CheckForNull;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Compact form of {@link UpdateCenterMetadata} to be loaded by test JVMs faster than the update center JSON.
+ *
+ * <p>
+ * Only the fields the harness binds are kept. All strings are stored once in a table and referred to by index, as
+ * names and versions repeat a lot among dependencies. The file records length and timestamp of the JSON it was
+ * created from so it is recreated once the JSON is refreshed.
+ */
+/*package*/ final class BinaryUpdateCenterMetadata {
+    private static final int MAGIC = 0x55434d44;
+    private static final int FORMAT = 1;
+
+    private BinaryUpdateCenterMetadata() {}
+
+    /**
+     * @return null in case the file does not exist, is damaged, or was created from a different source.
+     */
+    /*package*/ static @CheckForNull UpdateCenterMetadata read(File file, File source) {
+        if (!file.exists()) return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT) return null;
+            if (in.readLong() != source.length() || in.readLong() != source.lastModified()) return null;
+
+            String[] strings = new String[in.readInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = in.readUTF();
+            }
+
+            String id = string(strings, in.readInt());
+            int count = in.readInt();
+            Map<String, PluginMetadata> plugins = new HashMap<>(count * 4 / 3 + 1);
+            for (int i = 0; i < count; i++) {
+                String name = string(strings, in.readInt());
+                String gav = string(strings, in.readInt());
+                String version = string(strings, in.readInt());
+                String requiredCore = string(strings, in.readInt());
+                int deps = in.readInt();
+                List<Dependency> dependencies = new ArrayList<>(deps);
+                for (int d = 0; d < deps; d++) {
+                    dependencies.add(new Dependency(string(strings, in.readInt()), string(strings, in.readInt()), in.readBoolean()));
+                }
+                plugins.put(name, new PluginMetadata(name, gav, version, requiredCore, dependencies));
+            }
+            return UpdateCenterMetadata.get(id, plugins);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Unable to read " + file + ", recreating", e);
+            return null;
+        }
+    }
+
+    /**
+     * Write the metadata aside and move it in place, so concurrent readers never see partial file.
+     */
+    /*package*/ static void write(UpdateCenterMetadata ucm, File file, File source) throws IOException {
+        Map<String, Integer> index = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+
+        File tmp = new File(file.getPath() + ".tmp" + System.nanoTime());
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 64 * 1024))) {
+                // Index strings first so the table can precede the data
+                intern(index, strings, ucm.id);
+                for (PluginMetadata p : ucm.plugins.values()) {
+                    intern(index, strings, p.getName());
+                    intern(index, strings, p.getGav());
+                    intern(index, strings, p.getVersion());
+                    intern(index, strings, p.getRequiredCore());
+                    for (Dependency d : p.getDependencies()) {
+                        intern(index, strings, d.name);
+                        intern(index, strings, d.version);
+                    }
+                }
+
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                out.writeLong(source.length());
+                out.writeLong(source.lastModified());
+
+                out.writeInt(strings.size());
+                for (String s : strings) {
+                    out.writeUTF(s);
+                }
+
+                out.writeInt(ref(index, ucm.id));
+                out.writeInt(ucm.plugins.size());
+                for (PluginMetadata p : ucm.plugins.values()) {
+                    out.writeInt(ref(index, p.getName()));
+                    out.writeInt(ref(index, p.getGav()));
+                    out.writeInt(ref(index, p.getVersion()));
+                    out.writeInt(ref(index, p.getRequiredCore()));
+                    out.writeInt(p.getDependencies().size());
+                    for (Dependency d : p.getDependencies()) {
+                        out.writeInt(ref(index, d.name));
+                        out.writeInt(ref(index, d.version));
+                        out.writeBoolean(d.optional);
+                    }
+                }
+            }
+
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            FileUtils.deleteQuietly(tmp);
+        }
+    }
+
+    private static void intern(Map<String, Integer> index, List<String> strings, String s) {
+        if (s != null && !index.containsKey(s)) {
+            index.put(s, strings.size());
+            strings.add(s);
+        }
+    }
+
+    private static int ref(Map<String, Integer> index, String s) {
+        return s == null ? -1 : index.get(s);
+    }
+
+    private static String string(String[] strings, int ref) throws IOException {
+        if (ref == -1) return null;
+        if (ref < 0 || ref >= strings.length) throw new IOException("Invalid string reference " + ref);
+        return strings[ref];
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(BinaryUpdateCenterMetadata.class.getName());
+}
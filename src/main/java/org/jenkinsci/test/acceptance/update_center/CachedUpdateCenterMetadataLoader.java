@@ -9,16 +9,36 @@ import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Parses update-center.json.html possibly from a cache and determine plugins to install.
  *
+ * <p>
+ * The cached JSON is revalidated against the update center at most once an hour, using conditional request so it is
+ * only transferred when changed. In case the update center can not be reached, stale cache is used. The parsed
+ * metadata is kept next to the JSON in {@linkplain BinaryUpdateCenterMetadata compact form} so other test JVMs
+ * do not need to parse the JSON again.
+ *
  * @author Kohsuke Kawaguchi
  */
 @Singleton
 public class CachedUpdateCenterMetadataLoader implements Provider<UpdateCenterMetadata>, javax.inject.Provider<UpdateCenterMetadata> {
+    private static final Logger LOGGER = Logger.getLogger(CachedUpdateCenterMetadataLoader.class.getName());
+
+    /**
+     * How often to ask update center for changes.
+     */
+    private static final long CHECK_INTERVAL = TimeUnit.HOURS.toMillis(1);
+
     UpdateCenterMetadata metadata;
 
     @Inject(optional=true) @Named("update_center_url_cache")
@@ -34,18 +54,107 @@ public class CachedUpdateCenterMetadataLoader implements Provider<UpdateCenterMe
     public UpdateCenterMetadata get() {
         try {
             if (metadata==null) {
-                if (!cache.exists() || System.currentTimeMillis()-cache.lastModified() > TimeUnit.DAYS.toMillis(1)) {
-                    // load cache
-                    FileUtils.copyURLToFile(new URL(url),cache);
-                }
-                metadata = UpdateCenterMetadata.parse(cache);
+                refresh();
+                metadata = load();
                 for (UpdateCenterMetadataDecorator decorator : decorators) {
                     decorator.decorate(metadata);
                 }
+                metadata.pluginsModified();
             }
             return metadata;
         } catch (IOException e) {
             throw new AssertionError("Failed to parse update center data of "+url+" at "+cache, e);
         }
     }
+
+    /**
+     * Download the JSON in case it has changed.
+     */
+    private void refresh() throws IOException {
+        File checked = new File(cache.getPath() + ".etag");
+        if (cache.exists() && System.currentTimeMillis() - checked.lastModified() < CHECK_INTERVAL) return;
+
+        long start = System.nanoTime();
+        try {
+            URLConnection connection = new URL(url).openConnection();
+            if (!(connection instanceof HttpURLConnection)) {
+                // Local file or alike, nothing to save by asking conditionally
+                download(connection);
+                FileUtils.touch(checked);
+                return;
+            }
+
+            HttpURLConnection con = (HttpURLConnection) connection;
+            if (cache.exists()) {
+                con.setIfModifiedSince(cache.lastModified());
+                if (checked.exists()) {
+                    String etag = FileUtils.readFileToString(checked).trim();
+                    if (!etag.isEmpty()) {
+                        con.setRequestProperty("If-None-Match", etag);
+                    }
+                }
+            }
+
+            int code = con.getResponseCode();
+            if (code == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                LOGGER.info(String.format("Update center metadata %s not modified, checked in %d ms", cache, millis(start)));
+            } else if (code == HttpURLConnection.HTTP_OK) {
+                download(con);
+                LOGGER.info(String.format("Update center metadata %s downloaded in %d ms", cache, millis(start)));
+            } else {
+                throw new IOException("Server returned HTTP response code: " + code + " for URL: " + url);
+            }
+
+            String etag = con.getHeaderField("ETag");
+            FileUtils.writeStringToFile(checked, etag == null ? "" : etag);
+        } catch (IOException e) {
+            if (!cache.exists()) throw e;
+            LOGGER.log(Level.WARNING, "Unable to refresh update center metadata from " + url + ", using stale " + cache, e);
+        }
+    }
+
+    /**
+     * Download aside so concurrent JVMs never see incomplete file.
+     */
+    private void download(URLConnection con) throws IOException {
+        File tmp = new File(cache.getPath() + ".tmp" + System.nanoTime());
+        try {
+            try (InputStream in = con.getInputStream()) {
+                FileUtils.copyInputStreamToFile(in, tmp);
+            }
+            Files.move(tmp.toPath(), cache.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            FileUtils.deleteQuietly(tmp);
+        }
+    }
+
+    /**
+     * Load the compact form of the JSON, creating it if needed.
+     */
+    private UpdateCenterMetadata load() throws IOException {
+        File binary = new File(cache.getPath() + ".bin");
+
+        long start = System.nanoTime();
+        UpdateCenterMetadata ucm = BinaryUpdateCenterMetadata.read(binary, cache);
+        if (ucm != null) {
+            LOGGER.info(String.format("Update center metadata loaded from %s in %d ms (warm)", binary, millis(start)));
+            return ucm;
+        }
+
+        ucm = UpdateCenterMetadata.parse(cache);
+        long parsed = millis(start);
+        try {
+            BinaryUpdateCenterMetadata.write(ucm, binary, cache);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to write " + binary, e);
+        }
+        LOGGER.info(String.format(
+                "Update center metadata parsed from %s in %d ms (cold), %d ms including writing %s", cache, parsed, millis(start), binary
+        ));
+        return ucm;
+    }
+
+    private static long millis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
 }
@@ -0,0 +1,253 @@
+package org.jenkinsci.test.acceptance.update_center;
+
+import hudson.util.VersionNumber;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.CheckForNull;
+
+import org.jenkinsci.test.acceptance.update_center.UpdateCenterMetadata.UnableToResolveDependencies;
+
+import com.google.common.base.Predicate;
+
+/**
+ * Resolves dependency closures of plugins in {@link UpdateCenterMetadata}.
+ *
+ * <p>
+ * The graph of mandatory dependencies is indexed once, walking it in topological order to find dependency cycles
+ * up front. Closures are then memoized per plugin, version and core, so plugins sharing dependencies do not walk
+ * the same subgraph over and over. Closures depending on what is installed already are only memoized for the duration
+ * of a single resolution.
+ *
+ * @see UpdateCenterMetadata#transitiveDependenciesOf(VersionNumber, Collection)
+ */
+/*package*/ final class DependencyResolver {
+    private final Map<String, PluginMetadata> plugins;
+    private final Map<String, Node> nodes = new HashMap<>();
+
+    /**
+     * Closures resolved for Jenkins without plugins.
+     */
+    private final Map<Key, List<PluginMetadata>> closures = new ConcurrentHashMap<>();
+
+    /*package*/ DependencyResolver(Map<String, PluginMetadata> plugins) {
+        this.plugins = plugins;
+
+        for (PluginMetadata p : plugins.values()) {
+            String name = p.getName().intern();
+            nodes.put(name, new Node(name, p));
+        }
+        for (Node n : nodes.values()) {
+            for (Dependency d : n.metadata.getDependencies()) {
+                if (d.optional) continue;
+                n.edges.add(new Edge(d, nodes.get(d.name)));
+            }
+        }
+
+        detectCycles();
+    }
+
+    /**
+     * Whether this indexes the given map. Changes made to the map since are not detected.
+     */
+    /*package*/ boolean isFor(Map<String, PluginMetadata> plugins) {
+        return this.plugins == plugins;
+    }
+
+    /**
+     * @param core Version of Jenkins to install to.
+     * @param filter Dependencies to include, null for all.
+     * @param target Jenkins to install to, for diagnostics.
+     */
+    /*package*/ List<PluginMetadata> resolve(
+            VersionNumber core, @CheckForNull Predicate<Dependency> filter, Collection<PluginSpec> plugins, Object target
+    ) {
+        Map<Key, List<PluginMetadata>> memo = filter == null ? closures : new HashMap<Key, List<PluginMetadata>>();
+
+        Map<String, PluginMetadata> result = new LinkedHashMap<>();
+        for (PluginSpec n : plugins) {
+            Node node = nodes.get(n.getName());
+            if (node == null) throw new IllegalArgumentException("No such plugin " + n.getName());
+            if (node.requiredCore().isNewerThan(core)) {
+                throw new UnableToResolveDependencies(String.format(
+                        "Unable to install %s plugin because of core dependency. Required: %s Used: %s",
+                        node.metadata, node.requiredCore(), target
+                ));
+            }
+
+            addAll(result, closure(node, n.getVersion(), core, filter, memo));
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    /**
+     * The plugin preceded by all its dependencies, in the order of installation.
+     */
+    private List<PluginMetadata> closure(
+            Node node, String version, VersionNumber core, Predicate<Dependency> filter, Map<Key, List<PluginMetadata>> memo
+    ) {
+        if (node.cycle != null) {
+            throw new UnableToResolveDependencies("Unable to install " + node.metadata + " because of dependency cycle " + node.cycle);
+        }
+
+        Key key = new Key(node.name, version, core);
+        List<PluginMetadata> closure = memo.get(key);
+        if (closure != null) return closure;
+
+        Map<String, PluginMetadata> result = new LinkedHashMap<>();
+        for (Edge e : node.edges) {
+            if (filter != null && !filter.apply(e.dependency)) continue;
+            if (e.target == null) {
+                throw new UnableToResolveDependencies(String.format(
+                        "Unable to install dependency '%s' for '%s': plugin not found", e.dependency, node.metadata
+                ));
+            }
+            addAll(result, closure(e.target, e.dependency.version, core, filter, memo));
+        }
+
+        if (!result.containsKey(node.name)) {
+            // If latest version is too new for current Jenkins, use the declared one
+            result.put(node.name, node.requiredCore().isNewerThan(core)
+                    ? node.metadata.withVersion(version)
+                    : node.metadata
+            );
+        }
+
+        closure = Collections.unmodifiableList(new ArrayList<>(result.values()));
+        memo.put(key, closure);
+        return closure;
+    }
+
+    private static void addAll(Map<String, PluginMetadata> result, List<PluginMetadata> plugins) {
+        for (PluginMetadata p : plugins) {
+            if (!result.containsKey(p.getName())) {
+                result.put(p.getName(), p);
+            }
+        }
+    }
+
+    /**
+     * Depth-first walk in topological order marking all plugins that are part of a cycle.
+     */
+    private void detectCycles() {
+        Map<Node, Integer> state = new HashMap<>(); // absent: not visited, 1: on stack, 2: done
+        for (Node root : nodes.values()) {
+            if (state.containsKey(root)) continue;
+
+            Deque<Node> stack = new ArrayDeque<>();
+            Deque<Integer> next = new ArrayDeque<>();
+            stack.push(root);
+            next.push(0);
+            state.put(root, 1);
+            while (!stack.isEmpty()) {
+                Node n = stack.peek();
+                int i = next.pop();
+                if (i == n.edges.size()) {
+                    stack.pop();
+                    state.put(n, 2);
+                    continue;
+                }
+                next.push(i + 1);
+
+                Node t = n.edges.get(i).target;
+                if (t == null) continue;
+
+                Integer s = state.get(t);
+                if (s == null) {
+                    stack.push(t);
+                    next.push(0);
+                    state.put(t, 1);
+                } else if (s == 1) {
+                    markCycle(stack, t);
+                }
+            }
+        }
+    }
+
+    private void markCycle(Deque<Node> stack, Node start) {
+        List<Node> cycle = new ArrayList<>();
+        for (Node n : stack) { // top first
+            cycle.add(0, n);
+            if (n == start) break;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (Node n : cycle) {
+            sb.append(n.name).append(" -> ");
+        }
+        sb.append(start.name);
+
+        for (Node n : cycle) {
+            if (n.cycle == null) {
+                n.cycle = sb.toString();
+            }
+        }
+    }
+
+    private static final class Node {
+        private final String name;
+        private final PluginMetadata metadata;
+        private final List<Edge> edges = new ArrayList<>();
+        private VersionNumber requiredCore;
+        private String cycle;
+
+        private Node(String name, PluginMetadata metadata) {
+            this.name = name;
+            this.metadata = metadata;
+        }
+
+        private VersionNumber requiredCore() {
+            if (requiredCore == null) {
+                requiredCore = metadata.requiredCore();
+            }
+            return requiredCore;
+        }
+    }
+
+    private static final class Edge {
+        private final Dependency dependency;
+        private final @CheckForNull Node target;
+
+        private Edge(Dependency dependency, Node target) {
+            this.dependency = dependency;
+            this.target = target;
+        }
+    }
+
+    private static final class Key {
+        private final String name;
+        private final String version;
+        private final VersionNumber core;
+
+        private Key(String name, String version, VersionNumber core) {
+            this.name = name;
+            this.version = version;
+            this.core = core;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+
+            Key other = (Key) o;
+            return name.equals(other.name)
+                    && (version == null ? other.version == null : version.equals(other.version))
+                    && core.equals(other.core)
+            ;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * name.hashCode() + (version == null ? 0 : version.hashCode())) + core.hashCode();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.jenkinsci.test.acceptance.update_center;
+
+import hudson.util.VersionNumber;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarFile;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.CheckForNull;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.io.FileUtils;
+import org.jenkinsci.test.acceptance.update_center.PluginMetadata.LocalOverride;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.inject.Injector;
+
+/**
+ * Ready-made <tt>plugins</tt> directories with the whole dependency closure of the plugins a test requires.
+ *
+ * <p>
+ * The closure is resolved from the update center for the core version of given jenkins.war, and the directory is kept
+ * under <tt>$WORKSPACE/plugin-cache/</tt> keyed by hash of the resolved plugin versions. Tests requiring the same set
+ * of plugins can then start Jenkins with everything already installed so {@link org.jenkinsci.test.acceptance.junit.WithPlugins}
+ * has nothing to upload and Jenkins does not need to be restarted.
+ */
+@Singleton
+public class PluginClosureCache {
+    @Inject
+    Injector injector;
+
+    @Inject
+    Provider<UpdateCenterMetadata> ucmd;
+
+    @Inject @Named("WORKSPACE")
+    String workspace;
+
+    private final Map<File, VersionNumber> coreVersions = new HashMap<>();
+
+    /**
+     * Get directory with given plugins and all their dependencies, populating it when needed.
+     *
+     * @return null in case the closure can not be determined up front. Plugins are then installed the usual way.
+     */
+    public @CheckForNull File get(File war, List<PluginSpec> plugins) {
+        if (plugins.isEmpty()) return null;
+
+        VersionNumber core = coreVersion(war);
+        if (core == null) return null;
+
+        List<PluginMetadata> closure;
+        try {
+            closure = ucmd.get().transitiveDependenciesOf(core, plugins);
+        } catch (UnableToResolveDependencies | IllegalArgumentException e) {
+            LOGGER.log(Level.INFO, "Unable to resolve plugins " + plugins + " for Jenkins " + core + " up front", e);
+            return null;
+        }
+
+        File dir = new File(workspace, "plugin-cache/" + hash(closure));
+        synchronized (this) {
+            if (dir.isDirectory()) return dir;
+
+            try {
+                populate(closure, dir);
+                return dir;
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Failed to populate plugin cache " + dir, e);
+                return null;
+            }
+        }
+    }
+
+    private void populate(List<PluginMetadata> closure, File dir) throws IOException {
+        // Populate aside so concurrent runs sharing the workspace never see incomplete directory
+        File tmp = new File(dir.getPath() + ".tmp" + System.nanoTime());
+        try {
+            for (PluginMetadata p : closure) {
+                File jpi = p.resolve(injector, p.getVersion());
+                FileUtils.copyFile(jpi, new File(tmp, p.getName() + ".jpi"));
+            }
+
+            if (!tmp.renameTo(dir) && !dir.isDirectory()) {
+                throw new IOException("Unable to move " + tmp + " to " + dir);
+            }
+            LOGGER.info("Cached plugins " + closure + " in " + dir);
+        } finally {
+            FileUtils.deleteQuietly(tmp);
+        }
+    }
+
+    private @CheckForNull VersionNumber coreVersion(File war) {
+        synchronized (coreVersions) {
+            if (!coreVersions.containsKey(war)) {
+                VersionNumber version = null;
+                try (JarFile jar = new JarFile(war)) {
+                    String v = jar.getManifest().getMainAttributes().getValue("Jenkins-Version");
+                    if (v != null) {
+                        version = new VersionNumber(v);
+                    }
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "Unable to read Jenkins version from " + war, e);
+                }
+                coreVersions.put(war, version);
+            }
+            return coreVersions.get(war);
+        }
+    }
+
+    /**
+     * Hash of plugin names and versions. Locally built plugins are identified by timestamp as snapshots keep the
+     * version between builds.
+     */
+    private static String hash(List<PluginMetadata> closure) {
+        Hasher hasher = Hashing.sha1().newHasher();
+        for (PluginMetadata p : closure) {
+            String id = p.getName() + ":" + p.getVersion();
+            if (p instanceof LocalOverride) {
+                id += ":" + p.resolve(null, null).lastModified();
+            }
+            hasher.putString(id + "\n", StandardCharsets.UTF_8);
+        }
+        return hasher.hash().toString();
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(PluginClosureCache.class.getName());
+}
@@ -9,20 +9,15 @@ import java.util.Collections;
 import java.util.List;
 import java.util.jar.Attributes;
 import java.util.jar.JarFile;
+import java.util.logging.Logger;
 
 import javax.annotation.Nonnull;
 
-import org.apache.commons.io.IOUtils;
-import org.apache.http.HttpEntity;
-import org.apache.http.HttpResponse;
-import org.apache.http.client.HttpClient;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.mime.MultipartEntityBuilder;
-import org.apache.http.impl.client.DefaultHttpClient;
 import org.eclipse.aether.artifact.DefaultArtifact;
 import org.eclipse.aether.resolution.ArtifactResolutionException;
 import org.eclipse.aether.resolution.ArtifactResult;
 import org.jenkinsci.test.acceptance.po.Jenkins;
+import org.jenkinsci.test.acceptance.po.JsonApiClient;
 import org.jenkinsci.test.acceptance.po.PluginManager;
 import org.jenkinsci.test.acceptance.utils.aether.ArtifactResolverUtil;
 
@@ -30,14 +25,14 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.inject.Injector;
 
-import static org.apache.http.entity.ContentType.*;
-
 /**
  * Databinding for installable plugin in UC.
  *
  * @author Kohsuke Kawaguchi
  */
 public class PluginMetadata {
+    private static final Logger LOGGER = Logger.getLogger(PluginMetadata.class.getName());
+
     private final String name;
     private final String version;
     private final String gav;
@@ -70,22 +65,19 @@ public class PluginMetadata {
      */
     @Deprecated
     public void uploadTo(Jenkins jenkins, Injector i, String version) throws ArtifactResolutionException, IOException {
-        HttpClient httpclient = new DefaultHttpClient();
-
-        HttpPost post = new HttpPost(jenkins.url("pluginManager/uploadPlugin").toExternalForm());
-        File f = resolve(i, version);
-        HttpEntity e = MultipartEntityBuilder.create()
-                .addBinaryBody("name", f, APPLICATION_OCTET_STREAM, getName() + ".jpi")
-                .build();
-        post.setEntity(e);
-
-        HttpResponse response = httpclient.execute(post);
-        if (response.getStatusLine().getStatusCode() >= 400) {
-            throw new IOException("Failed to upload plugin: " + response.getStatusLine() + "\n" +
-                    IOUtils.toString(response.getEntity().getContent()));
-        } else {
-            System.out.format("Plugin %s installed\n", f);
+        uploadTo(jenkins, i.getInstance(JsonApiClient.class), resolve(i, version));
+    }
+
+    /**
+     * Upload resolved plugin file to Jenkins, in the session of the browser.
+     */
+    public void uploadTo(Jenkins jenkins, JsonApiClient client, File f) throws IOException {
+        try {
+            client.upload(jenkins.url, jenkins.url("pluginManager/uploadPlugin"), "name", f, getName() + ".jpi");
+        } catch (IOException e) {
+            throw new IOException("Failed to upload plugin " + f, e);
         }
+        LOGGER.info("Plugin " + f + " installed");
     }
 
     public File resolve(Injector i, String version) {
@@ -114,6 +106,14 @@ public class PluginMetadata {
         return new VersionNumber(requiredCore);
     }
 
+    /*package*/ String getRequiredCore() {
+        return requiredCore;
+    }
+
+    /*package*/ String getGav() {
+        return gav;
+    }
+
     public PluginMetadata withVersion(@Nonnull String v) {
         if (v == null) throw new IllegalArgumentException();
 
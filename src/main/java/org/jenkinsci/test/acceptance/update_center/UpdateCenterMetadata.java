@@ -10,13 +10,17 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.annotation.CheckForNull;
+
 import org.jenkinsci.test.acceptance.po.Jenkins;
+import org.jenkinsci.test.acceptance.po.PluginInventory;
+
+import com.google.common.base.Predicate;
 
 /**
  * Databinding for Update Center metadata
@@ -27,11 +31,18 @@ import org.jenkinsci.test.acceptance.po.Jenkins;
 public class UpdateCenterMetadata {
     /**
      * Details of plugins by {@linkplain PluginMetadata#name their name}.
+     *
+     * Call {@link #pluginsModified()} after changing the map in place.
      */
     public Map<String,PluginMetadata> plugins = new HashMap<>();
 
     public String id;
 
+    /**
+     * Index of {@link #plugins}, built on first use and rebuilt once the map is replaced or reported modified.
+     */
+    private DependencyResolver resolver;
+
     /**
      * Create metadata parsing Jenkins update center file.
      *
@@ -75,61 +86,61 @@ public class UpdateCenterMetadata {
      * @throws UnableToResolveDependencies When there requested plugin version can not be installed.
      */
     public List<PluginMetadata> transitiveDependenciesOf(Jenkins jenkins, Collection<PluginSpec> plugins) throws UnableToResolveDependencies {
-        List<PluginMetadata> set = new ArrayList<>();
-        for (PluginSpec n : plugins) {
-            PluginMetadata p = this.plugins.get(n.getName());
-            if (p==null) throw new IllegalArgumentException("No such plugin " + n.getName());
-            if (p.requiredCore().isNewerThan(jenkins.getVersion())) {
-                throw new UnableToResolveDependencies(String.format(
-                        "Unable to install %s plugin because of core dependency. Required: %s Used: %s",
-                        p, p.requiredCore(), jenkins
-                ));
-            }
-
-            transitiveDependenciesOf(jenkins, p, n.getVersion(), set);
-        }
+        return transitiveDependenciesOf(jenkins.getVersion(), jenkins, plugins);
+    }
 
-        return set;
+    /**
+     * Find all the transitive dependency plugins of the given plugins to be installed into Jenkins of given version
+     * that has no plugins installed yet, in the order of installation.
+     *
+     * @throws UnableToResolveDependencies When there requested plugin version can not be installed.
+     */
+    public List<PluginMetadata> transitiveDependenciesOf(VersionNumber core, Collection<PluginSpec> plugins) throws UnableToResolveDependencies {
+        return transitiveDependenciesOf(core, null, plugins);
     }
 
-    private void transitiveDependenciesOf(Jenkins jenkins, PluginMetadata p, String v, List<PluginMetadata> result) {
-        for (Dependency d : p.getDependencies()) {
-            if (d.optional || !shouldBeIncluded(jenkins, d)) continue;
-            PluginMetadata depMetaData = plugins.get(d.name);
-            if (depMetaData == null) {
-                throw new UnableToResolveDependencies(
-                    String.format("Unable to install dependency '%s' for '%s': plugin not found", d, p)
-                );
-            }
-            transitiveDependenciesOf(jenkins, depMetaData, d.version, result);
+    private List<PluginMetadata> transitiveDependenciesOf(VersionNumber core, @CheckForNull final Jenkins jenkins, Collection<PluginSpec> plugins) {
+        Predicate<Dependency> filter = null;
+        if (jenkins != null) {
+            final PluginInventory installed = jenkins.getPluginInventory();
+            filter = new Predicate<Dependency>() {
+                @Override
+                public boolean apply(Dependency d) {
+                    return shouldBeIncluded(installed, d);
+                }
+            };
         }
 
-        if (!result.contains(p)) {
-            if (p.requiredCore().isNewerThan(jenkins.getVersion())) {
-                // If latest version is too new for current Jenkins, use the declared one
-                result.add(p.withVersion(v));
-            } else {
-                result.add(p);
-            }
+        return resolver().resolve(core, filter, plugins, jenkins == null ? core : jenkins);
+    }
+
+    private synchronized DependencyResolver resolver() {
+        if (resolver == null || !resolver.isFor(plugins)) {
+            resolver = new DependencyResolver(plugins);
         }
+        return resolver;
+    }
+
+    /**
+     * Notify {@link #plugins} were changed in place, so dependencies are resolved against the current content.
+     */
+    public synchronized void pluginsModified() {
+        resolver = null;
     }
 
     /**
      * Assess whether the dependency actually needs to be installed or upgraded.
      * 
-     * @param jenkins top-level jenkins object
+     * @param installed plugins installed in Jenkins
      * @param d the dependency
      * @return true if the dependency should be installed/upgraded. Otherwise, false.
      */
-    private boolean shouldBeIncluded(Jenkins jenkins, Dependency d) {
-        try {
-            VersionNumber installedVersion = jenkins.getPlugin(d.name).getVersion();
-            VersionNumber requiredVersion = new VersionNumber(d.version);
-            return installedVersion.isOlderThan(requiredVersion);
-        } catch (IllegalArgumentException ex) {
-            // Plugin not installed
-            return true;
-        }
+    private boolean shouldBeIncluded(PluginInventory installed, Dependency d) {
+        VersionNumber installedVersion = installed.getVersion(d.name);
+        if (installedVersion == null) return true; // Plugin not installed
+
+        VersionNumber requiredVersion = new VersionNumber(d.version);
+        return installedVersion.isOlderThan(requiredVersion);
     }
 
     public static class UnableToResolveDependencies extends RuntimeException {
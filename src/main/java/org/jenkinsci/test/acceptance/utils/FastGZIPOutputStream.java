@@ -0,0 +1,19 @@
+package org.jenkinsci.test.acceptance.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip stream trading compression ratio for speed.
+ *
+ * For data that is compressed already, or that is written on the way of a test, where taking the time to compress
+ * it better does not pay off.
+ */
+public class FastGZIPOutputStream extends GZIPOutputStream {
+    public FastGZIPOutputStream(OutputStream out) throws IOException {
+        super(out, 64 * 1024);
+        def.setLevel(Deflater.BEST_SPEED);
+    }
+}
@@ -0,0 +1,76 @@
+package core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.codehaus.plexus.util.Base64;
+import org.jenkinsci.test.acceptance.junit.AbstractJUnitTest;
+import org.jenkinsci.test.acceptance.junit.Resource;
+import org.jenkinsci.test.acceptance.po.FreeStyleJob;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Compares the time to configure and save a job copying 5 MB resource into workspace, when the resource is inlined in
+ * the shell step and when it is uploaded to Jenkins by {@link FreeStyleJob#copyResource(Resource, String)}.
+ *
+ * Not part of the regular test run, run it explicitly with <tt>-Dtest=CopyResourceBenchmark</tt>.
+ */
+public class CopyResourceBenchmark extends AbstractJUnitTest {
+    private static final int SIZE = 5 * 1024 * 1024;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void configSaveTime() throws Exception {
+        File file = tmp.newFile("resource.bin");
+        byte[] data = new byte[SIZE];
+        new Random(42).nextBytes(data);
+        FileUtils.writeByteArrayToFile(file, data);
+
+        FreeStyleJob inlined = jenkins.jobs.create(FreeStyleJob.class);
+        long start = System.nanoTime();
+        inlined.configure();
+        inlined.addShellStep(inline(data, "resource.bin"));
+        inlined.addShellStep(verifySize("resource.bin"));
+        inlined.save();
+        long inlinedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        FreeStyleJob uploaded = jenkins.jobs.create(FreeStyleJob.class);
+        start = System.nanoTime();
+        uploaded.configure();
+        uploaded.builtOnMasterFilesystem();
+        uploaded.copyResource(new Resource(file.toURI().toURL()), "resource.bin");
+        uploaded.addShellStep(verifySize("resource.bin"));
+        uploaded.save();
+        long uploadedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        System.out.format("Config save with %d MB resource: inlined %d ms, uploaded %d ms%n", SIZE >> 20, inlinedMs, uploadedMs);
+
+        inlined.startBuild().shouldSucceed();
+        uploaded.startBuild().shouldSucceed();
+    }
+
+    /**
+     * The shell step as it used to be created for every resource.
+     */
+    private static String inline(byte[] data, String fileName) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(data);
+        }
+        return String.format("base64 --decode << ENDOFFILE | gunzip > %1$s \n%2$s\nENDOFFILE",
+                fileName, new String(Base64.encodeBase64Chunked(out.toByteArray())));
+    }
+
+    private static String verifySize(String fileName) {
+        return String.format("test $(wc -c < %s) -eq %d", fileName, SIZE);
+    }
+}
@@ -2,11 +2,14 @@ package core;
 
 import org.jenkinsci.test.acceptance.junit.AbstractJUnitTest;
 import org.jenkinsci.test.acceptance.junit.Since;
+import org.jenkinsci.test.acceptance.po.Build;
 import org.jenkinsci.test.acceptance.po.FreeStyleJob;
+import org.jenkinsci.test.acceptance.po.JobConfigXml;
 import org.junit.Test;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
 
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.jenkinsci.test.acceptance.Matchers.hasContent;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -49,4 +52,25 @@ public class CreateItemTest extends AbstractJUnitTest {
         okButtonElement.click();
         assertThat(driver, hasContent(JOB_CREATION_ERROR_MSG));
     }
+
+    @Test
+    public void create_from_xml() {
+        FreeStyleJob job = jenkins.jobs.createFromXml(FreeStyleJob.class, JOB_NAME, JobConfigXml.freestyle()
+                .description("Created from XML")
+                .shell("echo created from xml")
+        );
+
+        Build build = job.startBuild().shouldSucceed();
+        assertThat(build.getConsole(), containsString("created from xml"));
+
+        job.updateConfigXml(JobConfigXml.freestyle().shell("echo updated from xml"));
+        build = job.startBuild().shouldSucceed();
+        assertThat(build.getConsole(), containsString("updated from xml"));
+
+        // Page objects work the same as with jobs created through the UI
+        job.configure();
+        job.addShellStep("echo configured");
+        job.save();
+        assertThat(job.startBuild().shouldSucceed().getConsole(), containsString("configured"));
+    }
 }
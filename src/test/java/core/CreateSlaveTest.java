@@ -9,11 +9,18 @@ import org.jenkinsci.test.acceptance.plugins.ssh_credentials.SshPrivateKeyCreden
 import org.jenkinsci.test.acceptance.plugins.ssh_slaves.SshSlaveLauncher;
 import org.jenkinsci.test.acceptance.po.Control;
 import org.jenkinsci.test.acceptance.po.DumbSlave;
+import org.jenkinsci.test.acceptance.po.Slave;
+import org.jenkinsci.test.acceptance.slave.LocalSlaveController;
 import org.junit.Test;
 import org.openqa.selenium.NoSuchElementException;
 
+import com.google.inject.Inject;
+
+import java.util.List;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
 
 import org.jenkinsci.test.acceptance.junit.WithPlugins;
 import static org.junit.Assert.fail;
@@ -22,6 +29,9 @@ import static org.junit.Assert.fail;
  * @author Vivek Pandey
  */
 public class CreateSlaveTest extends AbstractJUnitTest {
+    @Inject
+    LocalSlaveController localSlaves;
+
     @WithPlugins("ssh-slaves")
     @Test
     @Since("1.560")
@@ -99,6 +109,17 @@ public class CreateSlaveTest extends AbstractJUnitTest {
         l.credentialsId.select(String.format("%s (%s)", username, description));
     }
 
+    @Test
+    public void newSlavesInBulk() throws Exception {
+        List<Slave> slaves = localSlaves.install(jenkins, 3).get();
+
+        assertThat(slaves.size(), is(3));
+        for (Slave s : slaves) {
+            assertThat(s.isOnline(), is(true));
+            assertThat(s.getExecutorCount(), is(1));
+        }
+    }
+
     private void verifyValueForCredential(CredentialsPage cp, Control element, String expected) {
         cp.configure();
         assert(element.exists());
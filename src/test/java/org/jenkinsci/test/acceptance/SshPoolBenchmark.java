@@ -0,0 +1,114 @@
+package org.jenkinsci.test.acceptance;
+
+import com.trilead.ssh2.Connection;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Compares connecting for every step of {@link org.jenkinsci.test.acceptance.controller.RemoteJenkinsController}
+ * start with borrowing connections from {@link SshPool}.
+ *
+ * Run as a plain java program against sshd that accepts password login, like the container of
+ * {@code JavaContainer} fixture started with {@code docker run -d -p 2222:22}. Arguments are host, port, user and
+ * password, defaulting to {@code localhost 2222 test test}.
+ */
+public class SshPoolBenchmark {
+    private static final int ROUNDS = 10;
+
+    public static void main(String... args) throws Exception {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 2222;
+        final String user = args.length > 2 ? args[2] : "test";
+        final String password = args.length > 3 ? args[3] : "test";
+
+        Authenticator authenticator = new Authenticator() {
+            @Override
+            public void authenticate(Connection connection) throws IOException {
+                if (!connection.authenticateWithPassword(user, password)) {
+                    throw new IOException("Password authentication failed for " + user);
+                }
+            }
+        };
+
+        // 64k stands in for JENKINS_HOME template
+        byte[] template = new byte[64 * 1024];
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            start(new Connector(host, port, authenticator, null), template);
+            long fresh = millis(start);
+
+            SshPool pool = new SshPool(host, port, authenticator);
+            start = System.nanoTime();
+            start(new Connector(host, port, authenticator, pool), template);
+            long pooled = millis(start);
+            pool.evict();
+
+            System.out.format("Controller start: connection per step %d ms, pooled %d ms%n", fresh, pooled);
+        }
+    }
+
+    /**
+     * Steps of provisioning machine, resolving Jenkins and plugins, and populating JENKINS_HOME, each connecting
+     * the way it does in {@link org.jenkinsci.test.acceptance.machine.RemoteJenkinsProvider}.
+     */
+    private static void start(Connector connector, byte[] template) throws IOException {
+        String dir;
+        try (Ssh ssh = connector.connect()) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            ssh.executeRemoteCommand("echo `pwd`/machine_home_bench/", baos);
+            dir = new String(baos.toByteArray()).trim();
+            ssh.executeRemoteCommand("mkdir -p " + dir);
+        }
+        try (Ssh ssh = connector.connect()) { // JenkinsDownloader
+            ssh.getConnection().exec("md5sum " + dir + "jenkins.war 2>/dev/null", new ByteArrayOutputStream());
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+        try (Ssh ssh = connector.connect()) { // PluginDownloader
+            ssh.getConnection().exec("stat " + dir + "plugin.hpi > /dev/null 2>&1", new ByteArrayOutputStream());
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+        String home = dir + "jenkins_home/";
+        try (Ssh ssh = connector.connect()) {
+            ssh.executeRemoteCommands("mkdir -p " + home + "plugins/", "touch " + home + "plugins/plugin.hpi");
+        }
+        try (Ssh ssh = connector.connect()) { // populateJenkinsHome
+            ssh.executeRemoteCommand("rm -rf " + home + "; mkdir -p " + home);
+            ssh.copyTo(new ByteArrayInputStream(template), template.length, ".home-template.zip", home, "0644");
+            ssh.executeRemoteCommands("test -s " + home + ".home-template.zip", "rm -f " + home + ".home-template.zip");
+        }
+        try (Ssh ssh = connector.connect()) {
+            ssh.executeRemoteCommand("rm -rf " + dir);
+        }
+    }
+
+    private static final class Connector {
+        private final String host;
+        private final int port;
+        private final Authenticator authenticator;
+        private final SshPool pool;
+
+        private Connector(String host, int port, Authenticator authenticator, SshPool pool) {
+            this.host = host;
+            this.port = port;
+            this.authenticator = authenticator;
+            this.pool = pool;
+        }
+
+        private Ssh connect() throws IOException {
+            if (pool != null) return pool.connect();
+
+            Ssh ssh = new Ssh(host, port);
+            authenticator.authenticate(ssh.getConnection());
+            return ssh;
+        }
+    }
+
+    private static long millis(long start) {
+        return (System.nanoTime() - start) / 1000000;
+    }
+}
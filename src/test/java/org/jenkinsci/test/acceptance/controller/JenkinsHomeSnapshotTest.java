@@ -0,0 +1,67 @@
+package org.jenkinsci.test.acceptance.controller;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class JenkinsHomeSnapshotTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void restoreRevertsChangesOutsideOfPlugins() throws Exception {
+        File home = tmp.newFolder("home");
+        write(home, "config.xml", "<hudson/>");
+        write(home, "jobs/foo/config.xml", "<project/>");
+        write(home, "plugins/git.jpi", "jpi");
+        write(home, "war/index.jsp", "jsp");
+
+        JenkinsHomeSnapshot snapshot = JenkinsHomeSnapshot.capture(home, new File(tmp.getRoot(), "baseline"));
+        assertThat(new File(snapshot.getBaseline(), "plugins").exists(), is(false));
+        assertThat(new File(snapshot.getBaseline(), "war").exists(), is(false));
+
+        write(home, "config.xml", "<hudson><useSecurity>true</useSecurity></hudson>");
+        write(home, "jobs/bar/config.xml", "<project/>");
+        FileUtils.deleteDirectory(new File(home, "jobs/foo"));
+
+        snapshot.restore();
+
+        assertThat(read(home, "config.xml"), is("<hudson/>"));
+        assertThat(read(home, "jobs/foo/config.xml"), is("<project/>"));
+        assertThat(new File(home, "jobs/bar").exists(), is(false));
+        assertThat(read(home, "plugins/git.jpi"), is("jpi"));
+        assertThat(read(home, "war/index.jsp"), is("jsp"));
+    }
+
+    @Test
+    public void detectPluginChanges() throws Exception {
+        File home = tmp.newFolder("home");
+        write(home, "plugins/git.jpi", "jpi");
+
+        JenkinsHomeSnapshot snapshot = JenkinsHomeSnapshot.capture(home, new File(tmp.getRoot(), "baseline"));
+        assertThat(snapshot.isPluginSetUnchanged(), is(true));
+
+        write(home, "plugins/git.jpi", "updated jpi");
+        assertThat(snapshot.isPluginSetUnchanged(), is(false));
+
+        write(home, "plugins/git.jpi", "jpi");
+        write(home, "plugins/git.jpi.disabled", "");
+        assertThat(snapshot.isPluginSetUnchanged(), is(false));
+    }
+
+    private void write(File home, String path, String content) throws IOException {
+        FileUtils.writeStringToFile(new File(home, path), content);
+    }
+
+    private String read(File home, String path) throws IOException {
+        return FileUtils.readFileToString(new File(home, path));
+    }
+}
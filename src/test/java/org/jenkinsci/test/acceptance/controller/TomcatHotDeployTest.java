@@ -0,0 +1,132 @@
+package org.jenkinsci.test.acceptance.controller;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.codehaus.plexus.util.Expand;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Deploys webapp reporting its JENKINS_HOME to Tomcat distribution from local Maven repository.
+ */
+public class TomcatHotDeployTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private TomcatController.Deployer deployer;
+    private final URL url;
+
+    public TomcatHotDeployTest() throws IOException {
+        url = new URL("http://localhost:8080/jenkins/");
+    }
+
+    @Before
+    public void unpackTomcat() throws Exception {
+        File dist = findTomcat();
+        assumeTrue("Tomcat distribution not found in local Maven repository", dist != null);
+
+        Expand expand = new Expand();
+        expand.setSrc(dist);
+        expand.setDest(tmp.getRoot());
+        expand.execute();
+
+        File catalinaHome = tmp.getRoot().listFiles()[0];
+        for (File script : new File(catalinaHome, "bin").listFiles()) {
+            script.setExecutable(true);
+        }
+        deployer = TomcatController.deployer(catalinaHome);
+    }
+
+    @After
+    public void stopTomcat() {
+        if (deployer != null) {
+            deployer.shutdown();
+        }
+    }
+
+    @Test
+    public void redeployWithDifferentHome() throws Exception {
+        File war = webapp();
+        File homeA = tmp.newFolder("homeA");
+        File homeB = tmp.newFolder("homeB");
+
+        deployer.deploy(war, homeA, Collections.<String, String>emptyMap()).close();
+        assertThat(await(), is(homeA.getAbsolutePath()));
+
+        deployer.undeploy(url);
+        assertThat(status(), is(HttpURLConnection.HTTP_NOT_FOUND));
+        assertThat(deployer.isRunning(), is(true));
+
+        deployer.deploy(war, homeB, Collections.<String, String>emptyMap()).close();
+        assertThat(await(), is(homeB.getAbsolutePath()));
+    }
+
+    private static File findTomcat() {
+        File dir = new File(System.getProperty("user.home"), ".m2/repository/org/apache/tomcat/tomcat");
+        File[] versions = dir.listFiles();
+        if (versions == null) return null;
+
+        File found = null;
+        for (File version : versions) {
+            File zip = new File(version, "tomcat-" + version.getName() + ".zip");
+            if (zip.isFile() && (found == null || zip.lastModified() > found.lastModified())) {
+                found = zip;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * War printing JENKINS_HOME the way Jenkins looks it up first.
+     */
+    private File webapp() throws IOException {
+        File war = new File(tmp.getRoot(), "jenkins.war");
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(war))) {
+            zip.putNextEntry(new ZipEntry("index.jsp"));
+            zip.write(("<%@ page import=\"javax.naming.InitialContext\" %>"
+                    + "<%= new InitialContext().lookup(\"java:comp/env/JENKINS_HOME\") %>").getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        return war;
+    }
+
+    private String await() throws Exception {
+        long deadline = System.currentTimeMillis() + 60000;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                HttpURLConnection con = (HttpURLConnection) url.openConnection();
+                if (con.getResponseCode() == HttpURLConnection.HTTP_OK) {
+                    try (InputStream in = con.getInputStream()) {
+                        return IOUtils.toString(in, StandardCharsets.UTF_8).trim();
+                    }
+                }
+            } catch (IOException e) {
+                // Not up yet
+            }
+            Thread.sleep(500);
+        }
+        throw new AssertionError(url + " not deployed in time");
+    }
+
+    private int status() throws IOException {
+        return ((HttpURLConnection) url.openConnection()).getResponseCode();
+    }
+}
@@ -0,0 +1,103 @@
+package org.jenkinsci.test.acceptance.docker;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import javax.annotation.CheckForNull;
+
+import org.apache.commons.io.FileUtils;
+import org.jenkinsci.test.acceptance.docker.fixtures.GitContainer;
+import org.jenkinsci.test.acceptance.docker.fixtures.SvnContainer;
+import org.jenkinsci.utils.process.CommandBuilder;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Runs the cache against fake <tt>docker</tt> that records its invocations and remembers the tags created.
+ */
+public class DockerImageCacheTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private File docker;
+    private File invocations;
+
+    @Before
+    public void fakeDocker() throws IOException {
+        invocations = new File(tmp.getRoot(), "invocations");
+        File tags = tmp.newFile("tags");
+        docker = new File(tmp.getRoot(), "docker");
+        FileUtils.writeStringToFile(docker, "#!/bin/sh\n" +
+                "echo \"$@\" >> " + invocations + "\n" +
+                "case \"$1\" in\n" +
+                "  images) grep -qx \"$3\" " + tags + " && echo 0123456789ab ;;\n" +
+                "  tag) echo \"$3\" >> " + tags + " ;;\n" +
+                "esac\n" +
+                "exit 0\n", StandardCharsets.UTF_8);
+        docker.setExecutable(true);
+    }
+
+    @Test
+    public void skipBuildOfUnchangedFixture() throws Exception {
+        FakeCache cache = new FakeCache();
+        DockerImage image = cache.build(GitContainer.class);
+
+        assertThat(image.tag, startsWith("jenkins/git:ath-"));
+        assertThat(cache.builds, is(1));
+        List<String> calls = invocations();
+        assertThat(calls.size(), is(2));
+        assertThat(calls.get(0), is("images -q " + image.tag));
+        assertThat(calls.get(1), is("tag jenkins/git " + image.tag));
+
+        // Known to this JVM already
+        assertThat(cache.build(GitContainer.class).tag, is(image.tag));
+        assertThat(invocations().size(), is(2));
+
+        // Image exists from the previous run
+        FakeCache next = new FakeCache();
+        assertThat(next.build(GitContainer.class).tag, is(image.tag));
+        assertThat(next.builds, is(0));
+        assertThat(invocations().size(), is(3));
+    }
+
+    @Test
+    public void hashFixtureResources() throws Exception {
+        String git = DockerImageCache.hash(GitContainer.class);
+
+        assertThat(DockerImageCache.hash(GitContainer.class), is(git));
+        assertThat(DockerImageCache.hash(SvnContainer.class), not(git));
+    }
+
+    private List<String> invocations() throws IOException {
+        return FileUtils.readLines(invocations, StandardCharsets.UTF_8);
+    }
+
+    private class FakeCache extends DockerImageCache {
+        private int builds;
+
+        @Override
+        protected CommandBuilder cmd(String... args) {
+            CommandBuilder cmd = new CommandBuilder(docker.getAbsolutePath());
+            for (String arg : args) {
+                cmd.add(arg);
+            }
+            return cmd;
+        }
+
+        @Override
+        protected DockerImage buildImage(Class<? extends DockerContainer> fixture, @CheckForNull File log) {
+            builds++;
+            return new DockerImage("jenkins/" + fixture.getAnnotation(DockerFixture.class).id());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.jenkinsci.test.acceptance.junit;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.jenkinsci.test.acceptance.guice.TestName;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class FailureDiagnosticsTest {
+
+    private final String test = "FailureDiagnosticsTest-" + System.nanoTime();
+    private final File root = new File("target/diagnostics");
+    private final File dir = new File(root, test);
+
+    @After
+    public void delete() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Test
+    public void compressLargeAttachments() throws Exception {
+        DiagnosticsSink sink = new DiagnosticsSink(root, Long.MAX_VALUE, Long.MAX_VALUE);
+        FailureDiagnostics diagnostics = new FailureDiagnostics(new TestName(test), sink);
+
+        byte[] large = new byte[DiagnosticsSink.COMPRESSION_THRESHOLD];
+        Arrays.fill(large, (byte) 'a');
+        diagnostics.write("small.txt", "content");
+        diagnostics.write("large.txt", large);
+        diagnostics.flush();
+
+        assertThat(FileUtils.readFileToString(new File(dir, "small.txt"), StandardCharsets.UTF_8), is("content"));
+        assertFalse(new File(dir, "large.txt").exists());
+        try (GZIPInputStream in = new GZIPInputStream(new FileInputStream(new File(dir, "large.txt.gz")))) {
+            assertTrue(Arrays.equals(large, IOUtils.toByteArray(in)));
+        }
+    }
+
+    @Test
+    public void dropOverBudget() throws Exception {
+        DiagnosticsSink sink = new DiagnosticsSink(dir, 10, Long.MAX_VALUE);
+        FailureDiagnostics diagnostics = new FailureDiagnostics(new TestName(test), sink);
+
+        diagnostics.write("first.txt", "12345");
+        diagnostics.write("second.txt", "123456");
+        FileUtils.write(diagnostics.touch("external.log"), "log", StandardCharsets.UTF_8);
+        diagnostics.failed(new AssertionError(), null);
+        sink.close();
+
+        assertTrue(new File(dir, "first.txt").exists());
+        assertFalse(new File(dir, "second.txt").exists());
+
+        String index = FileUtils.readFileToString(new File(dir, "index.txt"), StandardCharsets.UTF_8);
+        assertThat(index, containsString(test + "\tfirst.txt\t5\t5\twritten"));
+        assertThat(index, containsString(test + "\tsecond.txt\t6\t0\tdropped"));
+        assertThat(index, containsString(test + "\texternal.log\t3\t3\texternal"));
+    }
+}
@@ -0,0 +1,40 @@
+package org.jenkinsci.test.acceptance.junit;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+public class WaitStatisticsTest {
+
+    @Test
+    public void histogram() {
+        WaitStatistics stats = new WaitStatistics(null);
+        stats.record("quick", 1, 5, 0, false);
+        stats.record("slower", 4, 80, 75, false);
+        stats.record("slowest", 20, 120000, 119000, true);
+
+        String histogram = stats.histogram();
+        assertThat(histogram, containsString(String.format("%-12s %8d %10d %12d %12d%n", "<= 10 ms", 1, 1, 5, 0)));
+        assertThat(histogram, containsString(String.format("%-12s %8d %10d %12d %12d%n", "<= 100 ms", 1, 4, 80, 75)));
+        assertThat(histogram, containsString(String.format("%-12s %8d %10d %12d %12d%n", "> 60000 ms", 1, 20, 120000, 119000)));
+        assertThat(histogram, containsString(String.format("%-12s %8d %10d %12d %12d%n", "Total", 3, 25, 120085, 119075)));
+        assertThat(histogram, containsString("Timed out: 1"));
+        assertThat(histogram, containsString("20 polls (timed out) slowest"));
+    }
+
+    @Test
+    public void keepOnlySlowest() {
+        WaitStatistics stats = new WaitStatistics(null);
+        stats.record("fastest", 1, 0, 0, false);
+        for (int i = 1; i <= 10; i++) {
+            stats.record("wait " + i, 1, i, 0, false);
+        }
+
+        String histogram = stats.histogram();
+        assertThat(histogram, containsString("wait 10" + System.lineSeparator()));
+        assertThat(histogram, containsString("wait 1" + System.lineSeparator()));
+        assertThat(histogram, not(containsString("fastest")));
+    }
+}
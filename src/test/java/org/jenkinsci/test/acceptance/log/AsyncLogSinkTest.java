@@ -0,0 +1,77 @@
+package org.jenkinsci.test.acceptance.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class AsyncLogSinkTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void writeAndForward() throws Exception {
+        File log = new File(tmp.getRoot(), "jenkins.log");
+        Recorder recorder = new Recorder();
+        AsyncLogSink sink = new AsyncLogSink("test", log, 1024, 2, recorder);
+
+        for (int i = 0; i < 10; i++) {
+            sink.processLine("line " + i);
+        }
+        assertThat(sink.flush(10, TimeUnit.SECONDS), is(true));
+
+        assertThat(recorder.lines.size(), is(10));
+        assertThat(FileUtils.readLines(log).size(), is(10));
+        assertThat(FileUtils.readLines(log).get(9), is("line 9"));
+
+        sink.close();
+        recorder.awaitClose();
+    }
+
+    @Test
+    public void rotate() throws Exception {
+        File log = new File(tmp.getRoot(), "jenkins.log");
+        AsyncLogSink sink = new AsyncLogSink("test", log, 20, 100, new NullPrinter());
+
+        sink.processLine("0123456789");
+        assertThat(sink.flush(10, TimeUnit.SECONDS), is(true));
+        sink.processLine("abcdefghij");
+        assertThat(sink.flush(10, TimeUnit.SECONDS), is(true));
+        sink.close();
+
+        assertThat(FileUtils.readFileToString(new File(tmp.getRoot(), "jenkins.log.1")), is("0123456789\n"));
+        assertThat(FileUtils.readFileToString(log), is("abcdefghij\n"));
+    }
+
+    private static final class Recorder implements LogListener {
+        private final List<String> lines = new ArrayList<>();
+        private boolean closed;
+
+        @Override
+        public synchronized void processLine(String line) throws IOException {
+            lines.add(line);
+        }
+
+        @Override
+        public synchronized void processClose(Exception t) {
+            closed = true;
+            notifyAll();
+        }
+
+        private synchronized void awaitClose() throws InterruptedException {
+            while (!closed) {
+                wait();
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.jenkinsci.test.acceptance.log;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+/**
+ * Compares {@link MultiPatternMatcher} with evaluating every pattern for every line.
+ *
+ * Run as a plain java program, passing the number of watched patterns optionally.
+ */
+public class LogWatcherBenchmark {
+    private static final int LINES = 200000;
+    private static final int ROUNDS = 10;
+
+    public static void main(String... args) throws IOException {
+        int patternCount = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+
+        List<Pattern> patterns = new ArrayList<>();
+        for (int i = 0; i < patternCount; i++) {
+            patterns.add(Pattern.compile("Completed (installation|download) of plugin-" + i + " in \\d+ms"));
+        }
+
+        List<String> lines = new ArrayList<>();
+        Random rnd = new Random(42);
+        for (int i = 0; i < LINES; i++) {
+            lines.add(String.format(
+                    "%tT INFO hudson.model.UpdateCenter$DownloadJob#run: Installing plugin-%d from %d, waiting for %d jobs",
+                    System.currentTimeMillis(), rnd.nextInt(1000), rnd.nextInt(), rnd.nextInt(50)
+            ));
+        }
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long splitter = splitter(patterns, lines);
+            long multi = multi(patterns, lines);
+            System.out.format("%d patterns: per-pattern %d ms, multi-pattern %d ms%n", patternCount, splitter, multi);
+        }
+    }
+
+    /**
+     * The way watchers were implemented before, each listener scanning every line with its own pattern.
+     */
+    private static long splitter(List<Pattern> patterns, List<String> lines) throws IOException {
+        LogSplitter splitter = new LogSplitter();
+        for (final Pattern p : patterns) {
+            splitter.addLogListener(new LogListener() {
+                @Override
+                public void processLine(String line) throws IOException {
+                    p.matcher(line).find();
+                }
+
+                @Override
+                public void processClose(Exception t) {
+                }
+            });
+        }
+
+        long start = System.nanoTime();
+        for (String line : lines) {
+            splitter.processLine(line);
+        }
+        return (System.nanoTime() - start) / 1000000;
+    }
+
+    private static long multi(List<Pattern> patterns, List<String> lines) {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(patterns);
+
+        long start = System.nanoTime();
+        for (String line : lines) {
+            matcher.match(line);
+        }
+        return (System.nanoTime() - start) / 1000000;
+    }
+}
@@ -0,0 +1,102 @@
+package org.jenkinsci.test.acceptance.log;
+
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class MultiPatternMatcherTest {
+
+    @Test
+    public void requiredLiteral() {
+        assertThat(literal("Jenkins is fully up and running"), is("Jenkins is fully up and running"));
+        assertThat(literal("java.net.BindException: Address already in use"), is("BindException: Address already in use"));
+        assertThat(literal("Started (\\d+) builds? in total"), is(" in total"));
+        assertThat(literal("Slave\\.jar [^)]* connected"), is("Slave.jar "));
+        assertThat(literal("\\QFinished: SUCCESS\\E"), is("Finished: SUCCESS"));
+        assertThat(literal("colou?r"), is("colo"));
+        assertThat(literal("ab{2}c"), nullValue());
+
+        assertThat(literal("foo|bar"), nullValue());
+        assertThat(literal("(?i)Jenkins"), nullValue());
+        assertThat(literal(Pattern.compile("Jenkins", Pattern.CASE_INSENSITIVE)), nullValue());
+    }
+
+    @Test
+    public void requiredLiteralSkipsWholeEscape() {
+        assertThat(literal("\\x41BCD"), is("BCD"));
+        assertThat(literal("\\x{1F600}BCD"), is("BCD"));
+        assertThat(literal("caf\\u00e9 ok"), is("caf"));
+        assertThat(literal("\\0101BCD"), is("BCD"));
+        assertThat(literal("\\0777bc"), is("7bc"));
+        assertThat(literal("x\\cAbcd"), is("bcd"));
+        assertThat(literal("(?<name>a)\\k<name>bcd"), nullValue());
+        assertThat(literal("(a)\\1bcd"), is("bcd"));
+        assertThat(literal("(a)\\12bcd"), nullValue());
+        assertThat(literal("\\p{Alpha}bcd"), is("bcd"));
+        assertThat(literal("\\P{Lu}bcd"), is("bcd"));
+        assertThat(literal("\\pLbcd"), is("bcd"));
+    }
+
+    @Test
+    public void matchSeveralPatterns() {
+        MultiPatternMatcher m = new MultiPatternMatcher(
+                Pattern.compile("Jenkins is fully up and running"),
+                Pattern.compile("java.net.BindException: Address already in use"),
+                Pattern.compile("Build #(\\d+) finished"),
+                Pattern.compile("^\\s*$")
+        );
+
+        assertThat(m.match("INFO: Jenkins started").isEmpty(), is(true));
+        assertThat(m.match("INFO: Jenkins is fully up and running").keySet().toString(), is("[0]"));
+        assertThat(m.match("javaXnet.BindException: Address already in use").keySet().toString(), is("[1]"));
+        assertThat(m.match("java.net.BindException: Address already in").isEmpty(), is(true));
+        assertThat(m.match("").keySet().toString(), is("[3]"));
+
+        Map<Integer, Matcher> build = m.match("Build #42 finished");
+        assertThat(build.get(2).group(1), is("42"));
+    }
+
+    @Test
+    public void overlappingLiterals() {
+        MultiPatternMatcher m = new MultiPatternMatcher(
+                Pattern.compile("abcd"),
+                Pattern.compile("bcx"),
+                Pattern.compile("cd")
+        );
+
+        assertThat(m.match("abcx").keySet().toString(), is("[1]"));
+        assertThat(m.match("xabcdx").keySet().toString(), is("[0, 2]"));
+    }
+
+    @Test
+    public void watcher() throws Exception {
+        LogWatcher watcher = new LogWatcher();
+        Future<Matcher> up = watcher.watch(Pattern.compile("Jenkins is fully up and running"));
+        Future<Matcher> port = watcher.watch(Pattern.compile("Address already in use"));
+
+        watcher.processLine("Starting Jenkins");
+        assertThat(up.isDone(), is(false));
+
+        watcher.processLine("Jenkins is fully up and running");
+        assertThat(up.get().group(), is("Jenkins is fully up and running"));
+        assertThat(port.isDone(), is(false));
+
+        watcher.processClose(null);
+        assertThat(port.isDone(), is(true));
+    }
+
+    private String literal(String regex) {
+        return literal(Pattern.compile(regex));
+    }
+
+    private String literal(Pattern pattern) {
+        return MultiPatternMatcher.requiredLiteral(pattern);
+    }
+}
@@ -0,0 +1,178 @@
+package org.jenkinsci.test.acceptance.machine;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.Template;
+import org.jenkinsci.test.acceptance.Authenticator;
+import org.jenkinsci.test.acceptance.Ssh;
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.name.Names;
+
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the pool against the jclouds "stub" provider, that keeps nodes in memory.
+ */
+public class JcloudsMachineProviderTest {
+
+    private StubProvider provider;
+
+    @After
+    public void close() throws IOException {
+        if (provider != null) {
+            provider.close();
+        }
+    }
+
+    @Test
+    public void distinctMachines() throws Exception {
+        provider = create(0);
+
+        Future<Machine> first = provider.getAsync();
+        Future<Machine> second = provider.getAsync();
+
+        assertThat(first.get().getId(), not(second.get().getId()));
+        assertThat(provider.getProvisionedMachineCount(), is(2));
+        assertThat(provider.getProvisioningLatency().getCount(), is(2L));
+        assertThat(provider.getSetupLatency().getCount(), is(2L));
+    }
+
+    @Test
+    public void recycle() throws Exception {
+        provider = create(0);
+
+        Machine machine = provider.get();
+        machine.close();
+
+        assertThat(provider.get().getId(), is(machine.getId()));
+        assertThat(provider.getProvisionedMachineCount(), is(1));
+    }
+
+    @Test
+    public void provisionAhead() throws Exception {
+        provider = create(2);
+
+        provider.get();
+
+        long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+        while (provider.getProvisionedMachineCount() < 3) {
+            assertTrue("Machines not provisioned ahead", System.currentTimeMillis() < deadline);
+            Thread.sleep(100);
+        }
+
+        // Served from the pool
+        provider.get();
+        assertThat(provider.getProvisionedMachineCount(), is(3));
+    }
+
+    private static StubProvider create(final int lowWatermark) {
+        StubProvider provider = new StubProvider();
+        Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bindConstant().annotatedWith(Names.named("lowWatermarkOfMachines")).to(lowWatermark);
+                bindConstant().annotatedWith(Names.named("terminateNodesOnExit")).to(true);
+            }
+        }).injectMembers(provider);
+        return provider;
+    }
+
+    private static class StubProvider extends JcloudsMachineProvider {
+        private final String group = "jat-test-" + UUID.randomUUID().toString().substring(0, 8);
+
+        private StubProvider() {
+            // Nodes of the stub provider are kept per identity
+            super("stub", UUID.randomUUID().toString(), "credential");
+        }
+
+        @Override
+        protected String getGroupName() {
+            return group;
+        }
+
+        @Override
+        public Template getTemplate() throws IOException {
+            return computeService.templateBuilder().build();
+        }
+
+        @Override
+        public void postStartupSetup(NodeMetadata node) {
+        }
+
+        @Override
+        public int[] getAvailableInboundPorts() {
+            return new int[0];
+        }
+
+        @Override
+        public Authenticator authenticator() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void waitForSsh(NodeMetadata node) {
+            // Stub nodes have no sshd
+        }
+
+        @Override
+        protected Machine createMachine(NodeMetadata node) {
+            return new StubMachine(this, node);
+        }
+    }
+
+    private static class StubMachine implements Machine {
+        private final JcloudsMachineProvider provider;
+        private final NodeMetadata node;
+
+        private StubMachine(JcloudsMachineProvider provider, NodeMetadata node) {
+            this.provider = provider;
+            this.node = node;
+        }
+
+        @Override
+        public String getId() {
+            return node.getId();
+        }
+
+        @Override
+        public Ssh connect() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getPublicIpAddress() {
+            return node.getPublicAddresses().iterator().next();
+        }
+
+        @Override
+        public String getUser() {
+            return "stub";
+        }
+
+        @Override
+        public String dir() {
+            return "/tmp/";
+        }
+
+        @Override
+        public int getNextAvailablePort() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            provider.offer(this);
+        }
+    }
+}
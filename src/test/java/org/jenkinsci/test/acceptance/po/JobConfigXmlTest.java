@@ -0,0 +1,71 @@
+package org.jenkinsci.test.acceptance.po;
+
+import java.io.StringReader;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPathFactory;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class JobConfigXmlTest {
+
+    @Test
+    public void freestyle() throws Exception {
+        Document xml = parse(JobConfigXml.freestyle()
+                .description("Builds <everything> & more")
+                .label("linux")
+                .concurrentBuild(true)
+                .shell("test \"$A\" -lt 2 && echo ok")
+                .archiveArtifacts("*.jar")
+        );
+
+        assertThat(eval(xml, "name(/*)"), is("project"));
+        assertThat(eval(xml, "/project/description"), is("Builds <everything> & more"));
+        assertThat(eval(xml, "/project/assignedNode"), is("linux"));
+        assertThat(eval(xml, "/project/canRoam"), is("false"));
+        assertThat(eval(xml, "/project/concurrentBuild"), is("true"));
+        assertThat(eval(xml, "/project/builders/hudson.tasks.Shell/command"), is("test \"$A\" -lt 2 && echo ok"));
+        assertThat(eval(xml, "/project/publishers/hudson.tasks.ArtifactArchiver/artifacts"), is("*.jar"));
+    }
+
+    @Test
+    public void matrix() throws Exception {
+        Document xml = parse(JobConfigXml.matrix()
+                .axis("jdk", "7", "8")
+                .labelAxis("agent", "linux")
+                .shell("make")
+        );
+
+        assertThat(eval(xml, "name(/*)"), is("matrix-project"));
+        assertThat(eval(xml, "/matrix-project/axes/hudson.matrix.TextAxis/name"), is("jdk"));
+        assertThat(eval(xml, "count(/matrix-project/axes/hudson.matrix.TextAxis/values/string)"), is("2"));
+        assertThat(eval(xml, "/matrix-project/axes/hudson.matrix.LabelAxis/values/string"), is("linux"));
+        assertThat(eval(xml, "/matrix-project/builders/hudson.tasks.Shell/command"), is("make"));
+    }
+
+    @Test
+    public void workflow() throws Exception {
+        Document xml = parse(JobConfigXml.workflow()
+                .script("node { echo '<ok>' }")
+                .sandbox(false)
+        );
+
+        assertThat(eval(xml, "name(/*)"), is("flow-definition"));
+        assertThat(eval(xml, "/flow-definition/definition/script"), is("node { echo '<ok>' }"));
+        assertThat(eval(xml, "/flow-definition/definition/sandbox"), is("false"));
+        assertThat(eval(xml, "/flow-definition/disabled"), is("false"));
+    }
+
+    private static Document parse(JobConfigXml<?> config) throws Exception {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new InputSource(new StringReader(config.toXml())));
+    }
+
+    private static String eval(Document xml, String xpath) throws Exception {
+        return XPathFactory.newInstance().newXPath().evaluate(xpath, xml);
+    }
+}
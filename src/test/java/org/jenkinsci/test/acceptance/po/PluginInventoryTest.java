@@ -0,0 +1,34 @@
+package org.jenkinsci.test.acceptance.po;
+
+import hudson.util.VersionNumber;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class PluginInventoryTest {
+
+    @Test
+    public void parse() throws Exception {
+        PluginInventory inventory = new PluginInventory(new ObjectMapper().readTree(
+                "{\"plugins\":["
+                + "{\"active\":true,\"enabled\":true,\"shortName\":\"git\",\"version\":\"2.4.4\"},"
+                + "{\"active\":false,\"enabled\":false,\"shortName\":\"ant\",\"version\":\"1.2\"}"
+                + "]}"
+        ));
+
+        assertThat(inventory.getVersion("git"), is(new VersionNumber("2.4.4")));
+        assertThat(inventory.isActive("git"), is(true));
+
+        assertThat(inventory.isInstalled("ant"), is(true));
+        assertThat(inventory.isActive("ant"), is(false));
+
+        assertThat(inventory.isInstalled("subversion"), is(false));
+        assertThat(inventory.getVersion("subversion"), nullValue());
+        assertThat(inventory.getNames().size(), is(2));
+    }
+}
@@ -0,0 +1,61 @@
+package org.jenkinsci.test.acceptance.po;
+
+import java.net.URL;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.inject.Injector;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SlaveOnlineWatcherTest {
+
+    private final Slave slave = mock(Slave.class);
+    private final JsonApiClient client = mock(JsonApiClient.class);
+
+    @Before
+    public void setUp() throws Exception {
+        slave.injector = mock(Injector.class);
+        when(slave.injector.getInstance(JsonApiClient.class)).thenReturn(client);
+    }
+
+    @Test
+    public void onlineOnceLogSaysSo() throws Exception {
+        when(client.getProgressiveText(any(URL.class), anyLong())).thenReturn(
+                new JsonApiClient.ProgressiveText("Launching agent\n", 16, true),
+                new JsonApiClient.ProgressiveText("Agent successfully connected and online\n", 56, false)
+        );
+        when(slave.isOnline()).thenReturn(true);
+
+        SlaveOnlineWatcher watcher = new SlaveOnlineWatcher(slave);
+        assertThat(watcher.poll(), is(false));
+        verify(slave, never()).isOnline();
+        assertThat(watcher.poll(), is(true));
+        assertThat(watcher.getLog(), is("Launching agent\nAgent successfully connected and online\n"));
+    }
+
+    @Test
+    public void onlineWithoutLogMessage() throws Exception {
+        when(client.getProgressiveText(any(URL.class), anyLong())).thenReturn(
+                new JsonApiClient.ProgressiveText("Verbindung hergestellt\n", 23, false)
+        );
+        when(slave.isOnline()).thenReturn(true);
+
+        SlaveOnlineWatcher watcher = new SlaveOnlineWatcher(slave);
+        for (int i = 1; i < SlaveOnlineWatcher.STATE_EVERY; i++) {
+            assertThat(watcher.poll(), is(false));
+        }
+        verify(slave, never()).isOnline();
+        assertThat(watcher.poll(), is(true));
+        verify(slave, times(1)).isOnline();
+    }
+}
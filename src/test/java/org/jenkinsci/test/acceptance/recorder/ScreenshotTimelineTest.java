@@ -0,0 +1,99 @@
+package org.jenkinsci.test.acceptance.recorder;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
+
+import org.junit.After;
+import org.junit.Test;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+public class ScreenshotTimelineTest {
+
+    private final ScreenshotTimeline timeline = new ScreenshotTimeline();
+
+    @After
+    public void stop() {
+        timeline.stop();
+    }
+
+    @Test
+    public void similarScreenshotsHaveSameHash() throws Exception {
+        assertThat(ScreenshotTimeline.hash(page(10)), is(ScreenshotTimeline.hash(page(11))));
+        assertThat(ScreenshotTimeline.hash(page(10)), not(ScreenshotTimeline.hash(page(500))));
+    }
+
+    @Test
+    public void skipDuplicates() throws Exception {
+        WebDriver driver = driver(page(10), page(10), page(500), page(10));
+        timeline.start();
+
+        timeline.afterNavigateTo("http://localhost/", driver);
+        timeline.afterClickOn(null, driver);
+        timeline.afterClickOn(null, driver);
+        timeline.capture("timeout");
+
+        assertThat(timeline.getEvents(), is(Arrays.asList("navigate", "click", "timeout")));
+    }
+
+    @Test
+    public void keepLastFrames() throws Exception {
+        byte[][] pages = new byte[ScreenshotTimeline.MAX_FRAMES + 5][];
+        for (int i = 0; i < pages.length; i++) {
+            pages[i] = page(i % 2 == 0 ? 10 : 500);
+        }
+        WebDriver driver = driver(pages[0], Arrays.copyOfRange(pages, 1, pages.length));
+        timeline.start();
+
+        for (int i = 0; i < pages.length; i++) {
+            timeline.afterNavigateTo("http://localhost/" + i, driver);
+        }
+
+        assertThat(timeline.getEvents().size(), is(ScreenshotTimeline.MAX_FRAMES));
+    }
+
+    @Test
+    public void captureOnlyWhenStarted() throws Exception {
+        timeline.afterNavigateTo("http://localhost/", driver(page(10)));
+
+        assertThat(timeline.getEvents().size(), is(0));
+    }
+
+    private static WebDriver driver(byte[] first, byte[]... next) {
+        WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(TakesScreenshot.class));
+        when(((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES)).thenReturn(first, next);
+        when(driver.getCurrentUrl()).thenReturn("http://localhost/");
+        return driver;
+    }
+
+    /**
+     * White page with black sidebar of given width.
+     */
+    private static byte[] page(int sidebar) throws IOException {
+        BufferedImage image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, 800, 600);
+        g.setColor(Color.BLACK);
+        g.fillRect(800 - sidebar, 0, sidebar, 600);
+        g.dispose();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
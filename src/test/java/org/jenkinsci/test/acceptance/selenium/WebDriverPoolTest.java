@@ -0,0 +1,57 @@
+package org.jenkinsci.test.acceptance.selenium;
+
+import org.jenkinsci.test.acceptance.guice.WorldCleaner;
+import org.junit.After;
+import org.junit.Test;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class WebDriverPoolTest {
+
+    private final WebDriverPool pool = new WebDriverPool(new WorldCleaner());
+
+    @After
+    public void close() {
+        pool.close();
+    }
+
+    @Test
+    public void reuseSessionOfSameKey() {
+        WebDriver driver = new HtmlUnitDriver(true);
+        assertThat(pool.take("htmlunit"), nullValue());
+
+        pool.release("htmlunit", driver);
+        assertThat(pool.take("firefox"), nullValue());
+        assertThat(pool.take("htmlunit"), sameInstance(driver));
+        assertThat(pool.take("htmlunit"), nullValue());
+        driver.quit();
+    }
+
+    @Test
+    public void resetSession() {
+        HtmlUnitDriver driver = new HtmlUnitDriver(true);
+        driver.executeScript("window.open('about:blank', 'other')");
+        assertThat(driver.getWindowHandles().size(), is(2));
+
+        pool.release("htmlunit", driver);
+        WebDriver reused = pool.take("htmlunit");
+
+        assertThat(reused.getWindowHandles().size(), is(1));
+        assertThat(reused.getCurrentUrl(), is("about:blank"));
+        reused.quit();
+    }
+
+    @Test
+    public void discardSessionNotResponding() {
+        WebDriver driver = new HtmlUnitDriver(true);
+        pool.release("htmlunit", driver);
+        driver.quit();
+
+        assertThat(pool.take("htmlunit"), nullValue());
+    }
+}
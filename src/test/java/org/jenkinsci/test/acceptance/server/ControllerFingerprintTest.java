@@ -0,0 +1,72 @@
+package org.jenkinsci.test.acceptance.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.commons.io.FileUtils;
+import org.jenkinsci.test.acceptance.update_center.PluginSpec;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.junit.Assert.assertThat;
+
+public class ControllerFingerprintTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void identifiedByWarContentPluginsAndOptions() throws Exception {
+        File war = war("a.war", "content");
+        File copy = war("b.war", "content");
+        File other = war("c.war", "other content");
+
+        ControllerFingerprint fp = fingerprint(war, "git", "subversion@2.0");
+
+        assertThat(fingerprint(copy, "subversion@2.0", "git"), is(fp));
+        assertThat(fingerprint(other, "git", "subversion@2.0"), not(fp));
+        assertThat(fingerprint(war, "git"), not(fp));
+        assertThat(new ControllerFingerprint(war, fp.getPlugins(), Collections.singletonList("-Xmx1g")), not(fp));
+    }
+
+    @Test
+    public void roundtrip() throws Exception {
+        ControllerFingerprint fp = fingerprint(war("jenkins.war", "content"), "git");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        fp.writeTo(out);
+        out.write(42); // Following data must not be consumed
+
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        assertThat(ControllerFingerprint.readFrom(in), is(fp));
+        assertThat(in.read(), is(42));
+    }
+
+    @Test
+    public void memory() throws Exception {
+        File war = war("jenkins.war", "content");
+        assertThat(new ControllerFingerprint(war, Collections.<PluginSpec>emptyList(), Arrays.asList("-Xms256m", "-Xmx2g")).getMemory(42), is(2048));
+        assertThat(new ControllerFingerprint(war, Collections.<PluginSpec>emptyList(), Arrays.asList("-Xmx768m")).getMemory(42), is(768));
+        assertThat(new ControllerFingerprint(war, Collections.<PluginSpec>emptyList(), Collections.<String>emptyList()).getMemory(42), is(42));
+    }
+
+    private File war(String name, String content) throws Exception {
+        File war = tmp.newFile(name);
+        FileUtils.writeStringToFile(war, content);
+        return war;
+    }
+
+    private ControllerFingerprint fingerprint(File war, String... plugins) {
+        PluginSpec[] specs = new PluginSpec[plugins.length];
+        for (int i = 0; i < plugins.length; i++) {
+            specs[i] = new PluginSpec(plugins[i]);
+        }
+        return new ControllerFingerprint(war, Arrays.asList(specs), Collections.<String>emptyList());
+    }
+}
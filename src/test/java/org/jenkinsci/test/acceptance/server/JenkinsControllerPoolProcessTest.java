@@ -0,0 +1,68 @@
+package org.jenkinsci.test.acceptance.server;
+
+import java.io.File;
+import java.util.Collections;
+
+import com.google.inject.ProvisionException;
+import org.apache.commons.io.FileUtils;
+import org.jenkinsci.test.acceptance.controller.LocalController;
+import org.jenkinsci.test.acceptance.controller.WinstoneController;
+import org.jenkinsci.test.acceptance.guice.World;
+import org.jenkinsci.test.acceptance.server.JenkinsControllerPoolProcess.QueueItem;
+import org.jenkinsci.test.acceptance.update_center.PluginSpec;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeNoException;
+import static org.junit.Assume.assumeThat;
+
+public class JenkinsControllerPoolProcessTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void launchNonDefaultWar() throws Exception {
+        assumeThat(System.getenv("TYPE"), nullValue());
+        assumeThat(System.getenv("type"), nullValue());
+        assumeThat(System.getenv("PLUGINS_DIR"), nullValue());
+
+        JenkinsControllerPoolProcess proc = new JenkinsControllerPoolProcess();
+        try {
+            World.get().getInjector().injectMembers(proc);
+        } catch (ProvisionException e) {
+            assumeNoException(e); // No jenkins.war to launch
+        }
+        proc.init();
+
+        // Plugins next to the war are picked up, so they tell which war the plugins were prepared for
+        File war = new File(tmp.newFolder("other"), "jenkins.war");
+        FileUtils.copyFile(proc.war, war);
+        FileUtils.writeStringToFile(new File(war.getParentFile(), "plugins/marker.txt"), "other war");
+
+        ControllerFingerprint fp = new ControllerFingerprint(war, Collections.<PluginSpec>emptyList(), WinstoneController.getDefaultJavaOpts());
+
+        boolean main = JenkinsControllerPoolProcess.MAIN;
+        JenkinsControllerPoolProcess.MAIN = true; // Launch the instance here rather than asking the running server
+        QueueItem qi;
+        try {
+            qi = proc.launch(fp, null);
+        } finally {
+            JenkinsControllerPoolProcess.MAIN = main;
+        }
+
+        try {
+            assertThat(qi.controller, instanceOf(LocalController.class));
+            LocalController c = (LocalController) qi.controller;
+            assertThat(c.isRunning(), is(true));
+            assertThat(new File(c.getJenkinsHome(), "plugins/marker.txt").isFile(), is(true));
+        } finally {
+            proc.discard(qi);
+        }
+    }
+}
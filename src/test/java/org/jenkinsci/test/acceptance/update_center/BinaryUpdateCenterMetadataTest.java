@@ -0,0 +1,63 @@
+package org.jenkinsci.test.acceptance.update_center;
+
+import java.io.File;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class BinaryUpdateCenterMetadataTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void roundtrip() throws Exception {
+        File json = tmp.newFile("update-center.json");
+        FileUtils.writeStringToFile(json, "updateCenter.post(\n"
+                + "{\"id\":\"default\",\"plugins\":{"
+                + "\"consumer\":{\"name\":\"consumer\",\"gav\":\"org.jenkins-ci.plugins:consumer:1.1\",\"version\":\"1.1\","
+                + "\"requiredCore\":\"1.609\",\"excerpt\":\"Ignored\",\"dependencies\":["
+                + "{\"name\":\"provider\",\"version\":\"1.0\",\"optional\":false},"
+                + "{\"name\":\"extra\",\"version\":\"2.0\",\"optional\":true}]},"
+                + "\"provider\":{\"name\":\"provider\",\"gav\":\"org.jenkins-ci.plugins:provider:1.0\",\"version\":\"1.0\","
+                + "\"requiredCore\":\"1.609\",\"dependencies\":[]}"
+                + "}}\n"
+                + ");"
+        );
+        File bin = new File(tmp.getRoot(), "update-center.json.bin");
+
+        UpdateCenterMetadata parsed = UpdateCenterMetadata.parse(json);
+        BinaryUpdateCenterMetadata.write(parsed, bin, json);
+        UpdateCenterMetadata read = BinaryUpdateCenterMetadata.read(bin, json);
+
+        assertThat(read.id, is("default"));
+        assertThat(read.plugins.size(), is(2));
+        PluginMetadata consumer = read.plugins.get("consumer");
+        assertThat(consumer.getGav(), is("org.jenkins-ci.plugins:consumer:1.1"));
+        assertThat(consumer.getVersion(), is("1.1"));
+        assertThat(consumer.getRequiredCore(), is("1.609"));
+        assertThat(consumer.getDependencies().size(), is(2));
+        assertThat(consumer.getDependencies().get(0).name, is("provider"));
+        assertThat(consumer.getDependencies().get(0).get(), is(read.plugins.get("provider")));
+        assertThat(consumer.getDependencies().get(1).optional, is(true));
+
+        // Source changed
+        assertThat(json.setLastModified(json.lastModified() - 10000), is(true));
+        assertThat(BinaryUpdateCenterMetadata.read(bin, json), nullValue());
+    }
+
+    @Test
+    public void damaged() throws Exception {
+        File json = tmp.newFile("update-center.json");
+        File bin = tmp.newFile("update-center.json.bin");
+        FileUtils.writeStringToFile(bin, "garbage");
+
+        assertThat(BinaryUpdateCenterMetadata.read(bin, json), nullValue());
+    }
+}
@@ -0,0 +1,112 @@
+package org.jenkinsci.test.acceptance.update_center;
+
+import hudson.util.VersionNumber;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares {@link DependencyResolver} with walking the dependency graph from scratch for every plugin.
+ *
+ * Run as a plain java program, passing the path to update-center.json downloaded from the update center. The file
+ * cached by {@link CachedUpdateCenterMetadataLoader} is used by default.
+ */
+public class DependencyResolverBenchmark {
+    private static final int ROUNDS = 10;
+    private static final int SETS = 200;
+    private static final int SET_SIZE = 15;
+
+    public static void main(String... args) throws IOException {
+        File file = new File(args.length > 0 ? args[0] : new File(System.getProperty("java.io.tmpdir"), "update-center.json").getPath());
+        VersionNumber core = new VersionNumber(args.length > 1 ? args[1] : "2.7");
+
+        long start = System.nanoTime();
+        UpdateCenterMetadata ucm = UpdateCenterMetadata.parse(file);
+        System.out.format("Parsed %d plugins in %d ms%n", ucm.plugins.size(), millis(start));
+
+        // Random sets of plugins installable to given core, as requested by @WithPlugins
+        List<String> names = new ArrayList<>();
+        for (PluginMetadata p : ucm.plugins.values()) {
+            if (!p.requiredCore().isNewerThan(core)) {
+                names.add(p.getName());
+            }
+        }
+        Collections.sort(names);
+        Random rnd = new Random(42);
+        List<List<PluginSpec>> sets = new ArrayList<>();
+        for (int i = 0; i < SETS; i++) {
+            List<PluginSpec> set = new ArrayList<>();
+            for (int j = 0; j < SET_SIZE; j++) {
+                set.add(new PluginSpec(names.get(rnd.nextInt(names.size()))));
+            }
+            sets.add(set);
+        }
+
+        for (int round = 0; round < ROUNDS; round++) {
+            start = System.nanoTime();
+            int naive = 0;
+            for (List<PluginSpec> set : sets) {
+                naive += naive(ucm, core, set);
+            }
+            long naiveTime = millis(start);
+
+            start = System.nanoTime();
+            int indexed = 0;
+            for (List<PluginSpec> set : sets) {
+                indexed += indexed(ucm, core, set);
+            }
+            long indexedTime = millis(start);
+
+            System.out.format(
+                    "%d sets of %d plugins: recursive %d ms (%d plugins), indexed %d ms (%d plugins)%n",
+                    SETS, SET_SIZE, naiveTime, naive, indexedTime, indexed
+            );
+        }
+    }
+
+    private static int indexed(UpdateCenterMetadata ucm, VersionNumber core, List<PluginSpec> set) {
+        try {
+            return ucm.transitiveDependenciesOf(core, set).size();
+        } catch (UpdateCenterMetadata.UnableToResolveDependencies e) {
+            return 0;
+        }
+    }
+
+    /**
+     * The way dependencies were resolved before.
+     */
+    private static int naive(UpdateCenterMetadata ucm, VersionNumber core, List<PluginSpec> set) {
+        List<PluginMetadata> result = new ArrayList<>();
+        try {
+            for (PluginSpec n : set) {
+                PluginMetadata p = ucm.plugins.get(n.getName());
+                if (p.requiredCore().isNewerThan(core)) continue;
+                naive(ucm, core, p, n.getVersion(), result);
+            }
+        } catch (UpdateCenterMetadata.UnableToResolveDependencies | StackOverflowError e) {
+            return 0;
+        }
+        return result.size();
+    }
+
+    private static void naive(UpdateCenterMetadata ucm, VersionNumber core, PluginMetadata p, String v, List<PluginMetadata> result) {
+        for (Dependency d : p.getDependencies()) {
+            if (d.optional) continue;
+            PluginMetadata depMetaData = ucm.plugins.get(d.name);
+            if (depMetaData == null) throw new UpdateCenterMetadata.UnableToResolveDependencies(d.name);
+            naive(ucm, core, depMetaData, d.version, result);
+        }
+
+        if (!result.contains(p)) {
+            result.add(p.requiredCore().isNewerThan(core) ? p.withVersion(v) : p);
+        }
+    }
+
+    private static long millis(long start) {
+        return (System.nanoTime() - start) / 1000000;
+    }
+}
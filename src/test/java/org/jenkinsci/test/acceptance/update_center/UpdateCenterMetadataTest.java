@@ -8,6 +8,7 @@ import static org.mockito.Mockito.when;
 import hudson.util.VersionNumber;
 import org.hamcrest.Matchers;
 import org.jenkinsci.test.acceptance.po.Jenkins;
+import org.jenkinsci.test.acceptance.po.PluginInventory;
 import org.junit.Test;
 
 import java.util.ArrayList;
@@ -16,6 +17,9 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
 /**
  * @author ogondza.
  */
@@ -27,6 +31,9 @@ public class UpdateCenterMetadataTest {
     {
         when(jenkins.getVersion()).thenReturn(new VersionNumber("2"));
         when(jenkins.getPlugin(any(String.class))).thenThrow(new IllegalArgumentException("Not installed"));
+        ObjectNode noPlugins = JsonNodeFactory.instance.objectNode();
+        noPlugins.putArray("plugins");
+        when(jenkins.getPluginInventory()).thenReturn(new PluginInventory(noPlugins));
     }
 
     private HashMap<String, PluginMetadata> plugins = new HashMap<>();
@@ -42,6 +49,10 @@ public class UpdateCenterMetadataTest {
             plugins.put("branchb", new PluginMetadata("branchb", "jenkins:branchb:1", "1", "1", Arrays.asList(new Dependency("depb0:1"), new Dependency("depb1:1"))));
                 plugins.put("depb0", new PluginMetadata("depb0", "jenkins:depb0:1", "1", "1", NO_DEPS));
                 plugins.put("depb1", new PluginMetadata("depb1", "jenkins:depb1:1", "1", "1", NO_DEPS));
+
+        plugins.put("cyclic", new PluginMetadata("cyclic", "jenkins:cyclic:1", "1", "1", Arrays.asList(new Dependency("cyclea:1"))));
+            plugins.put("cyclea", new PluginMetadata("cyclea", "jenkins:cyclea:1", "1", "1", Arrays.asList(new Dependency("cycleb:1"))));
+            plugins.put("cycleb", new PluginMetadata("cycleb", "jenkins:cycleb:1", "1", "1", Arrays.asList(new Dependency("cyclea:1"))));
     }
 
     private UpdateCenterMetadata ucm = UpdateCenterMetadata.get("id", plugins);
@@ -80,6 +91,50 @@ public class UpdateCenterMetadataTest {
         assertThat(ucm.transitiveDependenciesOf(jenkins, specs("provider@1", "consumer@1")), Matchers.contains(plugins.get("provider"), plugins.get("consumer")));
     }
 
+    @Test
+    public void transitiveDependenciesOfCoreVersion() throws Exception {
+        VersionNumber core = new VersionNumber("2");
+        assertThat(ucm.transitiveDependenciesOf(core, specs("consumer")), Matchers.contains(plugins.get("provider"), plugins.get("consumer")));
+        assertThat(ucm.transitiveDependenciesOf(core, specs("complex")), Matchers.containsInAnyOrder(
+                plugins.get("complex"), plugins.get("brancha"), plugins.get("branchb"),
+                plugins.get("depa"), plugins.get("depb0"), plugins.get("depb1")
+        ));
+    }
+
+    @Test
+    public void transitiveDependenciesOfSharedDependencies() throws Exception {
+        VersionNumber core = new VersionNumber("2");
+        List<PluginMetadata> deps = ucm.transitiveDependenciesOf(core, specs("brancha", "complex", "depb0"));
+        assertThat(deps, Matchers.contains(
+                plugins.get("depa"), plugins.get("brancha"), plugins.get("depb0"), plugins.get("depb1"),
+                plugins.get("branchb"), plugins.get("complex")
+        ));
+
+        // Memoized
+        assertThat(ucm.transitiveDependenciesOf(core, specs("brancha", "complex", "depb0")), Matchers.equalTo(deps));
+    }
+
+    @Test
+    public void transitiveDependenciesOfModifiedPlugins() throws Exception {
+        VersionNumber core = new VersionNumber("2");
+        assertThat(ucm.transitiveDependenciesOf(core, specs("consumer")), Matchers.contains(plugins.get("provider"), plugins.get("consumer")));
+
+        PluginMetadata consumer = new PluginMetadata("consumer", "jenkins:consumer:2", "2", "1", NO_DEPS);
+        ucm.plugins.put("consumer", consumer);
+        ucm.pluginsModified();
+        assertThat(ucm.transitiveDependenciesOf(core, specs("consumer")), Matchers.contains(consumer));
+    }
+
+    @Test(expected = UnableToResolveDependencies.class)
+    public void transitiveDependenciesOfCycle() throws Exception {
+        ucm.transitiveDependenciesOf(jenkins, specs("cyclic"));
+    }
+
+    @Test(expected = UnableToResolveDependencies.class)
+    public void transitiveDependenciesOfTooOldCore() throws Exception {
+        ucm.transitiveDependenciesOf(new VersionNumber("0.5"), specs("standalone"));
+    }
+
     private List<PluginSpec> specs(String... specs) {
         ArrayList<PluginSpec> ret = new ArrayList<>(specs.length);
         for (String spec : specs) {